@@ -0,0 +1,61 @@
+/* CalculatorBenchmark class is a JMH benchmark of the footprint formula behind the Calculate button, once
+   with the factors passed in and once looking up the current emission factor table for every call, which
+   is what CarbonFootprintCalculator.computeFootprint(transport, electricity, food) does. */
+
+//package OOP_Program;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculatorBenchmark {
+    private static final int INPUTS = 1024; // Power of two, so the next input is picked with a mask
+
+    private double[] transport;
+    private double[] electricity;
+    private double[] food;
+    private EmissionFactorTable.Factors factors;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        transport = new double[INPUTS];
+        electricity = new double[INPUTS];
+        food = new double[INPUTS];
+        for (int i = 0; i < INPUTS; i++) {
+            transport[i] = random.nextDouble(0, 20_000);
+            electricity[i] = random.nextDouble(0, 10_000);
+            food[i] = random.nextDouble(0, 1_000);
+        }
+        factors = EmissionFactorTable.current().getDefaultFactors();
+    }
+
+    @Benchmark
+    public double givenFactors() {
+        int i = next++ & (INPUTS - 1);
+        return CarbonFootprintCalculator.computeFootprint(transport[i], electricity[i], food[i], factors);
+    }
+
+    @Benchmark
+    public double currentFactors() {
+        int i = next++ & (INPUTS - 1);
+        return CarbonFootprintCalculator.computeFootprint(transport[i], electricity[i], food[i]);
+    }
+}
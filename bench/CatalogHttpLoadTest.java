@@ -0,0 +1,168 @@
+/* CatalogHttpLoadTest class is a load test of CatalogHttpServer. It starts the server on a free port with a
+   catalog of generated URLs and fresh accounts and histories in a temporary directory, logs in once per client
+   and then has every client send requests back to back over a kept-alive connection for a fixed time: 50%
+   keyword searches, 25% catalog pages, 20% footprints that are not stored and 5% footprints that are stored.
+   It prints the throughput and the latency percentiles. Client and server share the machine, so the result
+   is a lower bound for a server with its own cores. Run it with "ant bench-http" or directly, for example:
+       java -cp build/classes:build/bench/classes CatalogHttpLoadTest 20 64 100000
+   for 20 seconds with 64 clients over 100000 URLs. */
+
+//package OOP_Program;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CatalogHttpLoadTest {
+    private static final String[] WORDS = {"climate", "action", "carbon", "energy", "solar", "wind", "ocean",
+        "forest", "policy", "report", "transport", "emissions", "adaptation", "finance", "water", "food"};
+    private static final int WARMUP_SECONDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int entries = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+
+        System.setProperty("java.awt.headless", "true");
+        Path directory = Files.createTempDirectory("catalog-load");
+        System.setProperty("history.dir", directory.resolve("history").toString());
+        UrlCatalog catalog = new UrlCatalog(null);
+        List<AdminInterface.UrlInfo> batch = new ArrayList<>(entries);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < entries; i++) {
+            batch.add(new AdminInterface.UrlInfo("https://site" + random.nextInt(5000) + ".org/doc/" + i,
+                    WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i));
+        }
+        catalog.addAll(batch);
+        CredentialStore credentials = new CredentialStore(directory.resolve("users.txt"),
+                CredentialStore.DEFAULT_ITERATIONS);
+        CatalogHttpServer server = new CatalogHttpServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), catalog, credentials);
+        server.start();
+        String base = "http://localhost:" + server.getPort();
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        String token = login(client, base);
+
+        System.out.printf("%d clients, %,d URLs, %d s warm-up, %d s measured%n", clients, entries,
+                WARMUP_SECONDS, seconds);
+        Result result;
+        try {
+            run(client, base, token, clients, WARMUP_SECONDS);
+            result = run(client, base, token, clients, seconds);
+        } finally {
+            server.stop(0);
+        }
+
+        long[] latencies = result.latencies;
+        Arrays.sort(latencies);
+        System.out.printf("%,d requests, %,d errors, %,.0f requests/s%n", latencies.length, result.errors,
+                latencies.length / (double) seconds);
+        System.out.printf("latency p50 %.2f ms, p99 %.2f ms, p99.9 %.2f ms, max %.2f ms%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.99), percentile(latencies, 0.999),
+                latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6);
+    }
+
+    // Method to send requests from every client until the time is up, returns the latency of each request
+    private static Result run(HttpClient client, String base, String token, int clients, int seconds)
+            throws Exception {
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        AtomicLong errors = new AtomicLong();
+        List<Future<long[]>> futures = new ArrayList<>();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                long seed = c;
+                futures.add(workers.submit(() -> {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    long[] latencies = new long[1024];
+                    int count = 0;
+                    while (System.nanoTime() < end) {
+                        HttpRequest request = nextRequest(random, base, token);
+                        long start = System.nanoTime();
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        long latency = System.nanoTime() - start;
+                        if (response.statusCode() >= 300) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = latency;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        long[] all = new long[0];
+        for (Future<long[]> future : futures) {
+            long[] latencies = future.get();
+            int length = all.length;
+            all = Arrays.copyOf(all, length + latencies.length);
+            System.arraycopy(latencies, 0, all, length, latencies.length);
+        }
+        return new Result(all, errors.get());
+    }
+
+    private static HttpRequest nextRequest(SplittableRandom random, String base, String token) {
+        int kind = random.nextInt(100);
+        HttpRequest.Builder builder;
+        if (kind < 50) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            String keyword = word.substring(0, Math.min(word.length(), 4 + random.nextInt(2)));
+            builder = HttpRequest.newBuilder(URI.create(base + "/api/search?limit=20&q=" + keyword)).GET();
+        } else if (kind < 75) {
+            builder = HttpRequest.newBuilder(URI.create(base + "/api/urls?limit=20&offset="
+                    + random.nextInt(10_000))).GET();
+        } else {
+            String body = "{\"transport\":" + random.nextInt(20_000) + ",\"electricity\":" + random.nextInt(5000)
+                    + ",\"food\":" + random.nextInt(3000) + ",\"record\":" + (kind >= 95) + "}";
+            builder = HttpRequest.newBuilder(URI.create(base + "/api/footprint"))
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+        return builder.header("Authorization", "Bearer " + token).build();
+    }
+
+    private static String login(HttpClient client, String base) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(base + "/api/login"))
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"user\",\"password\":\"password\"}"))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("Login failed: " + response.body());
+        }
+        return (String) FlatJson.parseObject(response.body()).get("token");
+    }
+
+    private static double percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(fraction * sorted.length) - 1)] / 1e6;
+    }
+
+    // Inner class holding the latencies and error count of one run
+    private static class Result {
+        final long[] latencies;
+        final long errors;
+
+        Result(long[] latencies, long errors) {
+            this.latencies = latencies;
+            this.errors = errors;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/* CatalogMutationBenchmark class is a JMH benchmark of the admin upload, edit and delete paths. The
+   "copyOf" benchmarks are the old approach, an ArrayList republished to readers with List.copyOf after
+   every change, and the "catalog" benchmarks are UrlCatalog, which publishes a persistent list that shares
+   all but O(log n) nodes with the previous snapshot. The catalog is not saved to disk here. Upload is
+   measured together with a delete, so the catalog keeps its size over the run. */
+
+//package OOP_Program;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CatalogMutationBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int entries;
+
+    private List<AdminInterface.UrlInfo> list;
+    private volatile List<AdminInterface.UrlInfo> published; // What readers of the old approach saw
+    private UrlCatalog catalog;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        list = new ArrayList<>(entries + 1);
+        for (int i = 0; i < entries; i++) {
+            list.add(new AdminInterface.UrlInfo("https://example.org/" + i, "Climate resource " + i));
+        }
+        published = List.copyOf(list);
+        catalog = new UrlCatalog(null);
+        for (AdminInterface.UrlInfo urlInfo : list) {
+            catalog.add(new AdminInterface.UrlInfo(urlInfo.getUrl(), urlInfo.getName()));
+        }
+    }
+
+    private AdminInterface.UrlInfo nextEntry() {
+        int i = next++;
+        return new AdminInterface.UrlInfo("https://example.org/new/" + i, "New climate resource " + i);
+    }
+
+    @Benchmark
+    public List<AdminInterface.UrlInfo> copyOfUploadDelete() {
+        list.add(nextEntry());
+        published = List.copyOf(list);
+        list.remove(list.size() / 2);
+        published = List.copyOf(list);
+        return published;
+    }
+
+    @Benchmark
+    public List<AdminInterface.UrlInfo> copyOfEdit() {
+        list.set(Math.floorMod(next * 31, entries), nextEntry());
+        published = List.copyOf(list);
+        return published;
+    }
+
+    @Benchmark
+    public List<AdminInterface.UrlInfo> catalogUploadDelete() {
+        catalog.add(nextEntry());
+        catalog.remove(catalog.snapshot().size() / 2);
+        return catalog.snapshot();
+    }
+
+    @Benchmark
+    public List<AdminInterface.UrlInfo> catalogEdit() {
+        catalog.set(Math.floorMod(next * 31, entries), nextEntry());
+        return catalog.snapshot();
+    }
+}
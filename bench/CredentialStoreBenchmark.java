@@ -0,0 +1,72 @@
+/* CredentialStoreBenchmark class is a JMH benchmark of login latency with 1000 accounts that log in from
+   many threads at once. "cached" measures logins that were verified before and only need the keyed digest,
+   "uncached" measures the full PBKDF2 check a first login pays, and "session" opens and closes a session. */
+
+//package OOP_Program;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class CredentialStoreBenchmark {
+    private static final int USERS = 1000;
+
+    private CredentialStore store;
+    private String[] usernames;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path file = Files.createTempDirectory("credentials").resolve("users.txt");
+        store = new CredentialStore(file, CredentialStore.DEFAULT_ITERATIONS);
+        usernames = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            usernames[i] = "user" + i;
+            store.setPassword(usernames[i], "password" + i, CredentialStore.Role.USER);
+        }
+        // Log every account in once, so the cached benchmark starts with 1000 verified sessions
+        for (int i = 0; i < USERS; i++) {
+            store.login(usernames[i], "password" + i);
+        }
+    }
+
+    @Benchmark
+    public CredentialStore.Role cached() {
+        int i = ThreadLocalRandom.current().nextInt(USERS);
+        return store.authenticate(usernames[i], "password" + i);
+    }
+
+    @Benchmark
+    public CredentialStore.Role uncached() {
+        int i = ThreadLocalRandom.current().nextInt(USERS);
+        return store.authenticate(usernames[i], "wrong" + i); // A wrong password is never cached
+    }
+
+    @Benchmark
+    public CredentialStore.Session session() {
+        int i = ThreadLocalRandom.current().nextInt(USERS);
+        CredentialStore.Session session = store.login(usernames[i], "password" + i);
+        store.logout(session);
+        return session;
+    }
+}
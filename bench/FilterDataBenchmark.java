@@ -0,0 +1,71 @@
+/* FilterDataBenchmark class is a JMH benchmark of keyword search over catalogs of 1k, 100k and 1M entries.
+   "linear" is UserInterface.filterData, which lower-cases and checks every name, and "indexed" is the
+   trigram index the live search uses. Both are given the same keyword, which matches about 1% of names. */
+
+//package OOP_Program;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FilterDataBenchmark {
+    private static final String[] WORDS = {"climate", "action", "carbon", "energy", "solar", "wind", "ocean",
+        "forest", "policy", "report", "transport", "emissions", "adaptation", "finance", "water", "food"};
+    private static final String KEYWORD = "Glacier";
+
+    @Param({"1000", "100000", "1000000"})
+    private int entries;
+
+    private List<AdminInterface.UrlInfo> data;
+    private UrlSearchIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        data = new ArrayList<>(entries);
+        index = new UrlSearchIndex();
+        for (int i = 0; i < entries; i++) {
+            StringBuilder name = new StringBuilder();
+            for (int word = 0; word < 4; word++) {
+                name.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            if (random.nextInt(100) == 0) {
+                name.append("glacier ");
+            }
+            name.append(i);
+            AdminInterface.UrlInfo urlInfo = new AdminInterface.UrlInfo("https://example.org/" + i, name.toString());
+            urlInfo.id = i;
+            data.add(urlInfo);
+            index.add(urlInfo);
+        }
+    }
+
+    @Benchmark
+    public List<AdminInterface.UrlInfo> linear() {
+        return UserInterface.filterData(data, KEYWORD);
+    }
+
+    @Benchmark
+    public List<AdminInterface.UrlInfo> indexed() {
+        return index.searchSubstring(KEYWORD);
+    }
+}
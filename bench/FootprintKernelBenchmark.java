@@ -0,0 +1,75 @@
+/* FootprintKernelBenchmark class is a JMH benchmark comparing the scalar and the vector footprint kernels
+   over columns of random activity data. The setup checks that both kernels give bit-identical results
+   before anything is measured. Run it with the JMH jars on the classpath and
+   --add-modules jdk.incubator.vector, otherwise both benchmarks measure the scalar loop. */
+
+//package OOP_Program;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class FootprintKernelBenchmark {
+    @Param({"1024", "65536", "1048576"})
+    private int rows;
+
+    private double[] transport;
+    private double[] electricity;
+    private double[] food;
+    private double[] results;
+    private EmissionFactorTable.Factors factors;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        transport = new double[rows];
+        electricity = new double[rows];
+        food = new double[rows];
+        results = new double[rows];
+        for (int i = 0; i < rows; i++) {
+            transport[i] = random.nextDouble(0, 500);
+            electricity[i] = random.nextDouble(0, 1000);
+            food[i] = random.nextDouble(0, 50);
+        }
+        factors = EmissionFactorTable.builtIn().getDefaultFactors();
+
+        // Both kernels must agree to the last bit before their speed is compared
+        double[] scalar = new double[rows];
+        FootprintKernel.computeScalar(transport, electricity, food, rows, factors, scalar);
+        FootprintKernel.compute(transport, electricity, food, rows, factors, results);
+        for (int i = 0; i < rows; i++) {
+            if (Double.doubleToRawLongBits(scalar[i]) != Double.doubleToRawLongBits(results[i])) {
+                throw new IllegalStateException("Kernels differ at row " + i + ": " + scalar[i] + " vs " + results[i]);
+            }
+        }
+    }
+
+    @Benchmark
+    public double[] scalar() {
+        FootprintKernel.computeScalar(transport, electricity, food, rows, factors, results);
+        return results;
+    }
+
+    @Benchmark
+    public double[] vector() {
+        FootprintKernel.compute(transport, electricity, food, rows, factors, results);
+        return results;
+    }
+}
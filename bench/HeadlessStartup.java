@@ -0,0 +1,52 @@
+/* HeadlessStartup class is the startup check for machines without a display, such as build servers. A
+   window cannot be opened there, so it builds the same components as LoginFrame in a panel of the login
+   window's size, lays them out and paints them into an image, then runs the warm-up AppStartup runs after the
+   first paint. It prints the same line as --startup-check, so StartupTime can time it without and with an
+   AppCDS archive trained on it. The classes it loads are close to, but not the same as, those of a real first
+   frame: no native window, event loop or X11 pipeline is started. */
+
+//package OOP_Program;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GridLayout;
+import java.awt.image.BufferedImage;
+import javax.swing.JButton;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JPasswordField;
+import javax.swing.JTextField;
+
+public class HeadlessStartup {
+    private static final int WIDTH = 400; // Size of the login window
+    private static final int HEIGHT = 200;
+
+    public static void main(String[] args) throws ClassNotFoundException {
+        System.setProperty("java.awt.headless", "true");
+        Class.forName("LoginFrame", true, HeadlessStartup.class.getClassLoader());
+
+        // The components LoginFrame adds to its 4x2 grid
+        JPanel panel = new JPanel(new GridLayout(4, 2));
+        panel.add(new JLabel("Username:"));
+        panel.add(new JTextField());
+        panel.add(new JLabel("Password:"));
+        panel.add(new JPasswordField());
+        JLabel errorMessage = new JLabel("");
+        errorMessage.setForeground(Color.RED);
+        panel.add(errorMessage);
+        panel.add(new JButton("Login"));
+
+        panel.setSize(WIDTH, HEIGHT);
+        panel.doLayout();
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        panel.printAll(graphics);
+        graphics.dispose();
+        long firstFrame = AppStartup.millisSinceLaunch();
+
+        AppStartup.warmUp();
+        System.out.println("Time to first frame: " + firstFrame + " ms, warmed up after "
+                + AppStartup.millisSinceLaunch() + " ms");
+        System.exit(0);
+    }
+}
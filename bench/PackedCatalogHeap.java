@@ -0,0 +1,136 @@
+/* PackedCatalogHeap class measures the heap retained by a whole UrlCatalog loaded from disk, once with the
+   snapshot as a PersistentList of UrlInfo objects and once with catalog.packed, so the search index, the
+   fingerprints and the store's copy of the catalog are all counted. The entries are first saved to a store
+   in a temporary directory, then each catalog is opened from it on its own. When JOL is on the class path the
+   retained size is the size of everything reachable from the open catalog; otherwise it is the used heap
+   after a full GC with the catalog open minus the used heap before it was opened. The reduction is printed
+   next to the 3x goal. The entries look like a real catalog: a few thousand sites, paths of a few segments
+   and names of a few words. Run it with "ant bench-heap" or directly, for example:
+       java -Xmx4g -cp build/classes:build/bench/classes PackedCatalogHeap 5000000 */
+
+//package OOP_Program;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+public class PackedCatalogHeap {
+    private static final String[] WORDS = {"climate", "action", "carbon", "energy", "solar", "wind", "ocean",
+        "forest", "policy", "report", "transport", "emissions", "adaptation", "finance", "water", "food"};
+    private static final int SITES = 5000;
+    private static final int BATCH = 100_000; // Entries created and added at a time, so the inputs stay small
+    private static final double GOAL = 3.0; // Heap of the object catalog over the heap of the packed one
+
+    public static void main(String[] args) throws IOException {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        Path directory = Files.createTempDirectory("catalog-heap");
+        try {
+            save(directory, entries);
+            long objectBytes = measure(directory, entries, false);
+            long packedBytes = measure(directory, entries, true);
+            System.out.printf("%,d entries, measured with %s%n", entries,
+                    jolAvailable() ? "JOL" : "the used heap after GC");
+            System.out.printf("UrlCatalog of UrlInfo objects: %,d bytes (%.1f per entry)%n",
+                    objectBytes, (double) objectBytes / entries);
+            System.out.printf("Packed UrlCatalog:             %,d bytes (%.1f per entry)%n",
+                    packedBytes, (double) packedBytes / entries);
+            double reduction = (double) objectBytes / packedBytes;
+            System.out.printf("Reduction:                     %.2fx, goal %.2fx %s%n", reduction, GOAL,
+                    reduction >= GOAL ? "met" : "NOT met");
+        } finally {
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    // Method to write the entries to a snapshot in the directory, the way a catalog that was used for a while is
+    private static void save(Path directory, int entries) throws IOException {
+        List<AdminInterface.UrlInfo> all = new ArrayList<>(entries);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < entries; i++) {
+            all.add(entry(random, i));
+        }
+        try (UrlCatalogStore store = new UrlCatalogStore(directory)) {
+            store.replaceAll(all);
+        }
+    }
+
+    // Method to open a catalog of the given layout from the directory and return the heap it retains
+    private static long measure(Path directory, int entries, boolean packed) {
+        long before = usedAfterGc();
+        try (UrlCatalogStore store = new UrlCatalogStore(directory)) {
+            UrlCatalog catalog = new UrlCatalog(store, packed);
+            long retained = jolAvailable() ? jolSize(catalog) : usedAfterGc() - before;
+
+            // Check a few entries and a search so the catalog is still reachable and correct when it is measured
+            SplittableRandom check = new SplittableRandom(42);
+            for (int i = 0; i < Math.min(entries, 1000); i++) {
+                AdminInterface.UrlInfo expected = entry(check, i);
+                AdminInterface.UrlInfo actual = catalog.snapshot().get(i);
+                if (!expected.getUrl().equals(actual.getUrl()) || !expected.getName().equals(actual.getName())) {
+                    throw new AssertionError("Entry " + i + " differs: " + actual.getUrl());
+                }
+            }
+            if (catalog.search(WORDS[0], 1).isEmpty() && entries > 0) {
+                throw new AssertionError("Search found nothing");
+            }
+            return retained;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static AdminInterface.UrlInfo entry(SplittableRandom random, int i) {
+        int site = random.nextInt(SITES);
+        String url = (site % 3 == 0 ? "http://www." : "https://") + WORDS[site % WORDS.length] + "-" + site
+                + (site % 2 == 0 ? ".org" : ".com") + "/" + WORDS[random.nextInt(WORDS.length)] + "/"
+                + WORDS[random.nextInt(WORDS.length)] + "-" + i + ".html";
+        String name = capitalize(WORDS[random.nextInt(WORDS.length)]) + " " + WORDS[random.nextInt(WORDS.length)]
+                + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+        return new AdminInterface.UrlInfo(url, name);
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+
+    private static boolean jolAvailable() {
+        try {
+            Class.forName("org.openjdk.jol.info.GraphLayout");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    // Method to get the size of every object reachable from the root with JOL, which is found by reflection so
+    // the benchmark still compiles and runs without it
+    private static long jolSize(Object root) {
+        try {
+            Class<?> layout = Class.forName("org.openjdk.jol.info.GraphLayout");
+            Object graph = layout.getMethod("parseInstance", Object[].class).invoke(null, (Object) new Object[] {root});
+            return (long) layout.getMethod("totalSize").invoke(graph);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot measure with JOL", e);
+        }
+    }
+
+    private static long usedAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
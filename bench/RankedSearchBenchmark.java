@@ -0,0 +1,160 @@
+/* RankedSearchBenchmark class is a JMH benchmark of ranked search over catalogs of 100k and 1M entries.
+   "linear" is UserInterface.filterData, which lower-cases and checks every name, "ranked" is the BM25 top 20
+   of RankedTermIndex and "rankedFuzzy" is the same with typos in the query words. Names are 3 to 7 different
+   words drawn from a vocabulary of 20k words with Zipf frequencies, as in real text: a few words are in a
+   large share of the names and most are rare. The queries are 1 to 3 words taken from random names, so common
+   and rare words are both asked for, and the runs sample each query's time so the percentiles can be read off. */
+
+//package OOP_Program;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RankedSearchBenchmark {
+    private static final String[] WORDS = {"climate", "action", "carbon", "energy", "solar", "wind", "ocean",
+        "forest", "policy", "report", "transport", "emissions", "adaptation", "finance", "water", "food"};
+    private static final String[] SYLLABLES = {"ra", "ben", "co", "di", "el", "fa", "gro", "hu", "ist", "ja",
+        "ka", "lo", "mer", "no", "ost", "pa", "qui", "ri", "sa", "tun", "ur", "va", "we", "xo", "yl", "zed"};
+    private static final int VOCABULARY = 20_000;
+    private static final int QUERIES = 256;
+    private static final int RESULTS = 20;
+
+    @Param({"100000", "1000000"})
+    private int entries;
+
+    private List<AdminInterface.UrlInfo> data;
+    private UrlSearchIndex index;
+    private String[] queries;
+    private String[] typoQueries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        data = catalog(entries, 42);
+        index = new UrlSearchIndex();
+        for (AdminInterface.UrlInfo urlInfo : data) {
+            index.add(urlInfo);
+        }
+        queries = queries(data, 7, false);
+        typoQueries = queries(data, 7, true);
+    }
+
+    @Benchmark
+    public List<AdminInterface.UrlInfo> linear() {
+        String query = queries[next++ & (QUERIES - 1)];
+        int space = query.indexOf(' ');
+        return UserInterface.filterData(data, space < 0 ? query : query.substring(0, space));
+    }
+
+    @Benchmark
+    public List<AdminInterface.UrlInfo> ranked() {
+        return index.searchRanked(queries[next++ & (QUERIES - 1)], RESULTS, false);
+    }
+
+    @Benchmark
+    public List<AdminInterface.UrlInfo> rankedFuzzy() {
+        return index.searchRanked(typoQueries[next++ & (QUERIES - 1)], RESULTS, true);
+    }
+
+    // Method to build a catalog whose names use the Zipf vocabulary, the ids are set as UrlCatalog would
+    static List<AdminInterface.UrlInfo> catalog(int entries, long seed) {
+        String[] vocabulary = vocabulary();
+        double[] cumulative = new double[VOCABULARY];
+        double total = 0;
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            total += 1.0 / (rank + 1);
+            cumulative[rank] = total;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        List<AdminInterface.UrlInfo> catalog = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            StringBuilder name = new StringBuilder();
+            int[] ranks = new int[3 + random.nextInt(5)];
+            for (int word = 0; word < ranks.length; word++) {
+                int rank;
+                do {
+                    rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                    rank = Math.min(VOCABULARY - 1, rank < 0 ? -rank - 1 : rank);
+                } while (contains(ranks, word, rank)); // A title seldom repeats a word
+                ranks[word] = rank;
+                name.append(vocabulary[rank]).append(' ');
+            }
+            if (random.nextInt(4) == 0) {
+                name.append(i);
+            }
+            AdminInterface.UrlInfo urlInfo = new AdminInterface.UrlInfo("https://example.org/" + i,
+                    Character.toUpperCase(name.charAt(0)) + name.substring(1).trim());
+            urlInfo.id = i;
+            catalog.add(urlInfo);
+        }
+        return catalog;
+    }
+
+    // Method to take 1 to 3 words from random names, with one letter dropped from longer words for typos
+    static String[] queries(List<AdminInterface.UrlInfo> catalog, long seed, boolean typos) {
+        SplittableRandom random = new SplittableRandom(seed);
+        String[] queries = new String[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            String[] words = catalog.get(random.nextInt(catalog.size())).getName().toLowerCase().split(" ");
+            StringBuilder query = new StringBuilder();
+            for (int count = 1 + random.nextInt(3); count > 0; count--) {
+                String word = words[random.nextInt(words.length)];
+                if (typos && word.length() >= 5 && !Character.isDigit(word.charAt(0))) {
+                    int dropped = 1 + random.nextInt(word.length() - 1);
+                    word = word.substring(0, dropped) + word.substring(dropped + 1);
+                }
+                query.append(query.length() == 0 ? "" : " ").append(word);
+            }
+            queries[q] = query.toString();
+        }
+        return queries;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Method to get the vocabulary, the topic words first and then made-up words of two to four syllables
+    private static String[] vocabulary() {
+        String[] vocabulary = new String[VOCABULARY];
+        System.arraycopy(WORDS, 0, vocabulary, 0, WORDS.length);
+        SplittableRandom random = new SplittableRandom(1);
+        java.util.Set<String> used = new java.util.HashSet<>(Arrays.asList(WORDS));
+        for (int i = WORDS.length; i < VOCABULARY; ) {
+            StringBuilder word = new StringBuilder();
+            for (int syllable = 2 + random.nextInt(3); syllable > 0; syllable--) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            if (used.add(word.toString())) {
+                vocabulary[i++] = word.toString();
+            }
+        }
+        return vocabulary;
+    }
+}
@@ -0,0 +1,59 @@
+/* ScenarioSimulatorBenchmark class is a JMH benchmark of ScenarioSimulator evaluating 10 million scenario
+   points per operation, as a grid sweep and as random draws, with the ranges the what-if view starts from.
+   Divide the time per operation by 10 million for the cost of one point; the view's default run is ten
+   operations' worth. */
+
+//package OOP_Program;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScenarioSimulatorBenchmark {
+    private static final long POINTS = 10_000_000;
+
+    private ScenarioSimulator simulator;
+    private long seed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 100 x 100 x 100 x 10 x 10 x 1 is the view's grid, this one has a tenth of the food steps
+        EmissionFactorTable.Factors factors = EmissionFactorTable.builtIn().getDefaultFactors();
+        ScenarioSimulator.Parameter[] parameters = {
+            ScenarioSimulator.Parameter.range(250, 500, 100),
+            ScenarioSimulator.Parameter.range(500, 1000, 100),
+            ScenarioSimulator.Parameter.normal(25, 50, 10),
+            ScenarioSimulator.Parameter.range(factors.getTransport() * 0.8, factors.getTransport(), 10),
+            ScenarioSimulator.Parameter.range(factors.getElectricity() * 0.8, factors.getElectricity(), 10),
+            ScenarioSimulator.Parameter.fixed(factors.getFood())};
+        simulator = new ScenarioSimulator(parameters, FootprintStatistics.Thresholds.DEFAULTS);
+        if (simulator.getGridPoints() != POINTS) {
+            throw new IllegalStateException("The grid has " + simulator.getGridPoints() + " points");
+        }
+    }
+
+    @Benchmark
+    public ScenarioSimulator.Summary sweep() throws InterruptedException {
+        return simulator.sweep(null);
+    }
+
+    @Benchmark
+    public ScenarioSimulator.Summary sample() throws InterruptedException {
+        return simulator.sample(POINTS, seed++, null);
+    }
+}
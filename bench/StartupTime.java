@@ -0,0 +1,93 @@
+/* StartupTime class times how long the program takes to show its login window, without and with an AppCDS
+   archive. Each run launches the jar in a new JVM with --startup-check, which prints the milliseconds from the
+   JVM start until the login window painted and exits once the rest of the program is warmed up. The runs
+   alternate between the two setups so both see the same disk cache, and the median and best of each are
+   printed. The login window needs a display; given a jar with the HeadlessStartup class, it launches that
+   check instead, which paints the login window's components offscreen. */
+
+//package OOP_Program;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class StartupTime {
+    private static final Pattern REPORT = Pattern.compile("Time to first frame: (\\d+) ms, warmed up after (\\d+) ms");
+
+    // Arguments: the jar, the AppCDS archive, the number of runs of each setup, the JVM options and, to time the
+    // headless check, the jar holding it
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String jar = args[0];
+        String archive = args[1];
+        int runs = Integer.parseInt(args[2]);
+        List<String> jvmOptions = args.length > 3 && !args[3].isBlank()
+                ? Arrays.asList(args[3].trim().split("\\s+")) : List.of();
+        String checkJar = args.length > 4 ? args[4] : null;
+        if (!Files.exists(Paths.get(archive))) {
+            throw new IllegalArgumentException("No AppCDS archive at " + archive + ", run ant cds-archive first");
+        }
+
+        long[][] without = new long[runs][];
+        long[][] with = new long[runs][];
+        for (int run = 0; run < runs; run++) {
+            without[run] = launch(jar, jvmOptions, null, checkJar);
+            with[run] = launch(jar, jvmOptions, archive, checkJar);
+        }
+        print("without AppCDS", without);
+        print("with AppCDS", with);
+    }
+
+    // Method to launch the program once and get its time to first frame and time until warmed up
+    private static long[] launch(String jar, List<String> jvmOptions, String archive, String checkJar)
+            throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add(archive == null ? "-Xshare:auto" : "-XX:SharedArchiveFile=" + archive);
+        if (checkJar == null) {
+            command.addAll(List.of("-jar", jar, "--startup-check"));
+        } else {
+            command.addAll(List.of("-cp", jar + File.pathSeparator + checkJar, "HeadlessStartup"));
+        }
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+
+        long[] times = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher matcher = REPORT.matcher(line);
+                if (matcher.find()) {
+                    times = new long[] {Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2))};
+                }
+            }
+        }
+        if (process.waitFor() != 0 || times == null) {
+            throw new IllegalStateException("The program did not report its startup time: " + command);
+        }
+        return times;
+    }
+
+    // Method to print the median and best time to first frame and until warmed up
+    private static void print(String label, long[][] runs) {
+        long[] firstFrame = new long[runs.length];
+        long[] warmedUp = new long[runs.length];
+        for (int i = 0; i < runs.length; i++) {
+            firstFrame[i] = runs[i][0];
+            warmedUp[i] = runs[i][1];
+        }
+        Arrays.sort(firstFrame);
+        Arrays.sort(warmedUp);
+        System.out.printf("%-15s first frame median %4d ms, best %4d ms; warmed up median %4d ms, best %4d ms%n",
+                label, firstFrame[runs.length / 2], firstFrame[0], warmedUp[runs.length / 2], warmedUp[0]);
+    }
+}
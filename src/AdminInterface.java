@@ -7,23 +7,33 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
-import java.util.ArrayList;
 import java.util.List;
 
 public class AdminInterface extends JFrame {
-    private List<UrlInfo> urlList;
-    public static List<UrlInfo> sharedUrlList;  // Shared list accessible by other classes
+    private UrlCatalog catalog;  // Catalog shared with the user interface
     private LoginFrame loginFrame;   // Reference to the LoginFrame
+    private JButton uploadButton, adminViewButton, userViewButton, importButton, exportButton;  // Enabled once the catalog is loaded
 
-    // Constructor for AdminInterface, initializes lists and loginFrame, and calls initComponents
+    // Constructor for AdminInterface, initializes loginFrame and components, then loads the catalog in the background
     public AdminInterface(LoginFrame loginFrame) {
-        urlList = new ArrayList<>();
-        sharedUrlList = urlList;  // Initialize sharedUrlList with urlList
         this.loginFrame = loginFrame;  // Set reference to the LoginFrame
         initComponents();  // Initialize components
+        TaskScheduler.submit(UrlCatalog::getDefault, loadedCatalog -> {
+            catalog = loadedCatalog;
+            uploadButton.setEnabled(true);
+            adminViewButton.setEnabled(true);
+            userViewButton.setEnabled(true);
+            importButton.setEnabled(true);
+            exportButton.setEnabled(true);
+            if (!catalog.isPersistent()) {
+                JOptionPane.showMessageDialog(this, "Cannot load the saved URLs, changes will not be saved.");
+            }
+            catalog.setSaveFailureListener(error -> SwingUtilities.invokeLater(() ->
+                    JOptionPane.showMessageDialog(this, "Changes to the URLs cannot be saved right now: "
+                            + error.getMessage() + "\nThey will be saved once writing works again.",
+                            "URL Catalog", JOptionPane.WARNING_MESSAGE)));
+        }, error -> JOptionPane.showMessageDialog(this, "Cannot open the URL catalog: " + error.getMessage(),
+                "URL Catalog", JOptionPane.ERROR_MESSAGE));
     }
 
     // Method to initialize components and set up the user interface
@@ -34,11 +44,11 @@ public class AdminInterface extends JFrame {
         setLocationRelativeTo(null);  // Center the frame on the screen
 
          JPanel panel = new JPanel();  // Create a panel for layout
-        panel.setLayout(new GridLayout(5, 1, 10, 10));  // Use a 5x1 grid layout with spacing
+        panel.setLayout(new GridLayout(7, 1, 10, 10));  // Use a 7x1 grid layout with spacing
         
         // Create buttons for uploading, editing and deleting URLs, checking URLs, and logging out
         
-        JButton uploadButton = new JButton("Upload");
+        uploadButton = new JButton("Upload");
         uploadButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -46,7 +56,7 @@ public class AdminInterface extends JFrame {
             }
         });
 
-        JButton adminViewButton = new JButton("Edit and Delete");
+        adminViewButton = new JButton("Edit and Delete");
         adminViewButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -54,7 +64,7 @@ public class AdminInterface extends JFrame {
             }
         });
 
-        JButton userViewButton = new JButton("Check");
+        userViewButton = new JButton("Check");
         userViewButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -62,6 +72,22 @@ public class AdminInterface extends JFrame {
             }
         });
 
+        importButton = new JButton("Import");
+        importButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                importButtonClicked();
+            }
+        });
+
+        exportButton = new JButton("Export");
+        exportButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                exportButtonClicked();
+            }
+        });
+
         JButton logoutButton = new JButton("Log Out");
         logoutButton.addActionListener(new ActionListener() {
             @Override
@@ -70,34 +96,114 @@ public class AdminInterface extends JFrame {
             }
         });
 
+        // The catalog buttons wait until the catalog has been read from disk
+        uploadButton.setEnabled(false);
+        adminViewButton.setEnabled(false);
+        userViewButton.setEnabled(false);
+        importButton.setEnabled(false);
+        exportButton.setEnabled(false);
+
         // Add buttons to the panel
         panel.add(uploadButton);
         panel.add(adminViewButton);
         panel.add(userViewButton);
+        panel.add(importButton);
+        panel.add(exportButton);
         panel.add(logoutButton);
         
         add(panel);  // Add the panel to the frame
-        setVisible(true);  // Set the frame as visible
     }
 
     // Method to handle upload button click, prompts the user for URL and name
     private void uploadButtonClicked() {
-        String url = JOptionPane.showInputDialog(this, "Please enter the URL:");
-        String name = JOptionPane.showInputDialog(this, "Please enter a name for this URL:");
+        UrlInfo urlInfo = promptUrlInfo("", "");
+        if (urlInfo == null) {
+            return;
+        }
+        // Publish the new catalog snapshot and save it in the background, unless the URL is already there
+        if (!catalog.add(urlInfo)) {
+            JOptionPane.showMessageDialog(this, "This URL is already in the catalog.");
+        }
+    }
 
-        UrlInfo urlInfo = new UrlInfo(url, name);
-        urlList.add(urlInfo);
-        sharedUrlList = List.copyOf(urlList);  // Update the sharedUrlList
+    // Method to ask for a URL and name, starting from the given values. Returns null if the user cancelled or
+    // left the URL blank, and after telling the user if it is not a web address. The URL and name are cleaned
+    // up the same way as an import or the HTTP API does.
+    private UrlInfo promptUrlInfo(String url, String name) {
+        String newUrl = JOptionPane.showInputDialog(this, "Please enter the URL:", url);
+        if (newUrl == null || newUrl.isBlank()) {
+            return null;
+        }
+        String newName = JOptionPane.showInputDialog(this, "Please enter a name for this URL:", name);
+        if (newName == null) {
+            return null;
+        }
+        UrlInfo urlInfo = UrlCatalogTransfer.normalize(newUrl, newName);
+        if (urlInfo == null) {
+            JOptionPane.showMessageDialog(this, "Not a valid web address: " + newUrl.strip());
+        }
+        return urlInfo;
     }
 
-    // Method to handle admin view button click, displays URLs for editing and deleting
-    private void adminViewButtonClicked() {
-        DefaultListModel<String> listModel = new DefaultListModel<>();
-        for (UrlInfo urlInfo : urlList) {
-            listModel.addElement(urlInfo.getName());
+    // Method to handle import button click, adds the URLs of a CSV or JSON Lines file in the background
+    private void importButtonClicked() {
+        JFileChooser chooser = createTransferChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
         }
+        java.nio.file.Path file = chooser.getSelectedFile().toPath();
+        importButton.setEnabled(false);
+        TaskScheduler.submit(() -> new UrlCatalogTransfer(catalog).importFrom(file), result -> {
+            importButton.setEnabled(true);
+            StringBuilder message = new StringBuilder("Imported " + result.getImported() + " of "
+                    + result.getRead() + " records.");
+            if (result.getDuplicates() > 0) {
+                message.append("\n").append(result.getDuplicates()).append(" URLs were already in the catalog.");
+            }
+            if (result.getRejected() > 0) {
+                message.append("\n").append(result.getRejected()).append(" records were rejected:");
+                for (String error : result.getErrors()) {
+                    message.append("\n").append(error);
+                }
+            }
+            JOptionPane.showMessageDialog(this, message.toString(), "Import", JOptionPane.INFORMATION_MESSAGE);
+        }, error -> {
+            importButton.setEnabled(true);
+            JOptionPane.showMessageDialog(this, "Cannot import the file: " + error.getMessage());
+        });
+    }
 
-        JList<String> urlJList = new JList<>(listModel);
+    // Method to handle export button click, writes the catalog to a CSV or JSON Lines file in the background
+    private void exportButtonClicked() {
+        JFileChooser chooser = createTransferChooser();
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        java.nio.file.Path file = chooser.getSelectedFile().toPath();
+        exportButton.setEnabled(false);
+        TaskScheduler.submit(() -> new UrlCatalogTransfer(catalog).exportTo(file), written -> {
+            exportButton.setEnabled(true);
+            JOptionPane.showMessageDialog(this, "Exported " + written + " URLs.");
+        }, error -> {
+            exportButton.setEnabled(true);
+            JOptionPane.showMessageDialog(this, "Cannot export the file: " + error.getMessage());
+        });
+    }
+
+    // Method to create a file chooser for the transfer formats, the format follows the file name
+    private static JFileChooser createTransferChooser() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.addChoosableFileFilter(new javax.swing.filechooser.FileNameExtensionFilter(
+                "CSV or JSON Lines files", "csv", "jsonl", "ndjson"));
+        return chooser;
+    }
+
+    // Method to handle admin view button click, displays URLs for editing and deleting
+    private void adminViewButtonClicked() {
+        // The model reads names from the snapshot as rows are painted and follows the catalog's changes,
+        // including those made here, so it never copies or reloads the catalog
+        CatalogListModel listModel = CatalogListModel.live(catalog);
+        JList<String> urlJList = CatalogListModel.createList(listModel);
 
         JButton deleteButton = new JButton("Delete");
         deleteButton.addActionListener(new ActionListener() {
@@ -115,75 +221,152 @@ public class AdminInterface extends JFrame {
             }
         });
 
+        JButton removeDuplicatesButton = new JButton("Remove duplicates");
+        removeDuplicatesButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                removeDuplicatesButtonClicked(removeDuplicatesButton);
+            }
+        });
+
         JPanel adminPanel = new JPanel(new BorderLayout());
         adminPanel.add(new JScrollPane(urlJList), BorderLayout.CENTER);
         adminPanel.add(deleteButton, BorderLayout.SOUTH);
         adminPanel.add(editButton, BorderLayout.EAST);
+        adminPanel.add(removeDuplicatesButton, BorderLayout.NORTH);
 
         JOptionPane.showMessageDialog(this, adminPanel, "Edit and delete", JOptionPane.PLAIN_MESSAGE);
+        listModel.close();
     }
 
-    // Method to handle user view button click, displays URLs for checking
+    // Method to handle user view button click, displays URLs with their link status for checking
     public void userViewButtonClicked() {
-        DefaultListModel<String> listModel = new DefaultListModel<>();
-        for (UrlInfo urlInfo : urlList) {
-            listModel.addElement(urlInfo.getName());
-        }
+        CatalogListModel listModel = CatalogListModel.live(catalog);  // Follows the catalog while the view is open
+        JList<String> urlJList = CatalogListModel.createList(listModel);
+        UrlHealthChecker checker = UrlHealthChecker.getDefault();
 
-        JList<String> urlJList = new JList<>(listModel);
-        urlJList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        // Show the last checked status after each name
+        urlJList.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                UrlHealthChecker.LinkStatus status = checker.getStatus(listModel.getEntry(index));
+                String text = status == null ? String.valueOf(value) : value + "  [" + status + "]";
+                super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+                if (status != null && !isSelected) {
+                    setForeground(status.isOk() ? new Color(0, 128, 0) : Color.RED);
+                }
+                return this;
+            }
+        });
 
         urlJList.addMouseListener(new java.awt.event.MouseAdapter() {
             @Override
             public void mouseClicked(java.awt.event.MouseEvent evt) {
                 if (evt.getClickCount() == 1) {
                     int index = urlJList.locationToIndex(evt.getPoint());
-                    String selectedUrl = urlList.get(index).getUrl();
-                    openWebpage(selectedUrl);
+                    if (index >= 0) {
+                        String selectedUrl = listModel.getEntry(index).getUrl();
+                        openWebpage(selectedUrl);
+                    }
+                }
+            }
+        });
+
+        JLabel progressLabel = new JLabel(" ");
+        JButton checkAllButton = new JButton("Check all links");
+        UrlHealthChecker.Run[] currentRun = new UrlHealthChecker.Run[1];
+
+        // Repaint and show progress a few times per second while a check runs, not once per finished link
+        Timer refreshTimer = new Timer(250, null);
+        refreshTimer.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                urlJList.repaint();
+                progressLabel.setText("Checked " + currentRun[0].getCompleted() + " of " + currentRun[0].getTotal());
+                if (currentRun[0].isDone()) {
+                    refreshTimer.stop();
+                    checkAllButton.setEnabled(true);
                 }
             }
         });
 
-        JOptionPane.showMessageDialog(this, new JScrollPane(urlJList), "Check", JOptionPane.PLAIN_MESSAGE);
+        checkAllButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                checkAllButton.setEnabled(false);
+                currentRun[0] = checker.checkAll(listModel.getEntries(), null);
+                refreshTimer.start();
+            }
+        });
+
+        JPanel checkPanel = new JPanel(new BorderLayout(5, 5));
+        checkPanel.add(new JScrollPane(urlJList), BorderLayout.CENTER);
+        checkPanel.add(checkAllButton, BorderLayout.NORTH);
+        checkPanel.add(progressLabel, BorderLayout.SOUTH);
+
+        JOptionPane.showMessageDialog(this, checkPanel, "Check", JOptionPane.PLAIN_MESSAGE);
+
+        // Closing the view stops links that have not been probed yet
+        listModel.close();
+        refreshTimer.stop();
+        if (currentRun[0] != null) {
+            currentRun[0].cancel();
+        }
     }
 
     // Method to handle delete button click, prompts for confirmation and deletes the selected URL
     private void deleteButtonClicked(JList<String> urlJList) {
         int selectedIndex = urlJList.getSelectedIndex();
         if (selectedIndex != -1) {
+            // Delete by id, the row may have moved if the catalog changed since the list was last updated
+            UrlInfo selectedUrlInfo = ((CatalogListModel) urlJList.getModel()).getEntry(selectedIndex);
             int option = JOptionPane.showConfirmDialog(this, "Are you sure you want to delete?", "Confirm delete", JOptionPane.YES_NO_OPTION);
-            if (option == JOptionPane.YES_OPTION) {
-                urlList.remove(selectedIndex);
-                sharedUrlList = List.copyOf(urlList); // Update the sharedUrlList
+            if (option == JOptionPane.YES_OPTION && !catalog.removeById(selectedUrlInfo.id)) { // The list follows the change feed
+                JOptionPane.showMessageDialog(this, "This entry has already been deleted.");
             }
         }
     }
 
+    // Method to handle remove duplicates button click, keeps the first entry of each URL in the background
+    private void removeDuplicatesButtonClicked(JButton removeDuplicatesButton) {
+        removeDuplicatesButton.setEnabled(false);
+        TaskScheduler.submit(catalog::removeDuplicates, removed -> {
+            removeDuplicatesButton.setEnabled(true); // Open lists are reset through the change feed
+            JOptionPane.showMessageDialog(this, removed == 0 ? "No duplicate URLs found."
+                    : "Removed " + removed + " duplicate URLs.");
+        }, error -> {
+            removeDuplicatesButton.setEnabled(true);
+            JOptionPane.showMessageDialog(this, "Cannot remove duplicates: " + error.getMessage());
+        });
+    }
+
     // Method to handle edit button click, allows editing the selected URL
     private void editButtonClicked(JList<String> urlJList) {
         int selectedIndex = urlJList.getSelectedIndex();
         if (selectedIndex != -1) {
-            UrlInfo selectedUrlInfo = urlList.get(selectedIndex);
-            String newUrl = JOptionPane.showInputDialog(this, "Please enter the URL:", selectedUrlInfo.getUrl());
-            String newName = JOptionPane.showInputDialog(this, "Please enter a name for this URL:", selectedUrlInfo.getName());
-            selectedUrlInfo.setUrl(newUrl);
-            selectedUrlInfo.setName(newName);
-            sharedUrlList = List.copyOf(urlList); // Update the sharedUrlList 
+            UrlInfo selectedUrlInfo = ((CatalogListModel) urlJList.getModel()).getEntry(selectedIndex);
+            UrlInfo newUrlInfo = promptUrlInfo(selectedUrlInfo.getUrl(), selectedUrlInfo.getName());
+            if (newUrlInfo == null) {
+                return;
+            }
+            // Replace the entry instead of changing it, older snapshots keep the previous values
+            // and the list follows the change feed
+            if (!catalog.setById(selectedUrlInfo.id, newUrlInfo)) {
+                JOptionPane.showMessageDialog(this, catalog.indexOf(selectedUrlInfo.id) < 0
+                        ? "This entry has been deleted." : "Another entry already has this URL.");
+            }
         }
     }
 
-    // Method to open a webpage using the default web browser
+    // Method to open a webpage using the default web browser, without blocking the window
     private void openWebpage(String url) {
-        try {
-            Desktop.getDesktop().browse(new URI(url));
-        } catch (IOException | URISyntaxException e) {
-            JOptionPane.showMessageDialog(this, "Cannot open the webpage: " + url);
-        }
+        TaskScheduler.browse(this, url, "Cannot open the webpage: " + url);
     }
 
     // Method to get the displayed data (URLs)
     public List<UrlInfo> getDisplayedData() {
-        return urlList;
+        return catalog.snapshot();
     }
 
     // Method to handle logout button click, disposes of the current window and opens the login window
@@ -192,15 +375,17 @@ public class AdminInterface extends JFrame {
         loginFrame.resetLoginFrame(); // Open the login window
     }
 
-    // Static method to get the sharedUrlList accessible by other classes
+    // Static method to get the current catalog snapshot accessible by other classes
     public static List<UrlInfo> getSharedUrlList() {
-        return sharedUrlList;
+        return UrlCatalog.getDefault().snapshot();
     }
 
-    // Inner class representing URL information
+    // Inner class representing URL information. An entry never changes once made: an edit replaces it in the
+    // catalog with a new UrlInfo, so the snapshots and views that still hold the old one keep its values.
     public static class UrlInfo {
-        private String url;
-        private String name;
+        private final String url;
+        private final String name;
+        int id = -1;  // Id given by UrlCatalog, kept when the entry is edited and used by the search index
 
         // Constructor for UrlInfo, initializes URL and name
         public UrlInfo(String url, String name) {
@@ -213,19 +398,9 @@ public class AdminInterface extends JFrame {
             return url;
         }
 
-        // Setter method for URL
-        public void setUrl(String url) {
-            this.url = url;
-        }
-
         // Getter method for name
         public String getName() {
             return name;
         }
-
-        // Setter method for name
-        public void setName(String name) {
-            this.name = name;
-        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,143 @@
+/* AdviceRenderer class builds the advice report shown by the "Suggestions" button. A report depends only on
+   the advice band, the locale and the version of the emission factors, so each rendered report is kept in a
+   small LRU cache under that key. Rendering (looking up the localized texts in AdviceBundle, formatting the
+   per-category factors and filling a text document) runs off the EDT, and one text area and scroll pane are
+   reused for every report, so showing a report that was seen before only swaps the document. */
+
+//package OOP_Program;
+
+import javax.swing.*;
+import javax.swing.text.BadLocationException;
+import javax.swing.text.Document;
+import javax.swing.text.PlainDocument;
+import java.awt.*;
+import java.text.MessageFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.ResourceBundle;
+
+public class AdviceRenderer {
+    private static final int MAX_CACHED = 32; // Reports kept, three bands for a few locales and factor versions
+
+    private static AdviceRenderer defaultRenderer;
+
+    private final Map<Key, Report> cache = new LinkedHashMap<Key, Report>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Report> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+    private JTextArea textArea;  // Reused for every report, only touched on the EDT
+    private JScrollPane scrollPane;
+
+    // Method to get the renderer shared by the calculator windows
+    public static synchronized AdviceRenderer getDefault() {
+        if (defaultRenderer == null) {
+            defaultRenderer = new AdviceRenderer();
+        }
+        return defaultRenderer;
+    }
+
+    // Method to show the report for a band in a dialog, rendering it in the background if it is not cached yet
+    public void show(Component parent, FootprintStatistics.Band band, Locale locale, EmissionFactorTable.Factors factors) {
+        Key key = new Key(band, locale, factors.getVersion());
+        Report report = cached(key);
+        if (report != null) {
+            display(parent, report);
+            return;
+        }
+        TaskScheduler.submit(() -> render(key, factors), rendered -> display(parent, rendered),
+                error -> JOptionPane.showMessageDialog(parent, "Unable to prepare advice: " + error.getMessage()));
+    }
+
+    // Method to render a report in the background so a later show is instant
+    public void prefetch(FootprintStatistics.Band band, Locale locale, EmissionFactorTable.Factors factors) {
+        Key key = new Key(band, locale, factors.getVersion());
+        if (cached(key) == null) {
+            TaskScheduler.submit(() -> render(key, factors), null, null);
+        }
+    }
+
+    private synchronized Report cached(Key key) {
+        return cache.get(key);
+    }
+
+    // Method to build the report text into a new document and cache it, runs off the EDT
+    private Report render(Key key, EmissionFactorTable.Factors factors) throws BadLocationException {
+        ResourceBundle bundle = ResourceBundle.getBundle("AdviceBundle", key.locale);
+        StringBuilder text = new StringBuilder(bundle.getString("advice." + key.band.name()));
+        text.append("\n\n").append(format(bundle, "report.factors", key.locale, factors.getVersion()));
+        text.append('\n').append(format(bundle, "report.transport", key.locale, factors.getTransport()));
+        text.append('\n').append(format(bundle, "report.electricity", key.locale, factors.getElectricity()));
+        text.append('\n').append(format(bundle, "report.food", key.locale, factors.getFood()));
+
+        // The document is not shown anywhere yet, so it can be filled on this thread
+        Document document = new PlainDocument();
+        document.insertString(0, text.toString(), null);
+        Report report = new Report(bundle.getString("advice.title"), document);
+        synchronized (this) {
+            cache.put(key, report);
+        }
+        return report;
+    }
+
+    private static String format(ResourceBundle bundle, String key, Locale locale, Object argument) {
+        return new MessageFormat(bundle.getString(key), locale).format(new Object[] {argument});
+    }
+
+    // Method to show a rendered report in the shared text area, on the EDT
+    private void display(Component parent, Report report) {
+        if (textArea == null) {
+            textArea = new JTextArea();
+            textArea.setColumns(5);
+            textArea.setLineWrap(true);
+            textArea.setWrapStyleWord(true);
+            textArea.setEditable(false); // set the textarea as not-editable
+            scrollPane = new JScrollPane(textArea);
+            scrollPane.setPreferredSize(new Dimension(400, 100));
+        }
+        textArea.setDocument(report.document);
+        textArea.setCaretPosition(0);
+        JOptionPane.showMessageDialog(parent, scrollPane, report.title, JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    // Inner class representing the cache key of a report
+    private static final class Key {
+        final FootprintStatistics.Band band;
+        final Locale locale;
+        final String factorVersion;
+
+        Key(FootprintStatistics.Band band, Locale locale, String factorVersion) {
+            this.band = band;
+            this.locale = locale;
+            this.factorVersion = factorVersion;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) other;
+            return band == key.band && locale.equals(key.locale) && factorVersion.equals(key.factorVersion);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(band, locale, factorVersion);
+        }
+    }
+
+    // Inner class representing a rendered report, its document is never changed after rendering
+    private static final class Report {
+        final String title;
+        final Document document;
+
+        Report(String title, Document document) {
+            this.title = title;
+            this.document = document;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/* AppStartup class keeps the time until the login window appears short, for kiosks that restart the program
+   often. The login window is the only frame built at startup, on the EDT; the windows opened after login are
+   built when the user gets to them. Once the login window has painted, the time since the JVM started is
+   recorded and the rest of the program is warmed up on a background thread: the metrics are started, the
+   classes of the other windows are loaded and initialized, and the account store and URL catalog are read
+   from disk, so logging in does not wait for them. Started with --startup-check the program prints both
+   times and exits, which is how the Ant targets train and time the AppCDS archive. Without a display the
+   bench HeadlessStartup class paints the login window's components offscreen and runs the same warm-up. */
+
+//package OOP_Program;
+
+import java.awt.HeadlessException;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import javax.swing.SwingUtilities;
+
+public final class AppStartup {
+    // Classes initialized ahead of the first login: the windows opened after it and what they use first
+    private static final String[] WARM_CLASSES = {"UserInterface", "AdminInterface", "CarbonFootprintCalculator",
+        "LiveSearchPanel", "CatalogListModel", "UrlSearchIndex", "RankedTermIndex", "FootprintHistory",
+        "AdviceRenderer"};
+
+    private static boolean check; // Print the times and exit once warmed up
+    private static boolean painted;
+    private static volatile long firstFrameMillis = -1;
+
+    private AppStartup() {
+    }
+
+    // Method to open the login window on the EDT, with check set the program exits once it is warmed up
+    public static void showLoginFrame(boolean check) {
+        AppStartup.check = check;
+        SwingUtilities.invokeLater(() -> {
+            try {
+                LoginFrame loginFrame = new LoginFrame(); // Create an instance of the LoginFrame class
+                loginFrame.setVisible(true); // Set the LoginFrame instance as visible to start user interaction
+            } catch (HeadlessException e) {
+                // Without a window nothing would ever end the program, the EDT keeps it running
+                System.err.println("No display to show the login window on, use --server to run headless.");
+                System.exit(1);
+            }
+        });
+    }
+
+    // Method called by the login window after its first paint, records the time and starts the warm-up
+    static synchronized void loginFramePainted() {
+        if (painted) {
+            return;
+        }
+        painted = true;
+        firstFrameMillis = millisSinceLaunch();
+        Metrics.gauge("startup_first_frame_milliseconds", "Time from the JVM start until the login window painted",
+                () -> firstFrameMillis);
+        TaskScheduler.execute(() -> {
+            warmUp();
+            if (check) {
+                System.out.println("Time to first frame: " + firstFrameMillis + " ms, warmed up after "
+                        + millisSinceLaunch() + " ms");
+                System.exit(0);
+            }
+        });
+    }
+
+    // Method to get the time from the JVM start until the login window painted, or -1 before it has
+    public static long getFirstFrameMillis() {
+        return firstFrameMillis;
+    }
+
+    // Method to do the work the first login would otherwise wait for
+    static void warmUp() {
+        Metrics.start(); // Time EDT events and publish the metrics over JMX and to a file
+        for (String name : WARM_CLASSES) {
+            try {
+                Class.forName(name, true, AppStartup.class.getClassLoader());
+            } catch (ClassNotFoundException | LinkageError e) {
+                System.err.println("Unable to preload " + name + ": " + e);
+            }
+        }
+        try {
+            CredentialStore.getDefault();
+        } catch (IOException e) {
+            // The login reports that the store is unavailable when it opens it again
+        }
+        UrlCatalog.getDefault();
+    }
+
+    // Method to get the milliseconds since the JVM started. The process start time the OS reports is not used:
+    // on Linux it is counted from the boot time, which is only known to the second.
+    static long millisSinceLaunch() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+}
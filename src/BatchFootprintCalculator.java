@@ -0,0 +1,244 @@
+/* BatchFootprintCalculator class is the headless entry point for computing carbon footprints in bulk.
+   It streams a CSV or TSV activity export (transport, electricity, food per row) through the same formula
+   as CarbonFootprintCalculator, writes one result per row and prints aggregates with the throughput.
+   The file is memory-mapped by MappedCsvReader and cut into chunks that are parsed and calculated on all
+   cores, with only a few chunks in flight at once so memory use stays constant however large the file is. */
+
+//package OOP_Program;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BatchFootprintCalculator {
+
+    private final int threads;
+
+    // Constructor for BatchFootprintCalculator, sets the number of worker threads
+    public BatchFootprintCalculator(int threads) {
+        this.threads = threads;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: BatchFootprintCalculator <input.csv|input.tsv> <output.csv> [threads]");
+            System.exit(2);
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        EmissionFactorTable.watchConfiguredFile();
+        BatchFootprintCalculator calculator = new BatchFootprintCalculator(threads);
+        Summary summary = calculator.run(Paths.get(args[0]), Paths.get(args[1]));
+        summary.print();
+    }
+
+    // Method to stream the input file through the footprint formula and write the per-row results
+    public Summary run(Path input, Path output) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        // The whole run uses one version of the emission factors, even if the table is reloaded meanwhile
+        EmissionFactorTable.Factors factors = EmissionFactorTable.current().getDefaultFactors();
+        Summary summary = new Summary(factors.getVersion());
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        ArrayDeque<Future<ChunkResult>> inFlight = new ArrayDeque<>();
+
+        try (MappedCsvReader reader = new MappedCsvReader(input);
+             BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writer.write("line,footprint");
+            writer.newLine();
+
+            long nextLine = reader.hasHeader() ? 2 : 1; // Line number of the first row of the next chunk
+            MappedCsvReader.Chunk chunk;
+
+            while ((chunk = reader.nextChunk()) != null) {
+                inFlight.add(pool.submit(new ChunkTask(reader, chunk, factors)));
+
+                // Keep only a couple of chunks per thread in memory, writing results in input order
+                while (inFlight.size() >= threads * 2) {
+                    nextLine = drain(inFlight.poll(), nextLine, writer, summary);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                nextLine = drain(inFlight.poll(), nextLine, writer, summary);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        summary.elapsedNanos = System.nanoTime() - start;
+        return summary;
+    }
+
+    // Method to wait for a finished chunk, write its rows and add it to the summary, returns the next line number
+    private long drain(Future<ChunkResult> future, long firstLine, BufferedWriter writer, Summary summary)
+            throws IOException, InterruptedException {
+        ChunkResult result;
+        try {
+            result = future.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Batch calculation failed", e.getCause());
+        }
+
+        // The worker only knows lines inside its chunk, so the absolute line number is added here
+        int from = 0;
+        for (int i = 0; i < result.rowEnds.length; i++) {
+            writer.write(Long.toString(firstLine + result.rowLines[i]));
+            writer.write(result.text, from, result.rowEnds[i] - from);
+            from = result.rowEnds[i];
+        }
+        summary.merge(result, firstLine);
+        return firstLine + result.lines;
+    }
+
+    // Inner class calculating the footprints of one mapped chunk on a worker thread
+    private static class ChunkTask implements Callable<ChunkResult> {
+        // Each worker parses into its own columns, reused for every chunk it handles
+        private static final ThreadLocal<MappedCsvReader.Columns> COLUMNS =
+                ThreadLocal.withInitial(MappedCsvReader.Columns::new);
+        private static final ThreadLocal<double[]> RESULTS = ThreadLocal.withInitial(() -> new double[0]);
+
+        private final MappedCsvReader reader;
+        private final MappedCsvReader.Chunk chunk;
+        private final EmissionFactorTable.Factors factors;
+
+        ChunkTask(MappedCsvReader reader, MappedCsvReader.Chunk chunk, EmissionFactorTable.Factors factors) {
+            this.reader = reader;
+            this.chunk = chunk;
+            this.factors = factors;
+        }
+
+        @Override
+        public ChunkResult call() {
+            ChunkResult result = new ChunkResult();
+            MappedCsvReader.Columns columns = COLUMNS.get();
+            columns.clear();
+            reader.parse(chunk, columns, result.report);
+
+            int rows = columns.size();
+            double[] transport = columns.getTransport();
+            double[] electricity = columns.getElectricity();
+            double[] food = columns.getFood();
+            StringBuilder text = new StringBuilder(rows * 12);
+            result.rowEnds = new int[rows];
+            result.rowLines = Arrays.copyOf(columns.getLines(), rows);
+
+            double[] footprints = RESULTS.get();
+            if (footprints.length < rows) {
+                footprints = new double[transport.length];
+                RESULTS.set(footprints);
+            }
+            FootprintKernel.compute(transport, electricity, food, rows, factors, footprints);
+
+            for (int i = 0; i < rows; i++) {
+                double footprint = footprints[i];
+                text.append(',').append(footprint).append('\n');
+                result.rowEnds[i] = text.length();
+                result.add(footprint);
+            }
+            result.text = text.toString();
+            result.lines = chunk.getLines();
+            return result;
+        }
+    }
+
+    // Inner class holding the formatted rows and partial aggregates of one chunk
+    private static class ChunkResult {
+        String text; // Formatted ",footprint" rows, without their line numbers
+        int[] rowEnds; // End of each row in the text
+        int[] rowLines; // Line of each row inside the chunk
+        int lines;
+        long rows;
+        double sum;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        final MappedCsvReader.ParseReport report = new MappedCsvReader.ParseReport();
+
+        void add(double footprint) {
+            rows++;
+            sum += footprint;
+            min = Math.min(min, footprint);
+            max = Math.max(max, footprint);
+        }
+    }
+
+    // Inner class representing the aggregates of a whole batch run
+    public static class Summary {
+        private long rows;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private final MappedCsvReader.ParseReport report = new MappedCsvReader.ParseReport();
+        private final String factorVersion;
+        private long elapsedNanos;
+
+        private Summary(String factorVersion) {
+            this.factorVersion = factorVersion;
+        }
+
+        private void merge(ChunkResult result, long firstLine) {
+            rows += result.rows;
+            sum += result.sum;
+            min = Math.min(min, result.min);
+            max = Math.max(max, result.max);
+            report.merge(result.report, firstLine);
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getErrors() {
+            return report.getErrorCount();
+        }
+
+        // Getter method for the rows that could not be parsed
+        public MappedCsvReader.ParseReport getReport() {
+            return report;
+        }
+
+        public double getTotal() {
+            return sum;
+        }
+
+        // Getter method for the version of the emission factors used for every row
+        public String getFactorVersion() {
+            return factorVersion;
+        }
+
+        public double getMean() {
+            return rows == 0 ? 0 : sum / rows;
+        }
+
+        // Method to get the throughput of the run in rows per second
+        public double getRowsPerSecond() {
+            return elapsedNanos == 0 ? 0 : (rows + getErrors()) / (elapsedNanos / 1e9);
+        }
+
+        // Method to print the aggregates and the first bad rows to the console
+        public void print() {
+            System.out.println("Emission factors: " + factorVersion);
+            System.out.println("Kernel: " + (FootprintKernel.isVectorized() ? "vector" : "scalar"));
+            System.out.println("Rows calculated: " + rows);
+            System.out.println("Rows rejected: " + getErrors());
+            System.out.println("Total footprint: " + sum + " kilograms of CO2");
+            System.out.println("Mean footprint: " + getMean() + " kilograms of CO2");
+            if (rows > 0) {
+                System.out.println("Min footprint: " + min + " kilograms of CO2");
+                System.out.println("Max footprint: " + max + " kilograms of CO2");
+            }
+            System.out.printf("Throughput: %.0f rows/s (%.3f s)%n", getRowsPerSecond(), elapsedNanos / 1e9);
+            for (String message : report.getMessages()) {
+                System.err.println(message);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 /* CarbonFootprintCalculator class represents a GUI-based carbon footprint calculator.
    It extends JFrame and provides a user interface to input data related to transportation,
-   energy consumption, and food consumption to calculate and display the carbon footprint.*/
+   energy consumption, and food consumption to calculate and display the carbon footprint. The what-if
+   view runs many scenarios over ranges of these inputs and of the emission factors.*/
 
 //package OOP_Program;
 
@@ -8,17 +9,26 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.table.DefaultTableModel;
 
 public class CarbonFootprintCalculator extends JFrame {
+    private static final Metrics.Timer CALCULATE_TIMER = Metrics.timer("calculate_footprint_seconds",
+            "Time from pressing Calculate until the result is shown");
+
     private JTextField txtTransport, txtElectricity, txtFood;
     private JLabel lblResult;
     private double lastCalculatedFootprint = 0;
+    private EmissionFactorTable.Factors lastFactors; // Emission factors behind the last result
+    private final String username; // User whose calculations are stored in the history
 
     // Constructor initializes the frame, layout, and components of the carbon footprint calculator
-    public CarbonFootprintCalculator() {
+    public CarbonFootprintCalculator(String username) {
+        this.username = username;
         setTitle("Carbon Footprint Calculator"); // Set the title of the frame
         setSize(700, 300); // Set the size of the frame
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); // Set close operation
@@ -61,6 +71,26 @@ public class CarbonFootprintCalculator extends JFrame {
         });
         add(btnShowAdvice);
 
+        // Add a button to show the history of calculated footprints
+        JButton btnHistory = new JButton("History");
+        btnHistory.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showHistory();
+            }
+        });
+        add(btnHistory);
+
+        // Add a button to explore reduction scenarios over ranges of inputs and emission factors
+        JButton btnWhatIf = new JButton("What-if scenarios");
+        btnWhatIf.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showScenarios();
+            }
+        });
+        add(btnWhatIf);
+
         // Add a button to open Google Scholar link about SDG 13
         JButton btnOpenGoogleScholar = new JButton("Read more about SDG 13");
         btnOpenGoogleScholar.addActionListener(new ActionListener() {
@@ -80,69 +110,160 @@ public class CarbonFootprintCalculator extends JFrame {
             }
         });
         add(btnExit);
-
-        setVisible(true); // Set the frame as visible
     }
 
-    // Method to calculate the carbon footprint based on user input
+    // Method to calculate the carbon footprint based on user input. The result is shown at once, in the order
+    // of the clicks; only saving it runs off the EDT.
     private void calculateFootprint() {
-        
+        long start = CALCULATE_TIMER.start();
         try {
             double transport = Double.parseDouble(txtTransport.getText());
             double electricity = Double.parseDouble(txtElectricity.getText());
             double food = Double.parseDouble(txtFood.getText());
 
-            // Calculate the carbon footprint using specified coefficients
-            lastCalculatedFootprint = transport * 0.21 + electricity * 0.5 + food * 0.13;
+            // Calculate the carbon footprint using the current emission factors
+            EmissionFactorTable.Factors factors = EmissionFactorTable.current().getDefaultFactors();
+            double footprint = computeFootprint(transport, electricity, food, factors);
+            long timeMillis = System.currentTimeMillis();
+            lastCalculatedFootprint = footprint;
+            lastFactors = factors;
             // Display the calculated carbon footprint
-            lblResult.setText("Your carbon footprint is: " + lastCalculatedFootprint + " kilograms of CO2");
+            lblResult.setText("Your carbon footprint is: " + lastCalculatedFootprint + " kilograms of CO2"
+                    + " (emission factors " + lastFactors.getVersion() + ")");
+            // Render the advice for this result now, so the Suggestions button opens it at once
+            AdviceRenderer.getDefault().prefetch(FootprintStatistics.getDefault().band(footprint),
+                    getLocale(), factors);
+            CALCULATE_TIMER.stop(start);
+            TaskScheduler.submit(() -> {
+                record(username, timeMillis, footprint);
+                return null;
+            }, null, error -> JOptionPane.showMessageDialog(this, "Unable to save the result: " + error.getMessage()));
         } catch (NumberFormatException e) {
             // Display an error message for incorrect data format
             JOptionPane.showMessageDialog(this, "Please insert a correct form of data.");
         }
     }
 
+    // Method to calculate a footprint, store it in the user's history and add it to the population statistics,
+    // shared by the window and the HTTP server
+    public static double calculateAndRecord(String username, double transport, double electricity, double food,
+                                            EmissionFactorTable.Factors factors) throws IOException {
+        double footprint = computeFootprint(transport, electricity, food, factors);
+        record(username, System.currentTimeMillis(), footprint);
+        return footprint;
+    }
+
+    // Method to store a footprint in the user's history and add it to the population statistics
+    private static void record(String username, long timeMillis, double footprint) throws IOException {
+        // Move the advice bands with the population
+        FootprintStatistics.getDefault().record(FootprintHistory.forUser(username), timeMillis, footprint);
+    }
+
+    // Method to calculate the carbon footprint for one set of inputs with the current emission factors
+    public static double computeFootprint(double transport, double electricity, double food) {
+        return computeFootprint(transport, electricity, food, EmissionFactorTable.current().getDefaultFactors());
+    }
+
+    // Method to calculate the carbon footprint with the given factors, shared with the batch calculator
+    public static double computeFootprint(double transport, double electricity, double food,
+                                          EmissionFactorTable.Factors factors) {
+        return transport * factors.getTransport() + electricity * factors.getElectricity() + food * factors.getFood();
+    }
+
     // Method to show advice/suggestions based on the calculated carbon footprint
     private void showAdviceBasedOnFootprint(double footprint) {
-    int columns = 5; 
-
-    JTextArea textArea = new JTextArea();
-    textArea.setColumns(columns);
-    textArea.setLineWrap(true);
-    textArea.setWrapStyleWord(true);
-    textArea.setEditable(false); // set the textarea as not-editable
-
-    if (footprint <= 4000) {
-        // Display advice for below-average carbon footprint
-        textArea.setText("Your carbon footprint is considered below average, keep up the effort to further decrease your carbon footprint. Consider participating in more recycling activities and share your experience with your friends and family.");
-    } else if (footprint <= 10000) {
-        // Display advice for average carbon footprint
-        textArea.setText("Your carbon footprint is considered average in the world. Consider joining carpool activity, use energy-efficient appliances and reduce the intake of meat products.");
-    } else {
-        // Display advice for above-average carbon footprint
-        textArea.setText("Your carbon footprint is considered above average. Take into consideration to switch up your daily carbon usage. Switch off electric appliances and turn off water taps when not in used, consider the idea of taking public transportation and limit the intake of meat products.");
+        // Compare with the footprints stored so far, the fixed 4000 and 10000 kg cut-offs apply until there are enough
+        FootprintStatistics.Band band = FootprintStatistics.getDefault().band(footprint);
+        EmissionFactorTable.Factors factors =
+                lastFactors != null ? lastFactors : EmissionFactorTable.current().getDefaultFactors();
+        AdviceRenderer.getDefault().show(this, band, getLocale(), factors);
     }
 
-    JScrollPane scrollPane = new JScrollPane(textArea);
-    scrollPane.setPreferredSize(new Dimension(400, 100)); 
+    // Method to show the footprints calculated so far, summed up per day, week or month, newest first
+    private void showHistory() {
+        JComboBox<FootprintHistory.Granularity> granularityBox = new JComboBox<>(FootprintHistory.Granularity.values());
+        granularityBox.setSelectedItem(FootprintHistory.Granularity.MONTH);
+        DefaultTableModel tableModel = new DefaultTableModel(
+                new Object[] {"Period starting", "Calculations", "Average (kg CO2)", "Lowest", "Highest"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable table = new JTable(tableModel);
 
-    JOptionPane.showMessageDialog(this, scrollPane, "Advice", JOptionPane.INFORMATION_MESSAGE);
-}
+        // Load the rollups of the selected granularity off the EDT and fill the table with them
+        ActionListener loadRollups = new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                FootprintHistory.Granularity granularity =
+                        (FootprintHistory.Granularity) granularityBox.getSelectedItem();
+                TaskScheduler.submit(() -> FootprintHistory.forUser(username).rollups(granularity), rollups -> {
+                    tableModel.setRowCount(0);
+                    List<FootprintHistory.Rollup> newestFirst = rollups;
+                    Collections.reverse(newestFirst);
+                    for (FootprintHistory.Rollup rollup : newestFirst) {
+                        tableModel.addRow(new Object[] {rollup.getStart(), rollup.getCount(),
+                            String.format("%.2f", rollup.getMean()), String.format("%.2f", rollup.getMin()),
+                            String.format("%.2f", rollup.getMax())});
+                    }
+                }, error -> JOptionPane.showMessageDialog(CarbonFootprintCalculator.this,
+                        "Unable to load the history: " + error.getMessage()));
+            }
+        };
+        granularityBox.addActionListener(loadRollups);
+        loadRollups.actionPerformed(null);
 
+        JPanel historyPanel = new JPanel(new BorderLayout(5, 5));
+        historyPanel.add(granularityBox, BorderLayout.NORTH);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(550, 250));
+        historyPanel.add(scrollPane, BorderLayout.CENTER);
 
+        JOptionPane.showMessageDialog(this, historyPanel, "History", JOptionPane.PLAIN_MESSAGE);
+    }
 
+    // Method to open the what-if view, starting from half to all of the amounts entered and from 80% to 100% of
+    // the current emission factors
+    private void showScenarios() {
+        EmissionFactorTable.Factors factors = EmissionFactorTable.current().getDefaultFactors();
+        double[] to = {amountOrDefault(txtTransport, 500), amountOrDefault(txtElectricity, 1000),
+            amountOrDefault(txtFood, 50), factors.getTransport(), factors.getElectricity(), factors.getFood()};
+        double[] from = new double[to.length];
+        for (int p = 0; p < to.length; p++) {
+            from[p] = to[p] * (p < ScenarioSimulator.TRANSPORT_FACTOR ? 0.5 : 0.8);
+        }
 
-    // Method to open Google Scholar link about SDG 13 in the default web browser
+        ScenarioPanel scenarioPanel = new ScenarioPanel(from, to);
+        JDialog scenarioDialog = new JDialog(this, "What-if scenarios", false);
+        scenarioDialog.setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        scenarioDialog.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                scenarioPanel.stop(); // Closing the view stops its run
+            }
+        });
+        scenarioDialog.add(scenarioPanel);
+        scenarioDialog.pack();
+        scenarioDialog.setLocationRelativeTo(this);
+        scenarioDialog.setVisible(true);
+    }
+
+    // Method to get the positive amount typed in a field, or a default if there is none
+    private static double amountOrDefault(JTextField field, double defaultAmount) {
+        try {
+            double amount = Double.parseDouble(field.getText());
+            return amount > 0 ? amount : defaultAmount;
+        } catch (NumberFormatException e) {
+            return defaultAmount;
+        }
+    }
+
+    // Method to open Google Scholar link about SDG 13 in the default web browser, without blocking the window
     private void openGoogleScholar() {
         if (Desktop.isDesktopSupported()) {
-            Desktop desktop = Desktop.getDesktop();
-            try {
-                // Open the Google Scholar link about SDG 13
-                desktop.browse(new URI("https://sdgs.un.org/goals/goal13"));
-            } catch (IOException | URISyntaxException e) {
-                // Display an error message if unable to load the link
-                JOptionPane.showMessageDialog(this, "Unable to load.");
-            }
+            // Open the Google Scholar link about SDG 13, or display an error message if unable to load it
+            TaskScheduler.browse(this, "https://sdgs.un.org/goals/goal13", "Unable to load.");
         } 
     }
 }
\ No newline at end of file
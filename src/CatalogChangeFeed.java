@@ -0,0 +1,199 @@
+/* CatalogChangeFeed class tells open views what changed in a UrlCatalog, so they can update the affected
+   rows instead of reloading the whole catalog. Every change is a Change with the next sequence number: rows
+   inserted, a row updated or a row deleted, or a reset when the catalog was rebuilt. Each Change carries the
+   snapshot it produced, so a view that applies the changes in order always shows a real catalog state.
+   The last CAPACITY changes are kept in a ring buffer and every subscriber reads them from its own position.
+   A subscriber has at most one delivery waiting on its executor, so a slow subscriber (an EDT busy painting)
+   gets everything that piled up in one call, with runs of appended rows and repeated updates of a row merged.
+   A subscriber that falls so far behind that the ring has overwritten changes it has not read gets a single
+   reset with the latest snapshot instead. */
+
+//package OOP_Program;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class CatalogChangeFeed {
+    private static final int CAPACITY = 256; // Changes kept for subscribers that have not read them yet
+    private static final int MAX_CHANGES_PER_DELIVERY = 64; // More than this after merging is sent as a reset
+    private static final Metrics.Counter RESETS = Metrics.counter("catalog_feed_resets_total",
+            "Catalog change deliveries replaced by a reset because the subscriber fell behind");
+
+    // Kinds of catalog change
+    public enum Type {
+        INSERT, UPDATE, DELETE, RESET
+    }
+
+    // Interface for views that apply catalog changes, called on the executor given when subscribing
+    public interface Listener {
+        void catalogChanged(List<Change> changes);
+    }
+
+    private final Change[] ring = new Change[CAPACITY];
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private long sequence; // Number of the latest change, guarded by this
+    private PersistentSequence<AdminInterface.UrlInfo> latest; // Snapshot after the latest change
+
+    // Constructor for CatalogChangeFeed, starting from the current catalog snapshot
+    public CatalogChangeFeed(PersistentSequence<AdminInterface.UrlInfo> snapshot) {
+        this.latest = snapshot;
+    }
+
+    // Method to record a change and schedule its delivery, called by the catalog in the order it changes
+    public void publish(Type type, int index, int count, PersistentSequence<AdminInterface.UrlInfo> snapshot) {
+        synchronized (this) {
+            sequence++;
+            ring[(int) (sequence % CAPACITY)] = new Change(sequence, type, index, count, snapshot);
+            latest = snapshot;
+        }
+        for (Subscription subscription : subscriptions) {
+            subscription.schedule();
+        }
+    }
+
+    // Method to start receiving the changes after the current snapshot, which the subscription returns.
+    // The executor must run tasks in order, one at a time, as the EDT does.
+    public synchronized Subscription subscribe(Listener listener, Executor executor) {
+        Subscription subscription = new Subscription(listener, executor, sequence, latest);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    // Method to get the number of the latest change
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    // Method to take the changes a subscriber has not read yet, or a reset if some were overwritten
+    private synchronized List<Change> read(Subscription subscription) {
+        long from = subscription.position + 1;
+        List<Change> changes = new ArrayList<>((int) Math.min(sequence - from + 1, CAPACITY));
+        if (sequence - subscription.position > CAPACITY) {
+            RESETS.increment();
+            changes.add(new Change(sequence, Type.RESET, 0, latest.size(), latest));
+        } else {
+            for (long s = from; s <= sequence; s++) {
+                changes.add(ring[(int) (s % CAPACITY)]);
+            }
+        }
+        subscription.position = sequence;
+        return changes;
+    }
+
+    // Method to merge a run of appended rows into one insert and repeated updates of a row into one update
+    static List<Change> coalesce(List<Change> changes) {
+        List<Change> merged = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            Change previous = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (change.type == Type.RESET) {
+                merged.clear(); // A reset replaces everything before it
+                merged.add(change);
+            } else if (previous != null && previous.type == Type.INSERT && change.type == Type.INSERT
+                    && change.index == previous.index + previous.count) {
+                merged.set(merged.size() - 1, new Change(change.sequence, Type.INSERT, previous.index,
+                        previous.count + change.count, change.snapshot));
+            } else if (previous != null && previous.type == Type.UPDATE && change.type == Type.UPDATE
+                    && change.index == previous.index) {
+                merged.set(merged.size() - 1, change);
+            } else {
+                merged.add(change);
+            }
+        }
+        if (merged.size() > MAX_CHANGES_PER_DELIVERY) {
+            // Firing one event per row would cost more than redrawing the view
+            Change last = merged.get(merged.size() - 1);
+            RESETS.increment();
+            return List.of(new Change(last.sequence, Type.RESET, 0, last.snapshot.size(), last.snapshot));
+        }
+        return merged;
+    }
+
+    // Inner class representing one change; index and count are the rows it covers in the snapshot it produced
+    // (for a delete, the row the entry was removed from)
+    public static final class Change {
+        private final long sequence;
+        private final Type type;
+        private final int index;
+        private final int count;
+        private final PersistentSequence<AdminInterface.UrlInfo> snapshot;
+
+        Change(long sequence, Type type, int index, int count, PersistentSequence<AdminInterface.UrlInfo> snapshot) {
+            this.sequence = sequence;
+            this.type = type;
+            this.index = index;
+            this.count = count;
+            this.snapshot = snapshot;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public Type getType() {
+            return type;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public PersistentSequence<AdminInterface.UrlInfo> getSnapshot() {
+            return snapshot;
+        }
+    }
+
+    // Inner class representing one subscriber and how far it has read
+    public final class Subscription implements AutoCloseable {
+        private final Listener listener;
+        private final Executor executor;
+        private final PersistentSequence<AdminInterface.UrlInfo> snapshot;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private long position; // Number of the last change read, guarded by the feed
+        private volatile boolean closed;
+
+        private Subscription(Listener listener, Executor executor, long position,
+                             PersistentSequence<AdminInterface.UrlInfo> snapshot) {
+            this.listener = listener;
+            this.executor = executor;
+            this.position = position;
+            this.snapshot = snapshot;
+        }
+
+        // Getter method for the snapshot the changes start from
+        public PersistentSequence<AdminInterface.UrlInfo> getSnapshot() {
+            return snapshot;
+        }
+
+        // Method to stop receiving changes
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+
+        // Method to queue a delivery unless one is already waiting, which will also pick up this change
+        private void schedule() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                executor.execute(this::deliver);
+            }
+        }
+
+        private synchronized void deliver() {
+            scheduled.set(false); // Changes published from here on schedule another delivery
+            if (closed) {
+                return;
+            }
+            List<Change> changes = read(this);
+            if (!changes.isEmpty()) {
+                listener.catalogChanged(coalesce(changes));
+            }
+        }
+    }
+}
@@ -0,0 +1,453 @@
+/* CatalogHttpServer class runs the program without windows and offers login, footprint calculation, the URL
+   catalog and keyword search as a JSON API over HTTP, so other tools can use them without driving the GUI.
+   It uses the JDK's built-in HTTP server with one virtual thread per request, so a request waiting on the disk
+   or a password hash does not hold up the others. Every endpoint calls the same classes as the windows:
+   CredentialStore sessions for login, CarbonFootprintCalculator.calculateAndRecord for footprints and the
+   shared UrlCatalog for the catalog. Request bodies are flat JSON objects read with FlatJson.
+
+   POST   /api/login       {"username", "password"} -> {"token", "username", "role"}
+   POST   /api/logout      ends the session of the bearer token
+   POST   /api/footprint   {"transport", "electricity", "food", "record"?} -> {"footprint", "band", "factors"}
+   GET    /api/urls        ?offset=&limit= -> {"total", "offset", "entries"}
+   POST   /api/urls        {"url", "name"} -> the new entry (admin)
+   GET    /api/urls/{id}   -> the entry
+   PUT    /api/urls/{id}   {"url", "name"} -> the edited entry (admin)
+   DELETE /api/urls/{id}   (admin)
+   GET    /api/search      ?q=&limit= -> {"more", "entries"}, the first matches in catalog order
+   GET    /metrics         the metrics in the Prometheus text format
+
+   Every /api request except login needs an "Authorization: Bearer <token>" header. */
+
+//package OOP_Program;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class CatalogHttpServer {
+    private static final Metrics.Counter REQUESTS = Metrics.counter("http_requests_total", "HTTP API requests");
+    private static final Metrics.Counter SERVER_ERRORS = Metrics.counter("http_server_errors_total",
+            "HTTP API requests that failed with a server error");
+    private static final Metrics.Timer REQUEST_TIMER = Metrics.timer("http_request_seconds",
+            "Time to handle an HTTP API request");
+    private static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 1024; // Connections waiting to be accepted
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final int DEFAULT_LIMIT = 50; // Entries returned by a list or search without a limit
+    private static final int MAX_LIMIT = 1000;
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final UrlCatalog catalog;
+    private final CredentialStore credentials;
+
+    // Constructor for CatalogHttpServer, serves the catalog and accounts on the address once started
+    public CatalogHttpServer(InetSocketAddress address, UrlCatalog catalog, CredentialStore credentials)
+            throws IOException {
+        this.catalog = catalog;
+        this.credentials = credentials;
+        // The built-in server writes headers and body separately, which with Nagle's algorithm and delayed
+        // ACKs stalls every kept-alive response by about 40 ms, so turn Nagle off unless told otherwise
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+        server.createContext("/metrics", this::handle);
+    }
+
+    // Method to start the server in headless mode, listening on localhost at the port given as the argument or
+    // the server.port property
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        EmissionFactorTable.watchConfiguredFile();
+        Metrics.start();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("server.port", DEFAULT_PORT);
+        UrlCatalog catalog = UrlCatalog.getDefault();
+        CatalogHttpServer server = new CatalogHttpServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), catalog, CredentialStore.getDefault());
+        // At shutdown stop taking requests before the catalog's store is closed, so the last changes are saved
+        if (catalog.isPersistent()) {
+            UrlCatalogStore.beforeDefaultClose(() -> server.stop(1));
+        } else {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1), "catalog-http-server-shutdown"));
+        }
+        server.start();
+        System.out.println("Serving the catalog API on http://localhost:" + server.getPort() + "/api/");
+    }
+
+    // Method to start accepting requests
+    public void start() {
+        server.start();
+    }
+
+    // Method to stop accepting requests, waiting up to the given number of seconds for running ones
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    // Getter method for the port the server listens on, useful when it was started on port 0
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Method run for every request, sends the response or the error of the endpoint
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = REQUEST_TIMER.start();
+        REQUESTS.increment();
+        Response response;
+        try {
+            response = route(exchange);
+        } catch (ApiException e) {
+            response = Response.error(e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            response = Response.error(400, e.getMessage());
+        } catch (IOException | RuntimeException e) {
+            // The details stay in the server's log, they can name files and classes the client has no business seeing
+            SERVER_ERRORS.increment();
+            logError(exchange, e);
+            response = Response.error(500, "Internal error");
+        }
+        try {
+            send(exchange, response);
+        } finally {
+            exchange.close();
+            REQUEST_TIMER.stop(start);
+        }
+    }
+
+    // Method to print the error of a request the server could not answer, with its stack trace
+    private static void logError(HttpExchange exchange, Exception error) {
+        StringBuilder message = new StringBuilder("Internal error on " + exchange.getRequestMethod() + " "
+                + exchange.getRequestURI().getPath() + ": " + error);
+        for (StackTraceElement element : error.getStackTrace()) {
+            message.append(System.lineSeparator()).append("    at ").append(element);
+        }
+        System.err.println(message);
+    }
+
+    // Method to find the endpoint for the path and method of a request
+    private Response route(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String method = exchange.getRequestMethod();
+        if (path.equals("/metrics")) {
+            requireMethod(method, "GET");
+            return new Response(200, "text/plain; version=0.0.4; charset=utf-8", Metrics.toPrometheusText());
+        }
+        switch (path) {
+            case "/api/login":
+                requireMethod(method, "POST");
+                return login(readBody(exchange));
+            case "/api/logout":
+                requireMethod(method, "POST");
+                credentials.logout(requireSession(exchange));
+                return Response.noContent();
+            case "/api/footprint":
+                requireMethod(method, "POST");
+                return footprint(requireSession(exchange), readBody(exchange));
+            case "/api/search":
+                requireMethod(method, "GET");
+                requireSession(exchange);
+                return search(queryParameters(exchange));
+            case "/api/urls":
+                if (method.equals("GET")) {
+                    requireSession(exchange);
+                    return listUrls(queryParameters(exchange));
+                }
+                if (!method.equals("POST")) {
+                    throw new ApiException(405, "Method not allowed, use GET or POST");
+                }
+                requireAdmin(exchange);
+                return addUrl(readBody(exchange));
+            default:
+                break;
+        }
+        if (path.startsWith("/api/urls/")) {
+            int id = parseId(path.substring("/api/urls/".length()));
+            switch (method) {
+                case "GET":
+                    requireSession(exchange);
+                    return getUrl(id);
+                case "PUT":
+                    requireAdmin(exchange);
+                    return editUrl(id, readBody(exchange));
+                case "DELETE":
+                    requireAdmin(exchange);
+                    if (!catalog.removeById(id)) {
+                        throw new ApiException(404, "No URL with id " + id);
+                    }
+                    return Response.noContent();
+                default:
+                    throw new ApiException(405, "Method not allowed, use GET, PUT or DELETE");
+            }
+        }
+        throw new ApiException(404, "Not found: " + path);
+    }
+
+    private Response login(Map<String, Object> body) {
+        CredentialStore.Session session = credentials.login(text(body, "username"), text(body, "password"));
+        if (session == null) {
+            throw new ApiException(401, "Invalid username or password");
+        }
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("token", session.getToken());
+        json.put("username", session.getUsername());
+        json.put("role", session.getRole().name());
+        return Response.json(200, FlatJson.toJson(json));
+    }
+
+    // Method to calculate a footprint like the calculator window, stored in the history unless record is false
+    private Response footprint(CredentialStore.Session session, Map<String, Object> body) throws IOException {
+        double transport = amount(body, "transport");
+        double electricity = amount(body, "electricity");
+        double food = amount(body, "food");
+        EmissionFactorTable.Factors factors = EmissionFactorTable.current().getDefaultFactors();
+        double footprint = Boolean.FALSE.equals(body.get("record"))
+                ? CarbonFootprintCalculator.computeFootprint(transport, electricity, food, factors)
+                : CarbonFootprintCalculator.calculateAndRecord(session.getUsername(), transport, electricity, food,
+                        factors);
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("footprint", footprint);
+        json.put("band", FootprintStatistics.getDefault().band(footprint).name());
+        json.put("factors", factors.getVersion());
+        return Response.json(200, FlatJson.toJson(json));
+    }
+
+    private Response listUrls(Map<String, String> parameters) {
+        List<AdminInterface.UrlInfo> snapshot = catalog.snapshot();
+        int offset = Math.min(intParameter(parameters, "offset", 0), snapshot.size());
+        int end = Math.min(snapshot.size(), offset + limit(parameters));
+        StringBuilder json = new StringBuilder(64 * (end - offset) + 64);
+        json.append("{\"total\":").append(snapshot.size()).append(",\"offset\":").append(offset);
+        appendEntries(json, snapshot.subList(offset, end));
+        return Response.json(200, json.append('}').toString());
+    }
+
+    private Response search(Map<String, String> parameters) {
+        String keyword = parameters.get("q");
+        if (keyword == null) {
+            throw new IllegalArgumentException("Missing parameter q");
+        }
+        // One result past the limit tells whether there are more, without finding every match
+        int limit = limit(parameters);
+        List<AdminInterface.UrlInfo> results = catalog.search(keyword, limit + 1);
+        StringBuilder json = new StringBuilder().append("{\"more\":").append(results.size() > limit);
+        appendEntries(json, results.subList(0, Math.min(results.size(), limit)));
+        return Response.json(200, json.append('}').toString());
+    }
+
+    private Response getUrl(int id) {
+        int index = catalog.indexOf(id);
+        if (index < 0) {
+            throw new ApiException(404, "No URL with id " + id);
+        }
+        return Response.json(200, entryJson(new StringBuilder(), catalog.snapshot().get(index)).toString());
+    }
+
+    private Response addUrl(Map<String, Object> body) {
+        AdminInterface.UrlInfo urlInfo = validUrlInfo(body);
+        if (!catalog.add(urlInfo)) {
+            throw new ApiException(409, "The URL is already in the catalog");
+        }
+        return Response.json(201, entryJson(new StringBuilder(), urlInfo).toString());
+    }
+
+    private Response editUrl(int id, Map<String, Object> body) {
+        AdminInterface.UrlInfo urlInfo = validUrlInfo(body);
+        if (!catalog.setById(id, urlInfo)) {
+            if (catalog.indexOf(id) < 0) {
+                throw new ApiException(404, "No URL with id " + id);
+            }
+            throw new ApiException(409, "Another entry already has this URL");
+        }
+        return Response.json(200, entryJson(new StringBuilder(), urlInfo).toString());
+    }
+
+    // Method to check and normalize a URL and name the same way as an import
+    private static AdminInterface.UrlInfo validUrlInfo(Map<String, Object> body) {
+        String url = text(body, "url");
+        AdminInterface.UrlInfo urlInfo = UrlCatalogTransfer.normalize(url, text(body, "name"));
+        if (urlInfo == null) {
+            throw new IllegalArgumentException("Not a valid web address: " + url);
+        }
+        return urlInfo;
+    }
+
+    private static void appendEntries(StringBuilder json, List<AdminInterface.UrlInfo> entries) {
+        json.append(",\"entries\":[");
+        for (int i = 0; i < entries.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            entryJson(json, entries.get(i));
+        }
+        json.append(']');
+    }
+
+    private static StringBuilder entryJson(StringBuilder json, AdminInterface.UrlInfo urlInfo) {
+        json.append("{\"id\":").append(urlInfo.id).append(",\"url\":");
+        FlatJson.quote(json, String.valueOf(urlInfo.getUrl()));
+        json.append(",\"name\":");
+        FlatJson.quote(json, String.valueOf(urlInfo.getName()));
+        return json.append('}');
+    }
+
+    private CredentialStore.Session requireSession(HttpExchange exchange) {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        String token = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring("Bearer ".length()).trim() : null;
+        CredentialStore.Session session = credentials.getSession(token);
+        if (session == null) {
+            throw new ApiException(401, "Log in and send the token as \"Authorization: Bearer <token>\"");
+        }
+        return session;
+    }
+
+    private void requireAdmin(HttpExchange exchange) {
+        if (requireSession(exchange).getRole() != CredentialStore.Role.ADMIN) {
+            throw new ApiException(403, "Only administrators can change the catalog");
+        }
+    }
+
+    private static void requireMethod(String method, String expected) {
+        if (!method.equals(expected)) {
+            throw new ApiException(405, "Method not allowed, use " + expected);
+        }
+    }
+
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (bytes.length > MAX_BODY_BYTES) {
+                throw new ApiException(413, "Request body is larger than " + MAX_BODY_BYTES + " bytes");
+            }
+            return FlatJson.parseObject(new String(bytes, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> queryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, equals), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    private static String text(Map<String, Object> body, String key) {
+        Object value = body.get(key);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException("Missing text field " + key);
+        }
+        return (String) value;
+    }
+
+    private static double amount(Map<String, Object> body, String key) {
+        Object value = body.get(key);
+        if (!(value instanceof Double) || !Double.isFinite((Double) value) || (Double) value < 0) {
+            throw new IllegalArgumentException("Field " + key + " must be a number of at least 0");
+        }
+        return (Double) value;
+    }
+
+    private static int limit(Map<String, String> parameters) {
+        return Math.min(intParameter(parameters, "limit", DEFAULT_LIMIT), MAX_LIMIT);
+    }
+
+    private static int intParameter(Map<String, String> parameters, String name, int defaultValue) {
+        String value = parameters.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int number = Integer.parseInt(value);
+            if (number < 0) {
+                throw new IllegalArgumentException("Parameter " + name + " must not be negative");
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be a whole number");
+        }
+    }
+
+    private static int parseId(String text) {
+        try {
+            return Integer.parseInt(text);
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "No URL with id " + text);
+        }
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        if (response.body == null) {
+            exchange.sendResponseHeaders(response.status, -1);
+            return;
+        }
+        byte[] bytes = response.body.getBytes(StandardCharsets.UTF_8);
+        headers.set("Content-Type", response.contentType);
+        exchange.sendResponseHeaders(response.status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // Inner class representing the status and body to send back
+    private static class Response {
+        final int status;
+        final String contentType;
+        final String body; // Null for an empty response
+
+        Response(int status, String contentType, String body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        static Response json(int status, String body) {
+            return new Response(status, "application/json; charset=utf-8", body);
+        }
+
+        static Response noContent() {
+            return new Response(204, null, null);
+        }
+
+        static Response error(int status, String message) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("error", message);
+            return json(status, FlatJson.toJson(json));
+        }
+    }
+
+    // Inner class representing a request that cannot be served, with the HTTP status to answer
+    private static class ApiException extends RuntimeException {
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/* CatalogListModel class is a list model that shows URL names straight from a catalog snapshot or a list of
+   search results. Nothing is copied when a view opens: a row's name is only read when the JList paints that
+   row, and lists made with createList use a prototype value so the JList never measures every row. Opening
+   a view of a million entries therefore costs the same as opening one with ten. A model made with live follows
+   the catalog's change feed and fires events only for the rows each change touches. */
+
+//package OOP_Program;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class CatalogListModel extends AbstractListModel<String> {
+    // Sample value that sets the width and height of every cell
+    private static final String PROTOTYPE_NAME = "Sustainable Development Goal 13 resources";
+
+    private List<AdminInterface.UrlInfo> entries;
+    private boolean owned;  // True once entries is a private copy that batches can be appended to
+    private CatalogChangeFeed.Subscription subscription; // Set for models that follow a catalog
+
+    // Constructor for CatalogListModel, shows the given entries without copying them
+    public CatalogListModel(List<AdminInterface.UrlInfo> entries) {
+        this.entries = entries;
+    }
+
+    // Constructor for an empty model that results are appended to
+    public CatalogListModel() {
+        this(List.of());
+    }
+
+    // Method to create a model showing the catalog that follows its changes until closed, call it on the EDT
+    public static CatalogListModel live(UrlCatalog catalog) {
+        CatalogListModel model = new CatalogListModel();
+        // Changes are delivered with invokeLater, so none can arrive before the starting snapshot is set
+        model.subscription = catalog.subscribe(model::apply, SwingUtilities::invokeLater);
+        model.entries = model.subscription.getSnapshot();
+        return model;
+    }
+
+    // Method to stop following the catalog, the model keeps showing the last snapshot it had
+    public void close() {
+        if (subscription != null) {
+            subscription.close();
+        }
+    }
+
+    // Method to create a single-selection list with fixed cell sizes for this model
+    public static JList<String> createList(CatalogListModel model) {
+        JList<String> list = new JList<>(model);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setPrototypeCellValue(PROTOTYPE_NAME);
+        list.setVisibleRowCount(12);
+        return list;
+    }
+
+    @Override
+    public int getSize() {
+        return entries.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return entries.get(index).getName();
+    }
+
+    // Method to get the entry shown in a row
+    public AdminInterface.UrlInfo getEntry(int index) {
+        return entries.get(index);
+    }
+
+    // Method to get the entries shown, in row order
+    public List<AdminInterface.UrlInfo> getEntries() {
+        return entries;
+    }
+
+    // Method to append a batch of entries with a single event
+    public void addAll(List<AdminInterface.UrlInfo> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (!owned) {
+            entries = new ArrayList<>(entries);
+            owned = true;
+        }
+        int first = entries.size();
+        entries.addAll(batch);
+        fireIntervalAdded(this, first, entries.size() - 1);
+    }
+
+    // Method to remove every row
+    public void clear() {
+        int size = entries.size();
+        entries = List.of();
+        owned = false;
+        if (size > 0) {
+            fireIntervalRemoved(this, 0, size - 1);
+        }
+    }
+
+    // Method to apply catalog changes in order, each one with the snapshot it produced
+    private void apply(List<CatalogChangeFeed.Change> changes) {
+        for (CatalogChangeFeed.Change change : changes) {
+            switch (change.getType()) {
+                case INSERT:
+                    inserted(change.getIndex(), change.getCount(), change.getSnapshot());
+                    break;
+                case UPDATE:
+                    changed(change.getIndex(), change.getSnapshot());
+                    break;
+                case DELETE:
+                    removed(change.getIndex(), change.getSnapshot());
+                    break;
+                default:
+                    reset(change.getSnapshot());
+                    break;
+            }
+        }
+    }
+
+    // Method to show a new snapshot in which entries were inserted from the given row
+    public void inserted(int index, int count, List<AdminInterface.UrlInfo> newEntries) {
+        entries = newEntries;
+        owned = false;
+        fireIntervalAdded(this, index, index + count - 1);
+    }
+
+    // Method to show a new snapshot in which the entry at the given row was edited
+    public void changed(int index, List<AdminInterface.UrlInfo> newEntries) {
+        entries = newEntries;
+        owned = false;
+        fireContentsChanged(this, index, index);
+    }
+
+    // Method to show a new snapshot in which the entry at the given row was deleted
+    public void removed(int index, List<AdminInterface.UrlInfo> newEntries) {
+        entries = newEntries;
+        owned = false;
+        fireIntervalRemoved(this, index, index);
+    }
+
+    // Method to show a snapshot that is not derived row by row from the current one
+    public void reset(List<AdminInterface.UrlInfo> newEntries) {
+        clear();
+        entries = newEntries;
+        if (!newEntries.isEmpty()) {
+            fireIntervalAdded(this, 0, newEntries.size() - 1);
+        }
+    }
+}
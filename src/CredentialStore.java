@@ -0,0 +1,333 @@
+/* CredentialStore class keeps the user accounts used by LoginFrame. Passwords are stored in a file as salted
+   PBKDF2-HMAC-SHA256 hashes, never as plain text. Because PBKDF2 is slow on purpose, a successful check is
+   remembered for a while as a cheap keyed digest, so the same user logging in again does not pay for the
+   full hash. Accounts, the verification cache and the open sessions all live in concurrent maps, so many
+   logins can be checked at the same time without a global lock. A session closes after it has not been used
+   for a while, and each user keeps only their newest few sessions open, so logins cannot pile up. A login
+   for an unknown username still runs the full hash, so the time it takes does not tell which accounts exist. */
+
+//package OOP_Program;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+public class CredentialStore {
+    public static final int DEFAULT_ITERATIONS = 210_000; // PBKDF2 rounds for new passwords
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final int MAX_CACHED = 10_000; // Verified logins remembered at once
+    private static final long CACHE_MILLIS = 10 * 60 * 1000; // How long a verified login is remembered
+    private static final long SESSION_IDLE_MILLIS = 30 * 60 * 1000; // Unused sessions close after this long
+    private static final int MAX_SESSIONS_PER_USER = 10; // A new login closes the user's oldest session past this
+    private static final byte[] DUMMY_SALT = new byte[SALT_BYTES]; // Hashed with for unknown usernames
+    private static final byte[] DUMMY_HASH = new byte[HASH_BITS / 8];
+
+    private static CredentialStore defaultStore;
+
+    private final Path file;
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final Map<String, CachedLogin> verified = new ConcurrentHashMap<>();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Map<String, Deque<Session>> userSessions = new ConcurrentHashMap<>(); // Oldest first
+    private final byte[] cacheKey = new byte[32]; // Random per process, so cached digests are useless elsewhere
+
+    // Constructor for CredentialStore, loads the accounts file or creates it with the default accounts
+    public CredentialStore(Path file, int iterations) throws IOException {
+        this.file = file;
+        this.iterations = iterations;
+        random.nextBytes(cacheKey);
+
+        if (Files.exists(file)) {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    Account account = Account.parse(line);
+                    accounts.put(account.username, account);
+                }
+            }
+        } else {
+            // The accounts the login window always accepted, now stored hashed
+            setPassword("user", "password", Role.USER);
+            setPassword("admin", "password", Role.ADMIN);
+        }
+    }
+
+    // Method to get the store used by the login window, kept in the users.file file
+    public static synchronized CredentialStore getDefault() throws IOException {
+        if (defaultStore == null) {
+            Path file = Paths.get(System.getProperty("users.file", "data/users.txt"));
+            defaultStore = new CredentialStore(file, DEFAULT_ITERATIONS);
+        }
+        return defaultStore;
+    }
+
+    // Method to check a username and password, returns the user's role or null if they do not match
+    public Role authenticate(String username, String password) {
+        Account account = accounts.get(username);
+        if (account == null) {
+            // Take as long as a wrong password would, the result is thrown away
+            MessageDigest.isEqual(pbkdf2(password, DUMMY_SALT, iterations), DUMMY_HASH);
+            return null;
+        }
+
+        // A recent successful login with the same password only needs the cheap digest
+        byte[] digest = cacheDigest(account, password);
+        CachedLogin cached = verified.get(username);
+        if (cached != null && cached.account == account && cached.expiresAt > System.currentTimeMillis()
+                && MessageDigest.isEqual(cached.digest, digest)) {
+            return account.role;
+        }
+
+        byte[] hash = pbkdf2(password, account.salt, account.iterations);
+        if (!MessageDigest.isEqual(hash, account.hash)) {
+            return null;
+        }
+        remember(username, new CachedLogin(account, digest, System.currentTimeMillis() + CACHE_MILLIS));
+        return account.role;
+    }
+
+    // Method to check a login and open a session for it, returns null if the login is wrong
+    public Session login(String username, String password) {
+        Role role = authenticate(username, password);
+        if (role == null) {
+            return null;
+        }
+        byte[] tokenBytes = new byte[24];
+        random.nextBytes(tokenBytes);
+        Session session = new Session(Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes),
+                username, role);
+        sessions.put(session.getToken(), session);
+
+        // Drop the user's closed and idle sessions, then the oldest ones past the limit
+        userSessions.compute(username, (name, open) -> {
+            Deque<Session> userOpen = open == null ? new ArrayDeque<>() : open;
+            long now = System.currentTimeMillis();
+            userOpen.removeIf(old -> {
+                boolean gone = old.isIdle(now) || !sessions.containsKey(old.getToken());
+                if (gone) {
+                    sessions.remove(old.getToken());
+                }
+                return gone;
+            });
+            userOpen.addLast(session);
+            while (userOpen.size() > MAX_SESSIONS_PER_USER) {
+                sessions.remove(userOpen.removeFirst().getToken());
+            }
+            return userOpen;
+        });
+        return session;
+    }
+
+    // Method to find an open session by its token, a session unused for too long is closed instead
+    public Session getSession(String token) {
+        Session session = token == null ? null : sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (session.isIdle(now)) {
+            logout(session);
+            return null;
+        }
+        session.lastUsedAt = now;
+        return session;
+    }
+
+    // Method to close a session
+    public void logout(Session session) {
+        if (session != null) {
+            sessions.remove(session.getToken());
+            userSessions.computeIfPresent(session.getUsername(), (name, open) -> {
+                open.remove(session);
+                return open.isEmpty() ? null : open;
+            });
+        }
+    }
+
+    // Method to get the number of open sessions
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    // Method to create an account or change its password and role, then save the accounts file
+    public void setPassword(String username, String password, Role role) throws IOException {
+        if (username.isEmpty() || username.contains(":")) {
+            throw new IllegalArgumentException("Invalid username: " + username);
+        }
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Account account = new Account(username, role, iterations, salt, pbkdf2(password, salt, iterations));
+        accounts.put(username, account);
+        verified.remove(username);
+        save();
+    }
+
+    // Method to write every account to the file, replacing it in one step
+    private synchronized void save() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(file.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            writer.write("# username:role:iterations:salt:hash (PBKDF2WithHmacSHA256)");
+            writer.newLine();
+            for (Account account : accounts.values()) {
+                writer.write(account.format());
+                writer.newLine();
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Method to add a verified login to the cache, dropping some entries when it is full
+    private void remember(String username, CachedLogin login) {
+        if (verified.size() >= MAX_CACHED) {
+            long now = System.currentTimeMillis();
+            Iterator<CachedLogin> iterator = verified.values().iterator();
+            for (int dropped = 0; iterator.hasNext() && (dropped < MAX_CACHED / 10); ) {
+                CachedLogin entry = iterator.next();
+                if (entry.expiresAt <= now || dropped < MAX_CACHED / 100) {
+                    iterator.remove();
+                    dropped++;
+                }
+            }
+        }
+        verified.put(username, login);
+    }
+
+    // Method to compute the cheap keyed digest of a login that was already verified
+    private byte[] cacheDigest(Account account, String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(cacheKey, "HmacSHA256"));
+            mac.update(account.salt);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("PBKDF2WithHmacSHA256 is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    // Enum for what a user may open after logging in
+    public enum Role {
+        USER, ADMIN
+    }
+
+    // Inner class representing a logged-in user
+    public static class Session {
+        private final String token;
+        private final String username;
+        private final Role role;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastUsedAt = createdAt;
+
+        private Session(String token, String username, Role role) {
+            this.token = token;
+            this.username = username;
+            this.role = role;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public Role getRole() {
+            return role;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public long getLastUsedAt() {
+            return lastUsedAt;
+        }
+
+        // Method to check whether the session has gone unused for longer than sessions stay open
+        boolean isIdle(long now) {
+            return now - lastUsedAt > SESSION_IDLE_MILLIS;
+        }
+    }
+
+    // Inner class representing one stored account
+    private static class Account {
+        final String username;
+        final Role role;
+        final int iterations;
+        final byte[] salt;
+        final byte[] hash;
+
+        Account(String username, Role role, int iterations, byte[] salt, byte[] hash) {
+            this.username = username;
+            this.role = role;
+            this.iterations = iterations;
+            this.salt = salt;
+            this.hash = hash;
+        }
+
+        static Account parse(String line) throws IOException {
+            String[] fields = line.split(":");
+            if (fields.length != 5) {
+                throw new IOException("Invalid account line: " + fields[0]);
+            }
+            try {
+                Base64.Decoder decoder = Base64.getDecoder();
+                return new Account(fields[0], Role.valueOf(fields[1]), Integer.parseInt(fields[2]),
+                        decoder.decode(fields[3]), decoder.decode(fields[4]));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid account line: " + fields[0], e);
+            }
+        }
+
+        String format() {
+            Base64.Encoder encoder = Base64.getEncoder();
+            return username + ":" + role + ":" + iterations + ":" + encoder.encodeToString(salt) + ":"
+                    + encoder.encodeToString(hash);
+        }
+    }
+
+    // Inner class representing a login that was verified with the full hash
+    private static class CachedLogin {
+        final Account account;
+        final byte[] digest;
+        final long expiresAt;
+
+        CachedLogin(Account account, byte[] digest, long expiresAt) {
+            this.account = account;
+            this.digest = digest;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
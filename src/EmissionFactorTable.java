@@ -0,0 +1,272 @@
+/* EmissionFactorTable class holds the emission factors used to turn activity data into kilograms of CO2.
+   Factors are keyed by (category, subtype, region, year) and stored in one flat double array, so once a key
+   has been resolved to an index the calculation loop only reads an array slot. Tables are loaded from a
+   CSV file, carry a version that is recorded with each result, and can be swapped at runtime when the file
+   changes. Without a file the built-in factors of the original calculator are used. */
+
+//package OOP_Program;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+public class EmissionFactorTable {
+    public static final String TRANSPORT = "transport";
+    public static final String ELECTRICITY = "electricity";
+    public static final String FOOD = "food";
+    public static final String ANY = "*"; // Wildcard for subtype and region
+    public static final int ANY_YEAR = 0; // Wildcard for year
+
+    private static volatile EmissionFactorTable current = builtIn();
+    private static ScheduledExecutorService watcher;
+
+    private final String version;
+    private final Map<String, Integer> categoryIds;
+    private final Map<String, Integer> subtypeIds;
+    private final Map<String, Integer> regionIds;
+    private final int[] years; // Sorted years, years[0] is the wildcard
+    private final double[] factors; // NaN where no factor was given
+    private final Factors defaultFactors;
+
+    // Constructor for EmissionFactorTable, builds the flat factor array from the loaded rows
+    private EmissionFactorTable(String version, List<String[]> rows) {
+        this.version = version;
+        categoryIds = new HashMap<>();
+        subtypeIds = new HashMap<>();
+        regionIds = new HashMap<>();
+        subtypeIds.put(ANY, 0);
+        regionIds.put(ANY, 0);
+
+        List<Integer> yearList = new ArrayList<>();
+        yearList.add(ANY_YEAR);
+        for (String[] row : rows) {
+            categoryIds.putIfAbsent(row[0], categoryIds.size());
+            subtypeIds.putIfAbsent(row[1], subtypeIds.size());
+            regionIds.putIfAbsent(row[2], regionIds.size());
+            int year = parseYear(row[3]);
+            if (!yearList.contains(year)) {
+                yearList.add(year);
+            }
+        }
+        years = yearList.stream().mapToInt(Integer::intValue).sorted().toArray();
+
+        factors = new double[Math.max(1, categoryIds.size() * subtypeIds.size() * regionIds.size() * years.length)];
+        Arrays.fill(factors, Double.NaN);
+        for (String[] row : rows) {
+            int index = slot(categoryIds.get(row[0]), subtypeIds.get(row[1]), regionIds.get(row[2]),
+                    Arrays.binarySearch(years, parseYear(row[3])));
+            factors[index] = Double.parseDouble(row[4]);
+        }
+
+        defaultFactors = new Factors(this, index(TRANSPORT, ANY, ANY, ANY_YEAR),
+                index(ELECTRICITY, ANY, ANY, ANY_YEAR), index(FOOD, ANY, ANY, ANY_YEAR));
+    }
+
+    // Method to create the table with the coefficients of the original calculator
+    public static EmissionFactorTable builtIn() {
+        List<String[]> rows = new ArrayList<>();
+        rows.add(new String[] {TRANSPORT, ANY, ANY, ANY, "0.21"});
+        rows.add(new String[] {ELECTRICITY, ANY, ANY, ANY, "0.5"});
+        rows.add(new String[] {FOOD, ANY, ANY, ANY, "0.13"});
+        return new EmissionFactorTable("built-in", rows);
+    }
+
+    // Method to load a table from a CSV file of category,subtype,region,year,factor rows.
+    // A "# version=..." line sets the version, otherwise the file's modification time is used.
+    public static EmissionFactorTable load(Path file) throws IOException {
+        String version = null;
+        List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.startsWith("#")) {
+                    String comment = line.substring(1).trim();
+                    if (comment.startsWith("version=")) {
+                        version = comment.substring("version=".length()).trim();
+                    }
+                    continue;
+                }
+                if (line.isEmpty() || line.startsWith("category,")) {
+                    continue;
+                }
+                String[] fields = line.split(",");
+                if (fields.length != 5) {
+                    throw new IOException(file + " line " + lineNumber + ": expected category,subtype,region,year,factor");
+                }
+                for (int i = 0; i < fields.length; i++) {
+                    fields[i] = fields[i].trim();
+                }
+                fields[0] = fields[0].toLowerCase(Locale.ROOT);
+                try {
+                    parseYear(fields[3]);
+                    Double.parseDouble(fields[4]);
+                } catch (NumberFormatException e) {
+                    throw new IOException(file + " line " + lineNumber + ": " + e.getMessage(), e);
+                }
+                rows.add(fields);
+            }
+        }
+        if (version == null) {
+            version = file.getFileName() + "@" + Files.getLastModifiedTime(file);
+        }
+        return new EmissionFactorTable(version, rows);
+    }
+
+    // Method to get the table currently used for calculations
+    public static EmissionFactorTable current() {
+        return current;
+    }
+
+    // Method to replace the current table, running calculations keep the table they started with
+    public static void setCurrent(EmissionFactorTable table) {
+        current = table;
+    }
+
+    // Method to load a table and check the file every few seconds, reloading it when it changes.
+    // A file that fails to load keeps the previous table in use.
+    public static synchronized void watch(Path file, long intervalSeconds) throws IOException {
+        setCurrent(load(file));
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "emission-factor-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        FileTime[] lastModified = {Files.getLastModifiedTime(file)};
+        watcher.scheduleWithFixedDelay(() -> {
+            try {
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (!modified.equals(lastModified[0])) {
+                    setCurrent(load(file));
+                    lastModified[0] = modified;
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Unable to reload emission factors: " + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // Method to load the table named by the emission.factors system property, if it is set
+    public static void watchConfiguredFile() {
+        String file = System.getProperty("emission.factors");
+        if (file != null) {
+            try {
+                watch(Paths.get(file), 5);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Unable to load emission factors, using built-in values: " + e.getMessage());
+            }
+        }
+    }
+
+    // Method to resolve a key to its slot in the factor array, falling back to the wildcard region,
+    // subtype and year in that order. A year without a row of its own uses the latest year before it that has
+    // one, and a year before every listed one uses the wildcard. Returns -1 if the category has no factor at all.
+    public int index(String category, String subtype, String region, int year) {
+        Integer categoryId = categoryIds.get(category.toLowerCase(Locale.ROOT));
+        if (categoryId == null) {
+            return -1;
+        }
+        int subtypeId = subtypeIds.getOrDefault(subtype, 0);
+        int regionId = regionIds.getOrDefault(region, 0);
+        int yearId = Arrays.binarySearch(years, year);
+        if (yearId < 0) {
+            int floor = -yearId - 2; // The last listed year before this one
+            yearId = floor >= 1 ? floor : 0;
+        }
+
+        int[] subtypeChoices = {subtypeId, 0};
+        int[] regionChoices = {regionId, 0};
+        int[] yearChoices = {yearId, 0};
+        for (int y : yearChoices) {
+            for (int s : subtypeChoices) {
+                for (int r : regionChoices) {
+                    int index = slot(categoryId, s, r, y);
+                    if (!Double.isNaN(factors[index])) {
+                        return index;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    // Method to read a factor by its resolved index, this is the only lookup in the calculation loop
+    public double factorAt(int index) {
+        return factors[index];
+    }
+
+    // Method to resolve the factors of the three calculator categories for a region and year
+    public Factors resolve(String region, int year) {
+        return new Factors(this, index(TRANSPORT, ANY, region, year),
+                index(ELECTRICITY, ANY, region, year), index(FOOD, ANY, region, year));
+    }
+
+    // Getter method for the factors used when no region or year is given
+    public Factors getDefaultFactors() {
+        return defaultFactors;
+    }
+
+    // Getter method for the version recorded with each result
+    public String getVersion() {
+        return version;
+    }
+
+    private int slot(int category, int subtype, int region, int year) {
+        return ((category * subtypeIds.size() + subtype) * regionIds.size() + region) * years.length + year;
+    }
+
+    private static int parseYear(String year) {
+        return year.equals(ANY) || year.isEmpty() ? ANY_YEAR : Integer.parseInt(year);
+    }
+
+    // Inner class holding the resolved transport, electricity and food factors of one table version,
+    // a category missing from the table counts as zero
+    public static class Factors {
+        private final double transport;
+        private final double electricity;
+        private final double food;
+        private final String version;
+
+        private Factors(EmissionFactorTable table, int transportIndex, int electricityIndex, int foodIndex) {
+            this.transport = transportIndex < 0 ? 0 : table.factorAt(transportIndex);
+            this.electricity = electricityIndex < 0 ? 0 : table.factorAt(electricityIndex);
+            this.food = foodIndex < 0 ? 0 : table.factorAt(foodIndex);
+            this.version = table.version;
+        }
+
+        public double getTransport() {
+            return transport;
+        }
+
+        public double getElectricity() {
+            return electricity;
+        }
+
+        public double getFood() {
+            return food;
+        }
+
+        // Getter method for the version of the table these factors come from
+        public String getVersion() {
+            return version;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/* FingerprintSet class is a compact hash set of 64-bit fingerprints, used by UrlCatalog to find duplicate URLs
+   in O(1). Fingerprints are kept in a primitive long array with open addressing and linear probing instead of a
+   HashSet of strings, so an entry costs 12 bytes per slot rather than a boxed node plus the URL text. Each
+   fingerprint also has a count, because a catalog saved before duplicates were refused may hold the same URL
+   more than once, and deleting one copy must not forget the others. Removal shifts later entries of the probe
+   run back, so no tombstones build up. A FingerprintSet is not thread-safe. */
+
+//package OOP_Program;
+
+public class FingerprintSet {
+    private static final long EMPTY = 0; // Marks a free slot, a zero fingerprint is stored as ZERO_KEY
+    private static final long ZERO_KEY = 0x9E3779B97F4A7C15L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] counts;
+    private int size; // Distinct fingerprints stored
+    private int mask;
+
+    // Constructor for FingerprintSet, sized to hold the expected number of fingerprints without growing
+    public FingerprintSet(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expected * 2L) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    public FingerprintSet() {
+        this(MIN_CAPACITY / 2);
+    }
+
+    // Method to check whether a fingerprint is stored
+    public boolean contains(long fingerprint) {
+        return count(fingerprint) > 0;
+    }
+
+    // Method to get how many times a fingerprint was added and not removed
+    public int count(long fingerprint) {
+        long key = key(fingerprint);
+        for (int slot = slot(key); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return counts[slot];
+            }
+        }
+        return 0;
+    }
+
+    // Method to add a fingerprint, returns true if it was not stored before
+    public boolean add(long fingerprint) {
+        long key = key(fingerprint);
+        int slot = slot(key);
+        for (; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                counts[slot]++;
+                return false;
+            }
+        }
+        keys[slot] = key;
+        counts[slot] = 1;
+        if (++size * 2 > keys.length) {
+            allocate(keys.length * 2);
+        }
+        return true;
+    }
+
+    // Method to remove one copy of a fingerprint, returns true if it was stored
+    public boolean remove(long fingerprint) {
+        long key = key(fingerprint);
+        int slot = slot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (--counts[slot] > 0) {
+            return true;
+        }
+
+        // Move later entries of the run back into the hole if their home slot is at or before it
+        int hole = slot;
+        for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                counts[hole] = counts[next];
+                hole = next;
+            }
+        }
+        keys[hole] = EMPTY;
+        counts[hole] = 0;
+        size--;
+        return true;
+    }
+
+    // Method to get the number of distinct fingerprints stored
+    public int size() {
+        return size;
+    }
+
+    // Method to get the approximate memory used by the tables, in bytes
+    public long getTableBytes() {
+        return (long) keys.length * (Long.BYTES + Integer.BYTES);
+    }
+
+    private void allocate(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[capacity];
+        counts = new int[capacity];
+        mask = capacity - 1;
+        if (oldKeys != null) {
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slot(oldKeys[i]);
+                    while (keys[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+    }
+
+    private static long key(long fingerprint) {
+        return fingerprint == EMPTY ? ZERO_KEY : fingerprint;
+    }
+
+    // Method to get the home slot of a key, the fingerprints are already well mixed so no further hashing is needed
+    private int slot(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+}
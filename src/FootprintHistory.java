@@ -0,0 +1,359 @@
+/* FootprintHistory class stores every footprint a user calculates as a time-series point. Points are kept in
+   a directory per user in two column files, times.bin with the epoch milliseconds and values.bin with the
+   footprints, so appending is two 8-byte writes and a scan reads only the column it needs. Daily, weekly and
+   monthly rollups (count, sum, min and max per period) are updated on every append and saved next to the
+   points, so the history view and trend queries over years of data read a few thousand rollup rows instead
+   of every point. If the rollup files do not add up to the number of points, for example after a crash
+   between the writes, they are rebuilt from the points when the history is opened. */
+
+//package OOP_Program;
+
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class FootprintHistory {
+    private static final Map<String, FootprintHistory> OPEN = new ConcurrentHashMap<>(); // By username
+    private static final int READ_CHUNK = 1 << 16; // Points read at a time when rebuilding rollups
+
+    private final Path directory;
+    private final ZoneId zone;
+    private final FileChannel times;
+    private final FileChannel values;
+    private final RollupSeries[] rollups = new RollupSeries[Granularity.values().length];
+    private long size; // Number of stored points
+
+    // Constructor for FootprintHistory, opens or creates the files in the directory
+    public FootprintHistory(Path directory, ZoneId zone) throws IOException {
+        this.directory = directory;
+        this.zone = zone;
+        Files.createDirectories(directory);
+        times = open(directory.resolve("times.bin"));
+        values = open(directory.resolve("values.bin"));
+
+        // A crash between the two appends can leave one column a point longer, drop the extra point
+        size = Math.min(times.size(), values.size()) / Long.BYTES;
+        times.truncate(size * Long.BYTES);
+        values.truncate(size * Double.BYTES);
+
+        for (Granularity granularity : Granularity.values()) {
+            rollups[granularity.ordinal()] = new RollupSeries(
+                    open(directory.resolve(granularity.name().toLowerCase() + ".bin")));
+        }
+        for (RollupSeries series : rollups) {
+            if (series.totalCount() != size) {
+                rebuildRollups();
+                break;
+            }
+        }
+    }
+
+    // Method to get the history of a user, kept under the history.dir directory
+    public static FootprintHistory forUser(String username) throws IOException {
+        FootprintHistory history = OPEN.get(username);
+        if (history != null) {
+            return history;
+        }
+        synchronized (OPEN) {
+            history = OPEN.get(username);
+            if (history == null) {
+                Path base = Paths.get(System.getProperty("history.dir", "data/history"));
+                history = new FootprintHistory(base.resolve(URLEncoder.encode(username, StandardCharsets.UTF_8)),
+                        ZoneId.systemDefault());
+                OPEN.put(username, history);
+            }
+            return history;
+        }
+    }
+
+    // Method to store one calculated footprint and update the rollups of its day, week and month
+    public synchronized void record(long timeMillis, double footprint) throws IOException {
+        ByteBuffer point = ByteBuffer.allocate(Long.BYTES);
+        times.write(point.putLong(0, timeMillis), size * Long.BYTES);
+        values.write(point.clear().putDouble(0, footprint), size * Double.BYTES);
+        size++;
+
+        LocalDate date = Instant.ofEpochMilli(timeMillis).atZone(zone).toLocalDate();
+        for (Granularity granularity : Granularity.values()) {
+            rollups[granularity.ordinal()].add(granularity.key(date), footprint);
+        }
+    }
+
+    // Method to get the number of stored points
+    public synchronized long size() {
+        return size;
+    }
+
+    // Method to get the rollups of the periods that start between the two dates, oldest first
+    public synchronized List<Rollup> rollups(Granularity granularity, LocalDate from, LocalDate to) {
+        return rollups[granularity.ordinal()].between(granularity, granularity.key(from), granularity.key(to));
+    }
+
+    // Method to get every rollup of a granularity, oldest first
+    public synchronized List<Rollup> rollups(Granularity granularity) {
+        return rollups[granularity.ordinal()].between(granularity, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    // Method to read the stored footprints from a position, returns the number read into the array
+    public synchronized int readValues(long from, double[] into) throws IOException {
+        int count = (int) Math.min(into.length, size - from);
+        if (count <= 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(count * Double.BYTES);
+        readFully(values, buffer, from * Double.BYTES);
+        buffer.flip().asDoubleBuffer().get(into, 0, count);
+        return count;
+    }
+
+    // Method to get the directory the history is stored in
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Method to recompute every rollup from the stored points
+    private void rebuildRollups() throws IOException {
+        for (RollupSeries series : rollups) {
+            series.clear();
+        }
+        ByteBuffer timeBuffer = ByteBuffer.allocate(READ_CHUNK * Long.BYTES);
+        ByteBuffer valueBuffer = ByteBuffer.allocate(READ_CHUNK * Double.BYTES);
+        for (long from = 0; from < size; from += READ_CHUNK) {
+            int count = (int) Math.min(READ_CHUNK, size - from);
+            timeBuffer.clear().limit(count * Long.BYTES);
+            valueBuffer.clear().limit(count * Double.BYTES);
+            readFully(times, timeBuffer, from * Long.BYTES);
+            readFully(values, valueBuffer, from * Double.BYTES);
+            for (int i = 0; i < count; i++) {
+                LocalDate date = Instant.ofEpochMilli(timeBuffer.getLong(i * Long.BYTES)).atZone(zone).toLocalDate();
+                double footprint = valueBuffer.getDouble(i * Double.BYTES);
+                for (Granularity granularity : Granularity.values()) {
+                    rollups[granularity.ordinal()].addInMemory(granularity.key(date), footprint);
+                }
+            }
+        }
+        for (RollupSeries series : rollups) {
+            series.saveAll();
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of history file");
+            }
+            position += read;
+        }
+    }
+
+    // Enum for the length of a rollup period, each period is identified by a key that grows with time
+    public enum Granularity {
+        DAY, WEEK, MONTH;
+
+        // Method to get the key of the period containing a date
+        long key(LocalDate date) {
+            switch (this) {
+                case DAY:
+                    return date.toEpochDay();
+                case WEEK:
+                    return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toEpochDay();
+                default:
+                    return date.getYear() * 12L + date.getMonthValue() - 1;
+            }
+        }
+
+        // Method to get the first day of the period with a key
+        LocalDate start(long key) {
+            if (this == MONTH) {
+                return LocalDate.of((int) Math.floorDiv(key, 12), Math.floorMod(key, 12) + 1, 1);
+            }
+            return LocalDate.ofEpochDay(key);
+        }
+    }
+
+    // Inner class representing the footprints of one period
+    public static class Rollup {
+        private final LocalDate start;
+        private final long count;
+        private final double sum;
+        private final double min;
+        private final double max;
+
+        Rollup(LocalDate start, long count, double sum, double min, double max) {
+            this.start = start;
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        public LocalDate getStart() {
+            return start;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getSum() {
+            return sum;
+        }
+
+        public double getMean() {
+            return sum / count;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+    }
+
+    // Inner class holding the rollups of one granularity in columns sorted by key, mirrored in a file of
+    // fixed-size records so an update rewrites only the record of its period
+    private static class RollupSeries {
+        private static final int RECORD_BYTES = 5 * 8; // key, count, sum, min, max
+
+        private final FileChannel file;
+        private long[] keys = new long[16];
+        private long[] counts = new long[16];
+        private double[] sums = new double[16];
+        private double[] mins = new double[16];
+        private double[] maxs = new double[16];
+        private int size;
+
+        RollupSeries(FileChannel file) throws IOException {
+            this.file = file;
+            int records = (int) (file.size() / RECORD_BYTES);
+            ByteBuffer buffer = ByteBuffer.allocate(records * RECORD_BYTES);
+            readFully(file, buffer, 0);
+            buffer.flip();
+            for (int i = 0; i < records; i++) {
+                ensureCapacity(size + 1);
+                keys[size] = buffer.getLong();
+                counts[size] = buffer.getLong();
+                sums[size] = buffer.getDouble();
+                mins[size] = buffer.getDouble();
+                maxs[size] = buffer.getDouble();
+                if (size > 0 && keys[size] <= keys[size - 1]) {
+                    size = 0; // Out of order records, the caller sees the wrong count and rebuilds
+                    return;
+                }
+                size++;
+            }
+        }
+
+        long totalCount() {
+            long total = 0;
+            for (int i = 0; i < size; i++) {
+                total += counts[i];
+            }
+            return total;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        // Method to add a footprint to its period and save that period's record
+        void add(long key, double footprint) throws IOException {
+            int before = size;
+            int index = addInMemory(key, footprint);
+            if (size != before && index < size - 1) {
+                saveAll(); // A new period before the last one shifted the later records
+            } else {
+                save(index);
+            }
+        }
+
+        // Method to add a footprint to its period, returns the index of the period
+        int addInMemory(long key, double footprint) {
+            int index = size > 0 && keys[size - 1] == key ? size - 1 : Arrays.binarySearch(keys, 0, size, key);
+            if (index < 0) {
+                index = -index - 1;
+                ensureCapacity(size + 1);
+                System.arraycopy(keys, index, keys, index + 1, size - index);
+                System.arraycopy(counts, index, counts, index + 1, size - index);
+                System.arraycopy(sums, index, sums, index + 1, size - index);
+                System.arraycopy(mins, index, mins, index + 1, size - index);
+                System.arraycopy(maxs, index, maxs, index + 1, size - index);
+                keys[index] = key;
+                counts[index] = 0;
+                sums[index] = 0;
+                mins[index] = footprint;
+                maxs[index] = footprint;
+                size++;
+            }
+            counts[index]++;
+            sums[index] += footprint;
+            mins[index] = Math.min(mins[index], footprint);
+            maxs[index] = Math.max(maxs[index], footprint);
+            return index;
+        }
+
+        List<Rollup> between(Granularity granularity, long fromKey, long toKey) {
+            int first = Arrays.binarySearch(keys, 0, size, fromKey);
+            first = first < 0 ? -first - 1 : first;
+            List<Rollup> result = new ArrayList<>();
+            for (int i = first; i < size && keys[i] <= toKey; i++) {
+                result.add(new Rollup(granularity.start(keys[i]), counts[i], sums[i], mins[i], maxs[i]));
+            }
+            return result;
+        }
+
+        private void save(int index) throws IOException {
+            ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+            put(record, index);
+            file.write(record.flip(), (long) index * RECORD_BYTES);
+        }
+
+        void saveAll() throws IOException {
+            ByteBuffer records = ByteBuffer.allocate(size * RECORD_BYTES);
+            for (int i = 0; i < size; i++) {
+                put(records, i);
+            }
+            file.truncate(0);
+            file.write(records.flip(), 0);
+        }
+
+        private void put(ByteBuffer buffer, int index) {
+            buffer.putLong(keys[index]).putLong(counts[index]).putDouble(sums[index])
+                    .putDouble(mins[index]).putDouble(maxs[index]);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > keys.length) {
+                int length = Math.max(capacity, keys.length * 2);
+                keys = Arrays.copyOf(keys, length);
+                counts = Arrays.copyOf(counts, length);
+                sums = Arrays.copyOf(sums, length);
+                mins = Arrays.copyOf(mins, length);
+                maxs = Arrays.copyOf(maxs, length);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/* FootprintKernel class evaluates the footprint formula over whole columns of transport, electricity and
+   food values at once. When the jdk.incubator.vector module is present it runs the SIMD version in
+   VectorFootprintKernel, otherwise a plain scalar loop. Both do the same multiplications and additions in
+   the same order as CarbonFootprintCalculator.computeFootprint, so their results are bit-identical. */
+
+//package OOP_Program;
+
+public class FootprintKernel {
+    private static final boolean VECTORIZED = vectorApiAvailable();
+
+    private FootprintKernel() {
+    }
+
+    // Method to compute the footprints of the first length rows into results
+    public static void compute(double[] transport, double[] electricity, double[] food, int length,
+                               EmissionFactorTable.Factors factors, double[] results) {
+        if (VECTORIZED) {
+            VectorFootprintKernel.compute(transport, electricity, food, length, factors, results);
+        } else {
+            computeScalar(transport, electricity, food, length, factors, results);
+        }
+    }
+
+    // Method to compute the footprints one row at a time, used as the fallback and as the reference
+    public static void computeScalar(double[] transport, double[] electricity, double[] food, int length,
+                                     EmissionFactorTable.Factors factors, double[] results) {
+        double transportFactor = factors.getTransport();
+        double electricityFactor = factors.getElectricity();
+        double foodFactor = factors.getFood();
+        for (int i = 0; i < length; i++) {
+            results[i] = transport[i] * transportFactor + electricity[i] * electricityFactor + food[i] * foodFactor;
+        }
+    }
+
+    // Method to check whether the SIMD kernel is in use
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    // Method to check that the incubator module was added to the JVM and the vector kernel can be loaded
+    private static boolean vectorApiAvailable() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()
+                || Boolean.getBoolean("footprint.kernel.scalar")) {
+            return false;
+        }
+        try {
+            return VectorFootprintKernel.lanes() > 1;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,270 @@
+/* FootprintStatistics class derives the advice bands from the footprints users have actually calculated,
+   instead of the fixed 4000 and 10000 kg cut-offs. Every new footprint is added to a KllSketch of the whole
+   population, and the band limits (the 1/3 and 2/3 percentiles) are refreshed from it every few updates and
+   published as one immutable Thresholds object, so looking up a band is two comparisons. When the program
+   starts, the sketch is rebuilt from every stored history in parallel: the value files are cut into segments,
+   each ForkJoin task sketches its segment through a small buffer and the results are merged, so memory stays
+   bounded however many results are stored. Until enough footprints are known the fixed cut-offs are used. */
+
+//package OOP_Program;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class FootprintStatistics {
+    public static final double DEFAULT_LOW = 4000; // Cut-offs used until enough footprints are stored
+    public static final double DEFAULT_HIGH = 10000;
+    private static final int MIN_SAMPLES = 100;
+    private static final double LOW_QUANTILE = 1.0 / 3;
+    private static final double HIGH_QUANTILE = 2.0 / 3;
+    private static final int REFRESH_EVERY = 64; // Updates between refreshes of the thresholds
+    private static final long SEGMENT_POINTS = 1 << 20; // Points sketched by one task
+    private static final int READ_POINTS = 1 << 15; // Points read at a time, 256 KB per task
+
+    private static FootprintStatistics defaultStatistics;
+
+    private final Path historyDirectory;
+    private KllSketch population = new KllSketch(); // Guarded by this
+    private KllSketch sinceRecompute; // Updates made while a recompute runs, guarded by this
+    private int sinceRefresh;
+    private volatile Thresholds thresholds = Thresholds.DEFAULTS;
+
+    // Constructor for FootprintStatistics over the histories stored in the directory
+    public FootprintStatistics(Path historyDirectory) {
+        this.historyDirectory = historyDirectory;
+    }
+
+    // Method to get the statistics used by the calculator, rebuilt from the stored histories in the background
+    public static synchronized FootprintStatistics getDefault() {
+        if (defaultStatistics == null) {
+            FootprintStatistics statistics =
+                    new FootprintStatistics(Paths.get(System.getProperty("history.dir", "data/history")));
+            TaskScheduler.execute(() -> {
+                try {
+                    statistics.recompute();
+                } catch (IOException e) {
+                    System.err.println("Unable to read the footprint histories: " + e.getMessage());
+                }
+            });
+            defaultStatistics = statistics;
+        }
+        return defaultStatistics;
+    }
+
+    // Method to find the advice band of a footprint
+    public Band band(double footprint) {
+        Thresholds current = thresholds;
+        if (footprint <= current.low) {
+            return Band.BELOW_AVERAGE;
+        }
+        return footprint <= current.high ? Band.AVERAGE : Band.ABOVE_AVERAGE;
+    }
+
+    // Method to get the current band limits and population summary
+    public Thresholds getThresholds() {
+        return thresholds;
+    }
+
+    // Method to get the number of footprints in the population, the thresholds follow it every few updates
+    public synchronized long getPopulationCount() {
+        return population.getCount();
+    }
+
+    // Method to store a newly calculated footprint in a user's history and add it to the population. Both are
+    // done under the lock recompute reads the file sizes under, so a point is either in the files it reads or
+    // in sinceRecompute, never in both.
+    public synchronized void record(FootprintHistory history, long timeMillis, double footprint) throws IOException {
+        history.record(timeMillis, footprint);
+        population.update(footprint);
+        if (sinceRecompute != null) {
+            sinceRecompute.update(footprint);
+        }
+        if (++sinceRefresh >= REFRESH_EVERY || population.getCount() <= MIN_SAMPLES) {
+            refresh();
+        }
+    }
+
+    // Method to rebuild the population from every stored history, in parallel on the common ForkJoin pool
+    public KllSketch recompute() throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        synchronized (this) {
+            // Points written after the file sizes are read reach the sketch through sinceRecompute
+            sinceRecompute = new KllSketch();
+            if (Files.isDirectory(historyDirectory)) {
+                try (DirectoryStream<Path> users = Files.newDirectoryStream(historyDirectory)) {
+                    for (Path user : users) {
+                        Path file = user.resolve("values.bin");
+                        if (Files.isRegularFile(file)) {
+                            long points = Files.size(file) / Double.BYTES;
+                            for (long from = 0; from < points; from += SEGMENT_POINTS) {
+                                segments.add(new Segment(file, from, Math.min(points, from + SEGMENT_POINTS)));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        KllSketch result;
+        try {
+            result = segments.isEmpty() ? new KllSketch()
+                    : ForkJoinPool.commonPool().invoke(new SketchTask(segments, 0, segments.size()));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                sinceRecompute = null;
+            }
+            // ForkJoin may wrap a task's exception again when it is rethrown in another thread
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof UncheckedIOException) {
+                    throw ((UncheckedIOException) cause).getCause();
+                }
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            result.merge(sinceRecompute);
+            sinceRecompute = null;
+            population = result;
+            refresh();
+        }
+        return result;
+    }
+
+    // Method to publish new thresholds from the population, must hold the lock
+    private void refresh() {
+        sinceRefresh = 0;
+        long count = population.getCount();
+        if (count < MIN_SAMPLES) {
+            thresholds = new Thresholds(DEFAULT_LOW, DEFAULT_HIGH, count, population.getMean(), false);
+        } else {
+            thresholds = new Thresholds(population.quantile(LOW_QUANTILE), population.quantile(HIGH_QUANTILE),
+                    count, population.getMean(), true);
+        }
+    }
+
+    // Enum for the advice given for a footprint
+    public enum Band {
+        BELOW_AVERAGE, AVERAGE, ABOVE_AVERAGE
+    }
+
+    // Inner class representing the band limits derived from the population at one moment
+    public static class Thresholds {
+        static final Thresholds DEFAULTS = new Thresholds(DEFAULT_LOW, DEFAULT_HIGH, 0, Double.NaN, false);
+
+        private final double low;
+        private final double high;
+        private final long sampleCount;
+        private final double mean;
+        private final boolean fromPopulation;
+
+        Thresholds(double low, double high, long sampleCount, double mean, boolean fromPopulation) {
+            this.low = low;
+            this.high = high;
+            this.sampleCount = sampleCount;
+            this.mean = mean;
+            this.fromPopulation = fromPopulation;
+        }
+
+        // Getter method for the highest footprint still below average
+        public double getLow() {
+            return low;
+        }
+
+        // Getter method for the highest footprint still average
+        public double getHigh() {
+            return high;
+        }
+
+        public long getSampleCount() {
+            return sampleCount;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        // Method to check whether the limits come from stored footprints rather than the fixed cut-offs
+        public boolean isFromPopulation() {
+            return fromPopulation;
+        }
+    }
+
+    // Inner class representing a range of points in one value file
+    private static class Segment {
+        final Path file;
+        final long from;
+        final long to;
+
+        Segment(Path file, long from, long to) {
+            this.file = file;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    // Inner class sketching a range of segments, splitting it in half until one segment is left
+    private static class SketchTask extends RecursiveTask<KllSketch> {
+        private final List<Segment> segments;
+        private final int first;
+        private final int last;
+
+        SketchTask(List<Segment> segments, int first, int last) {
+            this.segments = segments;
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        protected KllSketch compute() {
+            if (last - first > 1) {
+                int middle = (first + last) >>> 1;
+                SketchTask right = new SketchTask(segments, middle, last);
+                right.fork();
+                KllSketch sketch = new SketchTask(segments, first, middle).compute();
+                sketch.merge(right.join());
+                return sketch;
+            }
+            try {
+                return sketch(segments.get(first));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static KllSketch sketch(Segment segment) throws IOException {
+            KllSketch sketch = new KllSketch(KllSketch.DEFAULT_K, segment.from ^ segment.file.hashCode());
+            ByteBuffer buffer = ByteBuffer.allocateDirect(READ_POINTS * Double.BYTES);
+            DoubleBuffer doubles = buffer.asDoubleBuffer();
+            try (FileChannel channel = FileChannel.open(segment.file, StandardOpenOption.READ)) {
+                long position = segment.from * Double.BYTES;
+                long end = segment.to * Double.BYTES;
+                while (position < end) {
+                    buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+                    int read = channel.read(buffer, position);
+                    if (read < 0) {
+                        break;
+                    }
+                    int points = buffer.position() / Double.BYTES;
+                    position += (long) points * Double.BYTES;
+                    for (int i = 0; i < points; i++) {
+                        sketch.update(doubles.get(i));
+                    }
+                }
+            }
+            return sketch;
+        }
+    }
+}
@@ -1,11 +1,22 @@
-/*  Main class responsible for initiating the Java program. It creates an instance of the LoginFrame class
-    and sets it as visible, starting the user interaction.*/
+/*  Main class responsible for initiating the Java program. It has AppStartup show the LoginFrame, starting
+    the user interaction, and warm up the rest of the program once it has painted. Started with --server [port]
+    it opens no windows and serves the HTTP API of CatalogHttpServer instead, and with --startup-check it
+    prints the time to the first frame and exits once warmed up.*/
 
 //package OOP_Program;
 
+import java.io.IOException;
+import java.util.Arrays;
+
 public class Java_Project_OOP {
-    public static void main(String[] args) {
-        LoginFrame loginFrame = new LoginFrame(); // Create an instance of the LoginFrame class
-        loginFrame.setVisible(true); // Set the LoginFrame instance as visible to start user interaction
+    public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            CatalogHttpServer.main(Arrays.copyOfRange(args, 1, args.length)); // Headless server mode
+            return;
+        }
+        EmissionFactorTable.watchConfiguredFile(); // Load the emission factors file, if one is configured
+        TaskScheduler.monitorEdt(); // Report when the event dispatch thread is blocked
+        boolean check = args.length > 0 && args[0].equals("--startup-check");
+        AppStartup.showLoginFrame(check); // Metrics start after the first paint, with the rest of the warm-up
     }
 }
\ No newline at end of file
@@ -0,0 +1,221 @@
+/* KllSketch class is a streaming quantile sketch in the style of Karnin, Lang and Liberty (KLL). Values go into
+   a stack of levels; when a level is full it is sorted and every other item, starting at a random offset, is
+   moved up a level where it counts twice as much. Lower levels get geometrically smaller capacities, so the
+   sketch keeps O(k log(n / k)) values for n updates while the rank error stays around 1.7 / k. Compaction is
+   lazy: nothing is compacted until the whole sketch is full, so most updates are a single append. Two sketches
+   merge by concatenating their levels and compacting again, which lets worker threads build sketches of
+   separate parts of the data and combine them at the end. A sketch is not thread-safe. */
+
+//package OOP_Program;
+
+import java.util.Arrays;
+
+public class KllSketch {
+    public static final int DEFAULT_K = 200; // About 1% rank error
+    private static final double DECAY = 2.0 / 3.0; // Capacity of each level relative to the one above it
+    private static final int MIN_CAPACITY = 8;
+
+    private final int k;
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private int numLevels = 1;
+    private int[] capacities = new int[1]; // Capacity of each level, recomputed when a level is added
+    private int totalCapacity;
+    private int retained; // Values kept over all levels
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long randomState; // Xorshift state for the compaction offsets
+
+    // Constructor for KllSketch, a larger k keeps more values and gives more accurate quantiles
+    public KllSketch(int k, long seed) {
+        this.k = k;
+        this.randomState = seed == 0 ? 0x9E3779B97F4A7C15L : seed;
+        levels[0] = new double[MIN_CAPACITY];
+        updateCapacities();
+    }
+
+    public KllSketch() {
+        this(DEFAULT_K, System.nanoTime());
+    }
+
+    // Method to add one value, NaN values are ignored
+    public void update(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        append(0, value);
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        if (retained >= totalCapacity) {
+            compress();
+        }
+    }
+
+    // Method to add every value summarised by another sketch to this one
+    public void merge(KllSketch other) {
+        if (other.count == 0) {
+            return;
+        }
+        for (int level = 0; level < other.numLevels; level++) {
+            while (numLevels <= level) {
+                addLevel();
+            }
+            for (int i = 0; i < other.sizes[level]; i++) {
+                append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        compress();
+    }
+
+    // Method to get an estimate of the value below which the given fraction of the values fall
+    public double quantile(double fraction) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (fraction <= 0) {
+            return min;
+        }
+        if (fraction >= 1) {
+            return max;
+        }
+
+        // Walk the levels in value order, adding up the weight of each item until the target rank
+        long target = (long) Math.ceil(fraction * weight());
+        int[] cursors = new int[numLevels];
+        for (int level = 0; level < numLevels; level++) {
+            Arrays.sort(levels[level], 0, sizes[level]);
+        }
+        long seen = 0;
+        while (true) {
+            int next = -1;
+            for (int level = 0; level < numLevels; level++) {
+                if (cursors[level] < sizes[level]
+                        && (next < 0 || levels[level][cursors[level]] < levels[next][cursors[next]])) {
+                    next = level;
+                }
+            }
+            if (next < 0) {
+                return max;
+            }
+            seen += 1L << next;
+            double value = levels[next][cursors[next]++];
+            if (seen >= target) {
+                return value;
+            }
+        }
+    }
+
+    // Method to get an estimate of the fraction of the values at or below the given value
+    public double rank(double value) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long below = 0;
+        for (int level = 0; level < numLevels; level++) {
+            for (int i = 0; i < sizes[level]; i++) {
+                if (levels[level][i] <= value) {
+                    below += 1L << level;
+                }
+            }
+        }
+        return (double) below / weight();
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    public double getMin() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    public double getMax() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    // Method to get the number of values kept, which bounds the memory used
+    public int getRetained() {
+        return retained;
+    }
+
+    // Method to get the total weight of the kept values, equal to the number of values added
+    private long weight() {
+        long weight = 0;
+        for (int level = 0; level < numLevels; level++) {
+            weight += (long) sizes[level] << level;
+        }
+        return weight;
+    }
+
+    private void updateCapacities() {
+        capacities = new int[numLevels];
+        totalCapacity = 0;
+        for (int level = 0; level < numLevels; level++) {
+            int depth = numLevels - 1 - level;
+            capacities[level] = Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(DECAY, depth)));
+            totalCapacity += capacities[level];
+        }
+    }
+
+    private void append(int level, double value) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], levels[level].length * 2);
+        }
+        levels[level][sizes[level]++] = value;
+        retained++;
+    }
+
+    private void addLevel() {
+        levels = Arrays.copyOf(levels, numLevels + 1);
+        sizes = Arrays.copyOf(sizes, numLevels + 1);
+        levels[numLevels] = new double[MIN_CAPACITY];
+        numLevels++;
+        updateCapacities();
+    }
+
+    // Method to compact the lowest full level until the sketch is below its total capacity
+    private void compress() {
+        while (retained >= totalCapacity) {
+            int level = 0;
+            while (sizes[level] < capacities[level]) {
+                level++;
+            }
+            if (level == numLevels - 1) {
+                addLevel();
+            }
+            compact(level);
+        }
+    }
+
+    // Method to halve a level: sort it and promote every other item to the next level with double weight
+    private void compact(int level) {
+        double[] items = levels[level];
+        int size = sizes[level];
+        Arrays.sort(items, 0, size);
+        int kept = size & 1; // With an odd size the largest item stays behind
+        randomState ^= randomState << 13;
+        randomState ^= randomState >>> 7;
+        randomState ^= randomState << 17;
+        int offset = (int) (randomState & 1);
+        for (int i = offset; i < size - kept; i += 2) {
+            append(level + 1, items[i]);
+        }
+        if (kept == 1) {
+            items[0] = items[size - 1];
+        }
+        sizes[level] = kept;
+        retained -= size - kept;
+    }
+}
@@ -0,0 +1,172 @@
+/* LiveSearchPanel class is a search-as-you-type panel over the URL catalog. Typing restarts a short
+   debounce timer; when it fires, the query runs on a dedicated search thread instead of the EDT, and any
+   query still running is cancelled. The index hands the matches over in batches as it finds them and each batch
+   is published to the list at once, so the first results show up before the search has gone through the whole
+   catalog and the window keeps repainting smoothly even for a large one. With "Fuzzy"
+   ticked the query is ranked instead: the best matching names come first and words with a typo or two
+   still match. */
+
+//package OOP_Program;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+public class LiveSearchPanel extends JPanel {
+    private static final int DEBOUNCE_MILLIS = 150; // Pause in typing before a query starts
+    private static final int BATCH_SIZE = 500; // Results added to the list at a time
+    private static final int RANKED_LIMIT = 200; // Best matches shown for a fuzzy query
+
+    // One thread for every search panel, so queries never pile up on the EDT or on each other
+    private static final ExecutorService SEARCH_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "live-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final JTextField queryField;
+    private final JCheckBox fuzzyBox;
+    private final JLabel statusLabel;
+    private final CatalogListModel resultModel = new CatalogListModel();
+    private final Timer debounceTimer;
+    private SearchWorker currentSearch;  // Query in flight, only touched on the EDT
+
+    // Constructor for LiveSearchPanel, onSelect is called with the entry the user clicks
+    public LiveSearchPanel(Consumer<AdminInterface.UrlInfo> onSelect) {
+        super(new BorderLayout(5, 5));
+
+        queryField = new JTextField();
+        fuzzyBox = new JCheckBox("Fuzzy");
+        statusLabel = new JLabel("Type to search.");
+        JList<String> resultList = CatalogListModel.createList(resultModel);
+
+        resultList.addMouseListener(new java.awt.event.MouseAdapter() {
+            @Override
+            public void mouseClicked(java.awt.event.MouseEvent evt) {
+                if (evt.getClickCount() == 1) {
+                    int index = resultList.locationToIndex(evt.getPoint());
+                    if (index >= 0) {
+                        onSelect.accept(resultModel.getEntry(index));
+                    }
+                }
+            }
+        });
+
+        debounceTimer = new Timer(DEBOUNCE_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                startSearch(queryField.getText());
+            }
+        });
+        debounceTimer.setRepeats(false);
+
+        // Switching between exact and fuzzy search reruns the current query
+        fuzzyBox.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                startSearch(queryField.getText());
+            }
+        });
+
+        queryField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounceTimer.restart();
+            }
+        });
+
+        JPanel queryPanel = new JPanel(new BorderLayout(5, 5));
+        queryPanel.add(queryField, BorderLayout.CENTER);
+        queryPanel.add(fuzzyBox, BorderLayout.EAST);
+        add(queryPanel, BorderLayout.NORTH);
+        add(new JScrollPane(resultList), BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
+        setPreferredSize(new Dimension(400, 300));
+    }
+
+    // Method to stop the query in flight, if any, for example when the window showing the panel is closed
+    public void cancelSearch() {
+        debounceTimer.stop();
+        if (currentSearch != null) {
+            currentSearch.cancel(true);
+            currentSearch = null;
+        }
+    }
+
+    // Method to cancel the running query, clear the list and start a new query
+    private void startSearch(String query) {
+        cancelSearch();
+        resultModel.clear();
+        if (query.isBlank()) {
+            currentSearch = null;
+            statusLabel.setText("Type to search.");
+            return;
+        }
+        statusLabel.setText("Searching...");
+        currentSearch = new SearchWorker(query, fuzzyBox.isSelected());
+        SEARCH_EXECUTOR.execute(currentSearch);
+    }
+
+    // Inner class running one query off the EDT and publishing its results in batches
+    private class SearchWorker extends SwingWorker<Integer, List<AdminInterface.UrlInfo>> {
+        private final String query;
+        private final boolean fuzzy;
+
+        SearchWorker(String query, boolean fuzzy) {
+            this.query = query;
+            this.fuzzy = fuzzy;
+        }
+
+        @Override
+        protected Integer doInBackground() {
+            UrlSearchIndex index = UrlCatalog.getDefault().getSearchIndex();
+            if (!fuzzy) {
+                return index.searchAll(query, BATCH_SIZE, batch -> publish(batch));
+            }
+            List<AdminInterface.UrlInfo> results = index.searchRanked(query, RANKED_LIMIT, true);
+            publish(results);
+            return results.size();
+        }
+
+        @Override
+        protected void process(List<List<AdminInterface.UrlInfo>> batches) {
+            if (this != currentSearch) {
+                return;  // A newer query has started, drop what this one found
+            }
+            for (List<AdminInterface.UrlInfo> batch : batches) {
+                resultModel.addAll(batch);
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (this != currentSearch || isCancelled()) {
+                return;
+            }
+            try {
+                int count = get();
+                statusLabel.setText(count == 0 ? "No matching data found."
+                        : fuzzy ? count + " best matches" : count + " results");
+            } catch (Exception e) {
+                statusLabel.setText("Search failed: " + e.getMessage());
+            }
+        }
+    }
+}
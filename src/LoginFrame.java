@@ -9,13 +9,18 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
 
 
 public class LoginFrame extends JFrame {
     private JTextField txtUsername; // Text field for entering the username
     private JPasswordField txtPassword; // Password field for entering the password
     private JLabel lblErrorMessage; // Label for displaying error messages
+    private JButton btnLogin; // Button that starts the login check
     private static AdminInterface adminInterfaceInstance; // Static reference to the AdminInterface instance
+    private CredentialStore credentials; // Account store, opened by the first login
+    private CredentialStore.Session session; // Session of the user logged in from this frame, or null
+    private boolean painted; // True once the frame has been painted
 
     // Constructor for LoginFrame, initializes and sets up the login interface
     public LoginFrame() {
@@ -37,7 +42,7 @@ public class LoginFrame extends JFrame {
         lblErrorMessage.setForeground(Color.RED);
         add(lblErrorMessage);
 
-        JButton btnLogin = new JButton("Login");
+        btnLogin = new JButton("Login");
         btnLogin.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -45,32 +50,67 @@ public class LoginFrame extends JFrame {
             }
         });
         add(btnLogin);
+    }
 
-        setVisible(true); // Set the frame as visible
+    // Method to paint the frame, the first paint lets AppStartup warm up the rest of the program
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!painted) {
+            painted = true;
+            AppStartup.loginFramePainted();
+        }
     }
 
-    // Method to perform login based on entered credentials
+    // Method to perform login based on entered credentials, the password hash is checked off the EDT
     private void performLogin() {
         String username = txtUsername.getText();
         String password = new String(txtPassword.getPassword());
 
-        do {
-            if (username.equals("user") && password.equals("password")) {
-                UserInterface userInterface = new UserInterface(this); 
-                this.dispose(); // Close the current login frame
-                break;
-            } else if (username.equals("admin") && password.equals("password")) {
-                adminInterfaceInstance = new AdminInterface(this);
-                this.dispose(); // Close the current login frame
-                break;
-            } else {
-                lblErrorMessage.setText("Incorrect username or password.");
+        btnLogin.setEnabled(false);
+        lblErrorMessage.setText("");
+        new SwingWorker<CredentialStore.Session, Void>() {
+            @Override
+            protected CredentialStore.Session doInBackground() throws IOException {
+                credentials = CredentialStore.getDefault();
+                return credentials.login(username, password);
+            }
+
+            @Override
+            protected void done() {
+                btnLogin.setEnabled(true);
+                try {
+                    session = get();
+                } catch (Exception e) {
+                    lblErrorMessage.setText("Login is unavailable.");
+                    return;
+                }
+                if (session == null) {
+                    lblErrorMessage.setText("Incorrect username or password.");
+                } else if (session.getRole() == CredentialStore.Role.ADMIN) {
+                    adminInterfaceInstance = new AdminInterface(LoginFrame.this);
+                    adminInterfaceInstance.setVisible(true);
+                    dispose(); // Close the current login frame
+                } else {
+                    UserInterface userInterface = new UserInterface(LoginFrame.this);
+                    userInterface.setVisible(true);
+                    dispose(); // Close the current login frame
+                }
             }
-        } while (false);
+        }.execute();
+    }
+
+    // Method to get the session of the logged-in user, or null if nobody is logged in
+    public CredentialStore.Session getSession() {
+        return session;
     }
 
     // Method to reset the login frame by clearing input fields and error messages
     public void resetLoginFrame() {
+        if (session != null) {
+            credentials.logout(session); // End the session of the user who logged out
+            session = null;
+        }
         txtUsername.setText("");  
         txtPassword.setText("");  
         lblErrorMessage.setText("");
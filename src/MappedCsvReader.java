@@ -0,0 +1,352 @@
+/* MappedCsvReader class reads large CSV or TSV activity files for the batch calculator. It memory-maps the
+   file with FileChannel.map in chunks that end on a line break, and parses the transport, electricity and
+   food columns straight from the mapped bytes into primitive double arrays. No String or boxed Double is
+   created per field; bad rows are collected into a ParseReport instead of stopping the run. */
+
+//package OOP_Program;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MappedCsvReader implements AutoCloseable {
+    private static final int CHUNK_BYTES = 4 * 1024 * 1024; // Target size of one mapped chunk
+    private static final long MAX_EXACT_MANTISSA = 1L << 53; // Largest mantissa a double holds exactly
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final FileChannel channel;
+    private final long size;
+    private final byte delimiter;
+    private final boolean hasHeader;
+    private long position; // Start of the next chunk
+
+    // Constructor for MappedCsvReader, opens the file and detects the delimiter and the header row
+    public MappedCsvReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        size = channel.size();
+
+        MappedByteBuffer head = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, 64 * 1024));
+        int firstLineEnd = indexOf(head, (byte) '\n', 0, head.limit());
+        if (firstLineEnd < 0) {
+            firstLineEnd = head.limit();
+        }
+        boolean tab = indexOf(head, (byte) '\t', 0, firstLineEnd) >= 0
+                || file.toString().toLowerCase().endsWith(".tsv");
+        delimiter = tab ? (byte) '\t' : (byte) ',';
+
+        double[] firstRow = new double[3];
+        hasHeader = firstLineEnd > 0 && !parseRow(head, 0, firstLineEnd, firstRow);
+        position = hasHeader ? Math.min(size, firstLineEnd + 1) : 0;
+    }
+
+    // Method to get the delimiter detected from the first line
+    public char getDelimiter() {
+        return (char) delimiter;
+    }
+
+    // Method to check whether the first line was a header and is skipped
+    public boolean hasHeader() {
+        return hasHeader;
+    }
+
+    // Method to map the next chunk of whole lines, returns null at the end of the file
+    public Chunk nextChunk() throws IOException {
+        if (position >= size) {
+            return null;
+        }
+        long start = position;
+        long end = Math.min(size, start + CHUNK_BYTES);
+
+        // Extend the chunk to the next line break so no row is split between two chunks
+        while (end < size) {
+            int window = (int) Math.min(64 * 1024, size - end);
+            MappedByteBuffer tail = channel.map(FileChannel.MapMode.READ_ONLY, end, window);
+            int newline = indexOf(tail, (byte) '\n', 0, window);
+            if (newline >= 0) {
+                end += newline + 1;
+                break;
+            }
+            end += window;
+        }
+        position = end;
+        return new Chunk(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start));
+    }
+
+    // Method to parse every row of a chunk into the columns, bad rows go to the report by line in the chunk
+    public void parse(Chunk chunk, Columns columns, ParseReport report) {
+        MappedByteBuffer buffer = chunk.buffer;
+        int limit = buffer.limit();
+        double[] row = new double[3];
+        int line = 0;
+        int lineStart = 0;
+
+        while (lineStart < limit) {
+            int lineEnd = indexOf(buffer, (byte) '\n', lineStart, limit);
+            if (lineEnd < 0) {
+                lineEnd = limit;
+            }
+            if (!isBlank(buffer, lineStart, lineEnd)) {
+                if (parseRow(buffer, lineStart, lineEnd, row)) {
+                    columns.add(line, row[0], row[1], row[2]);
+                } else {
+                    report.add(line, "Please insert a correct form of data.");
+                }
+            }
+            line++;
+            lineStart = lineEnd + 1;
+        }
+        chunk.lines = line;
+    }
+
+    // Method to parse the first three fields of a line, returns false if any of them is not a number
+    private boolean parseRow(MappedByteBuffer buffer, int from, int to, double[] row) {
+        int fieldStart = from;
+        for (int column = 0; column < 3; column++) {
+            int fieldEnd = indexOf(buffer, delimiter, fieldStart, to);
+            if (fieldEnd < 0) {
+                if (column < 2) {
+                    return false;
+                }
+                fieldEnd = to;
+            }
+            double value = parseDouble(buffer, fieldStart, fieldEnd);
+            if (Double.isNaN(value)) {
+                return false;
+            }
+            row[column] = value;
+            fieldStart = fieldEnd + 1;
+        }
+        return true;
+    }
+
+    // Method to parse a decimal number from the bytes in [from, to), returns NaN if it is malformed.
+    // Numbers with at most 2^53 as mantissa and a power of ten up to 22 are computed exactly from the
+    // digits; anything longer falls back to Double.parseDouble so the result is always the same.
+    static double parseDouble(MappedByteBuffer buffer, int from, int to) {
+        while (from < to && isSpace(buffer.get(from))) {
+            from++;
+        }
+        while (to > from && isSpace(buffer.get(to - 1))) {
+            to--;
+        }
+        if (from == to) {
+            return Double.NaN;
+        }
+
+        int i = from;
+        boolean negative = false;
+        byte b = buffer.get(i);
+        if (b == '-' || b == '+') {
+            negative = b == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean exact = true;
+        boolean seenDot = false;
+
+        for (; i < to; i++) {
+            b = buffer.get(i);
+            if (b >= '0' && b <= '9') {
+                digits++;
+                if (mantissa < MAX_EXACT_MANTISSA / 10) {
+                    mantissa = mantissa * 10 + (b - '0');
+                    if (seenDot) {
+                        scale--;
+                    }
+                } else {
+                    exact = false;
+                }
+            } else if (b == '.' && !seenDot) {
+                seenDot = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return Double.NaN;
+        }
+
+        if (i < to && (b == 'e' || b == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+                negativeExponent = buffer.get(i) == '-';
+                i++;
+            }
+            int exponent = 0;
+            int exponentDigits = 0;
+            for (; i < to && buffer.get(i) >= '0' && buffer.get(i) <= '9'; i++) {
+                exponent = Math.min(exponent * 10 + (buffer.get(i) - '0'), 100000);
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return Double.NaN;
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (i != to) {
+            return Double.NaN;
+        }
+
+        if (exact && scale >= -22 && scale <= 22) {
+            double value = scale < 0 ? mantissa / POWERS_OF_TEN[-scale] : mantissa * POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        return slowParse(buffer, from, to);
+    }
+
+    // Method to parse a number the precise way when it has too many digits for the fast path
+    private static double slowParse(MappedByteBuffer buffer, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        buffer.get(from, bytes);
+        try {
+            return Double.parseDouble(new String(bytes, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // Method to check for padding around a field, including the quotes of a quoted number
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\r' || b == '"';
+    }
+
+    private static boolean isBlank(MappedByteBuffer buffer, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isSpace(buffer.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(MappedByteBuffer buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // Inner class representing one mapped range of whole lines
+    public static class Chunk {
+        private final MappedByteBuffer buffer;
+        private int lines; // Number of lines in the chunk, known once it is parsed
+
+        private Chunk(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        public int getLines() {
+            return lines;
+        }
+    }
+
+    // Inner class holding parsed rows as primitive columns, reused between chunks by a worker
+    public static class Columns {
+        private int[] lines = new int[1024];
+        private double[] transport = new double[1024];
+        private double[] electricity = new double[1024];
+        private double[] food = new double[1024];
+        private int size;
+
+        private void add(int line, double transportValue, double electricityValue, double foodValue) {
+            if (size == lines.length) {
+                int capacity = size * 2;
+                lines = Arrays.copyOf(lines, capacity);
+                transport = Arrays.copyOf(transport, capacity);
+                electricity = Arrays.copyOf(electricity, capacity);
+                food = Arrays.copyOf(food, capacity);
+            }
+            lines[size] = line;
+            transport[size] = transportValue;
+            electricity[size] = electricityValue;
+            food[size] = foodValue;
+            size++;
+        }
+
+        // Method to empty the columns before the next chunk is parsed into them
+        public void clear() {
+            size = 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        // Getter method for the line of each row inside its chunk
+        public int[] getLines() {
+            return lines;
+        }
+
+        public double[] getTransport() {
+            return transport;
+        }
+
+        public double[] getElectricity() {
+            return electricity;
+        }
+
+        public double[] getFood() {
+            return food;
+        }
+    }
+
+    // Inner class collecting the rows that could not be parsed, in place of the calculator's error dialog
+    public static class ParseReport {
+        private static final int MAX_MESSAGES = 20; // Number of bad rows kept with their message
+
+        private long errors;
+        private final List<String> messages = new ArrayList<>();
+        private final List<Long> messageLines = new ArrayList<>();
+
+        // Method to record a bad row
+        public void add(long line, String message) {
+            errors++;
+            if (messages.size() < MAX_MESSAGES) {
+                messageLines.add(line);
+                messages.add(message);
+            }
+        }
+
+        // Method to add the rows of a chunk's report, moving its line numbers by the chunk's first line
+        public void merge(ParseReport chunkReport, long firstLine) {
+            errors += chunkReport.errors;
+            for (int i = 0; i < chunkReport.messages.size() && messages.size() < MAX_MESSAGES; i++) {
+                messageLines.add(chunkReport.messageLines.get(i) + firstLine);
+                messages.add(chunkReport.messages.get(i));
+            }
+        }
+
+        public long getErrorCount() {
+            return errors;
+        }
+
+        // Method to get the kept error messages, each prefixed with its line number
+        public List<String> getMessages() {
+            List<String> result = new ArrayList<>();
+            for (int i = 0; i < messages.size(); i++) {
+                result.add("Line " + messageLines.get(i) + ": " + messages.get(i));
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,307 @@
+/* Metrics class is the program's built-in instrumentation. Counters are LongAdders and timers keep a
+   histogram with one bucket per power of two nanoseconds, so recording a value is a few uncontended adds
+   with no locking or allocation and can stay on in production. A custom EventQueue measures how long events
+   wait before the EDT dispatches them and how long each dispatch takes. Every metric is published through
+   a JMX MXBean and written periodically to a local file in the Prometheus text format. */
+
+//package OOP_Program;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.GraphicsEnvironment;
+import java.awt.Toolkit;
+import java.awt.event.InputEvent;
+import java.awt.event.InvocationEvent;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public final class Metrics {
+    private static final Map<String, Metric> METRICS = new ConcurrentSkipListMap<>(); // Sorted by name
+    private static boolean started;
+
+    private Metrics() {
+    }
+
+    // Method to get the counter with the given name, creating it the first time
+    public static Counter counter(String name, String help) {
+        return (Counter) METRICS.computeIfAbsent(name, key -> new Counter(key, help));
+    }
+
+    // Method to get the timer with the given name, creating it the first time
+    public static Timer timer(String name, String help) {
+        return (Timer) METRICS.computeIfAbsent(name, key -> new Timer(key, help));
+    }
+
+    // Method to publish a value that is read each time the metrics are exported
+    public static void gauge(String name, String help, LongSupplier value) {
+        METRICS.put(name, new Gauge(name, help, value));
+    }
+
+    // Method to install the measuring event queue, register the MXBean and start writing the metrics file
+    public static synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+
+        if (!GraphicsEnvironment.isHeadless()) { // The server mode has no EDT to measure
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(new MeasuringEventQueue());
+            gauge("edt_stalls", "Times the EDT was blocked for at least 100 ms", TaskScheduler::getEdtStallCount);
+            gauge("edt_blocked_milliseconds", "Time the EDT spent blocked in stalls",
+                    TaskScheduler::getEdtBlockedMillis);
+        }
+
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsBean(),
+                    new ObjectName("OOP_Program:type=Metrics"));
+        } catch (JMException e) {
+            System.err.println("Unable to register the metrics MXBean: " + e.getMessage());
+        }
+
+        Path file = Paths.get(System.getProperty("metrics.file", "data/metrics.prom"));
+        long seconds = Long.getLong("metrics.interval", 15);
+        ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                writeTo(file);
+            } catch (IOException e) {
+                System.err.println("Unable to write metrics: " + e.getMessage());
+            }
+        }, seconds, seconds, TimeUnit.SECONDS);
+    }
+
+    // Method to format every metric in the Prometheus text exposition format
+    public static String toPrometheusText() {
+        StringBuilder text = new StringBuilder();
+        for (Metric metric : METRICS.values()) {
+            text.append("# HELP ").append(metric.name).append(' ').append(metric.help).append('\n');
+            metric.appendTo(text);
+        }
+        return text.toString();
+    }
+
+    // Method to write the metrics to a file, replacing it in one step so scrapers never see half a file
+    public static void writeTo(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = parent.resolve(file.getFileName() + ".tmp");
+        Files.writeString(temp, toPrometheusText(), StandardCharsets.UTF_8);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Base class of every metric
+    private abstract static class Metric {
+        final String name;
+        final String help;
+
+        Metric(String name, String help) {
+            this.name = name;
+            this.help = help;
+        }
+
+        abstract void appendTo(StringBuilder text);
+    }
+
+    // Inner class representing a count that only goes up
+    public static final class Counter extends Metric {
+        private final LongAdder value = new LongAdder();
+
+        private Counter(String name, String help) {
+            super(name, help);
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        @Override
+        void appendTo(StringBuilder text) {
+            text.append("# TYPE ").append(name).append(" counter\n");
+            text.append(name).append(' ').append(get()).append('\n');
+        }
+    }
+
+    // Inner class representing a value read when the metrics are exported
+    private static final class Gauge extends Metric {
+        private final LongSupplier value;
+
+        Gauge(String name, String help, LongSupplier value) {
+            super(name, help);
+            this.value = value;
+        }
+
+        @Override
+        void appendTo(StringBuilder text) {
+            text.append("# TYPE ").append(name).append(" gauge\n");
+            text.append(name).append(' ').append(value.getAsLong()).append('\n');
+        }
+    }
+
+    // Inner class representing a histogram of durations, bucket i counts durations below 2^i nanoseconds
+    public static final class Timer extends Metric {
+        private static final int FIRST_BUCKET = 10; // Everything under about 1 microsecond
+        private static final int LAST_BUCKET = 36; // About 69 seconds, longer durations go in +Inf
+
+        private final LongAdder[] buckets = new LongAdder[LAST_BUCKET + 2];
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sumNanos = new LongAdder();
+
+        private Timer(String name, String help) {
+            super(name, help);
+            for (int i = FIRST_BUCKET; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        // Method to get the time to pass to stop, same as System.nanoTime
+        public long start() {
+            return System.nanoTime();
+        }
+
+        // Method to record the time since start
+        public void stop(long start) {
+            record(System.nanoTime() - start);
+        }
+
+        // Method to record one duration
+        public void record(long nanos) {
+            int bucket = 64 - Long.numberOfLeadingZeros(Math.max(nanos, 0));
+            buckets[Math.min(Math.max(bucket, FIRST_BUCKET), LAST_BUCKET + 1)].increment();
+            count.increment();
+            sumNanos.add(nanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getSumNanos() {
+            return sumNanos.sum();
+        }
+
+        // Method to estimate a quantile from the buckets, returns the upper bound of the bucket it falls in
+        public double quantileMillis(double quantile) {
+            long total = getCount();
+            long seen = 0;
+            for (int i = FIRST_BUCKET; i <= LAST_BUCKET; i++) {
+                seen += buckets[i].sum();
+                if (total > 0 && seen >= quantile * total) {
+                    return (1L << i) / 1e6;
+                }
+            }
+            return Double.POSITIVE_INFINITY;
+        }
+
+        @Override
+        void appendTo(StringBuilder text) {
+            text.append("# TYPE ").append(name).append(" histogram\n");
+            long cumulative = 0;
+            for (int i = FIRST_BUCKET; i <= LAST_BUCKET; i++) {
+                cumulative += buckets[i].sum();
+                text.append(name).append("_bucket{le=\"")
+                        .append(String.format(Locale.ROOT, "%.9g", (1L << i) / 1e9)).append("\"} ")
+                        .append(cumulative).append('\n');
+            }
+            cumulative += buckets[LAST_BUCKET + 1].sum();
+            text.append(name).append("_bucket{le=\"+Inf\"} ").append(cumulative).append('\n');
+            text.append(name).append("_sum ").append(getSumNanos() / 1e9).append('\n');
+            text.append(name).append("_count ").append(cumulative).append('\n');
+        }
+    }
+
+    // Inner class replacing the system event queue to time every event the EDT dispatches
+    private static final class MeasuringEventQueue extends EventQueue {
+        private final Timer queueLatency = timer("edt_queue_latency_seconds",
+                "Time from an input or invocation event being posted until the EDT dispatches it");
+        private final Timer dispatchTime = timer("edt_dispatch_seconds", "Time the EDT spends dispatching one event");
+
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            long start = System.nanoTime();
+            long when = event instanceof InputEvent ? ((InputEvent) event).getWhen()
+                    : event instanceof InvocationEvent ? ((InvocationEvent) event).getWhen() : 0;
+            if (when > 0) {
+                long waitedMillis = System.currentTimeMillis() - when;
+                if (waitedMillis >= 0) {
+                    queueLatency.record(waitedMillis * 1_000_000);
+                }
+            }
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                dispatchTime.stop(start);
+            }
+        }
+    }
+
+    // Interface of the MXBean, shown by JConsole and other JMX clients under OOP_Program:type=Metrics
+    public interface MetricsMXBean {
+        Map<String, Long> getCounters();
+
+        Map<String, Double> getTimerP99Millis();
+
+        String getPrometheusText();
+    }
+
+    // Inner class implementing the MXBean over the shared metrics
+    private static final class MetricsBean implements MetricsMXBean {
+        @Override
+        public Map<String, Long> getCounters() {
+            Map<String, Long> values = new LinkedHashMap<>();
+            for (Metric metric : METRICS.values()) {
+                if (metric instanceof Counter) {
+                    values.put(metric.name, ((Counter) metric).get());
+                } else if (metric instanceof Gauge) {
+                    values.put(metric.name, ((Gauge) metric).value.getAsLong());
+                } else if (metric instanceof Timer) {
+                    values.put(metric.name + "_count", ((Timer) metric).getCount());
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public Map<String, Double> getTimerP99Millis() {
+            Map<String, Double> values = new LinkedHashMap<>();
+            for (Metric metric : METRICS.values()) {
+                if (metric instanceof Timer) {
+                    values.put(metric.name, ((Timer) metric).quantileMillis(0.99));
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public String getPrometheusText() {
+            return toPrometheusText();
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/* PackedUrlStore class keeps catalog entries as packed records in shared 256 KB byte pages instead of one
+   UrlInfo and two String objects per entry. A record is the entry id, the id of its interned host prefix
+   (such as "https://example.org") and the UTF-8 bytes of the rest of the URL and of the name, with varint
+   lengths, so a typical entry takes a few dozen bytes and no object headers. Records are addressed by an int
+   (page number and offset) and are never changed once written: an edit appends a new record, which keeps the
+   store safe to read from any thread without locking while one thread appends. Reading a record returns an
+   Entry, a small UrlInfo view that decodes the URL and name when they are asked for. The bytes of records
+   that were replaced or removed are counted as released, and once they are most of the store the owner copies
+   its live records into a new store (see PackedUrlList.compacted), which leaves the old pages to the GC. */
+
+//package OOP_Program;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class PackedUrlStore {
+    private static final int PAGE_BITS = 18;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS; // Below the G1 humongous size, records never cross a page
+    private static final int MAX_PAGES = 1 << (31 - PAGE_BITS); // Keeps addresses positive ints
+    private static final int NO_HOST = 0; // Host id of URLs without a scheme and host
+
+    private volatile byte[][] pages = new byte[0][];
+    private volatile String[] hosts = {""}; // Interned host prefixes by id, grown by copying
+    private final Map<String, Integer> hostIds = new HashMap<>(); // Guarded by this
+    private int hostCount = 1;
+    private byte[] page; // Page being filled, guarded by this
+    private int position = PAGE_SIZE;
+    private long usedBytes;
+    private long releasedBytes;
+
+    // Method to pack an entry into a new record, returns the address of the record
+    public synchronized int append(AdminInterface.UrlInfo urlInfo) {
+        String url = urlInfo.getUrl();
+        int hostEnd = hostEnd(url);
+        int hostId = hostEnd < 0 ? NO_HOST : intern(url.substring(0, hostEnd));
+        byte[] rest = url == null ? null : url.substring(Math.max(hostEnd, 0)).getBytes(StandardCharsets.UTF_8);
+        byte[] name = urlInfo.getName() == null ? null : urlInfo.getName().getBytes(StandardCharsets.UTF_8);
+
+        int length = varintSize(urlInfo.id + 1) + varintSize(hostId) + stringSize(rest) + stringSize(name);
+        if (length > PAGE_SIZE) {
+            throw new IllegalArgumentException("Entry is too large to pack: " + length + " bytes");
+        }
+        if (position + length > PAGE_SIZE) {
+            if (pages.length == MAX_PAGES) {
+                throw new IllegalStateException("Packed URL store is full");
+            }
+            page = new byte[PAGE_SIZE];
+            position = 0;
+            pages = Arrays.copyOf(pages, pages.length + 1);
+            pages[pages.length - 1] = page;
+        }
+        int address = (pages.length - 1) << PAGE_BITS | position;
+        position = writeVarint(page, position, urlInfo.id + 1); // Ids start at -1 for entries not in a catalog
+        position = writeVarint(page, position, hostId);
+        position = writeString(page, position, rest);
+        position = writeString(page, position, name);
+        usedBytes += length;
+        return address;
+    }
+
+    // Method to get a view of the record at an address
+    public Entry get(int address) {
+        return new Entry(this, address);
+    }
+
+    // Method to get the number of bytes taken by records, including records no longer in any list
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    // Method to count the record at an address as no longer in use, the record itself stays readable for older
+    // lists that still hold it
+    public synchronized void release(int address) {
+        Cursor cursor = new Cursor(pages, address);
+        cursor.readVarint();
+        cursor.readVarint();
+        cursor.skipString();
+        cursor.skipString();
+        releasedBytes += cursor.position - (address & (PAGE_SIZE - 1));
+    }
+
+    // Method to get the number of bytes taken by released records
+    public synchronized long getReleasedBytes() {
+        return releasedBytes;
+    }
+
+    // Method to get the number of bytes allocated for pages
+    public long getAllocatedBytes() {
+        return (long) pages.length * PAGE_SIZE;
+    }
+
+    // Method to get the number of distinct host prefixes
+    public synchronized int getHostCount() {
+        return hostCount - 1;
+    }
+
+    private int intern(String host) {
+        Integer id = hostIds.get(host);
+        if (id == null) {
+            id = hostCount++;
+            hostIds.put(host, id);
+            String[] grown = hosts.length > id ? hosts : Arrays.copyOf(hosts, hosts.length * 2);
+            grown[id] = host;
+            hosts = grown;
+        }
+        return id;
+    }
+
+    // Method to find the end of "scheme://host[:port]" at the start of a URL, or -1 if there is none
+    static int hostEnd(String url) {
+        if (url == null) {
+            return -1;
+        }
+        int separator = url.indexOf("://");
+        if (separator <= 0) {
+            return -1;
+        }
+        for (int i = 0; i < separator; i++) {
+            char c = url.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || c == '+' || c == '-' || c == '.')) {
+                return -1;
+            }
+        }
+        int end = separator + 3;
+        while (end < url.length() && "/?#".indexOf(url.charAt(end)) < 0) {
+            end++;
+        }
+        return end;
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    // Method to get the size of a string written as its length plus one (zero for null) and its bytes
+    private static int stringSize(byte[] bytes) {
+        return bytes == null ? 1 : varintSize(bytes.length + 1) + bytes.length;
+    }
+
+    private static int writeVarint(byte[] page, int position, int value) {
+        while ((value & ~0x7f) != 0) {
+            page[position++] = (byte) (value & 0x7f | 0x80);
+            value >>>= 7;
+        }
+        page[position++] = (byte) value;
+        return position;
+    }
+
+    private static int writeString(byte[] page, int position, byte[] bytes) {
+        if (bytes == null) {
+            return writeVarint(page, position, 0);
+        }
+        position = writeVarint(page, position, bytes.length + 1);
+        System.arraycopy(bytes, 0, page, position, bytes.length);
+        return position + bytes.length;
+    }
+
+    // Inner class reading the fields of one record in order
+    private static final class Cursor {
+        private final byte[] page;
+        private int position;
+
+        Cursor(byte[][] pages, int address) {
+            this.page = pages[address >>> PAGE_BITS];
+            this.position = address & (PAGE_SIZE - 1);
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = page[position++];
+                value |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+
+        String readString(String prefix) {
+            int length = readVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(page, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return prefix.isEmpty() ? value : prefix + value;
+        }
+
+        void skipString() {
+            int length = readVarint() - 1;
+            position += Math.max(length, 0);
+        }
+    }
+
+    // Inner class representing a UrlInfo whose URL and name are decoded from a packed record when read
+    public static final class Entry extends AdminInterface.UrlInfo {
+        private final PackedUrlStore store;
+        private final int address;
+
+        private Entry(PackedUrlStore store, int address) {
+            super(null, null);
+            this.store = store;
+            this.address = address;
+            this.id = new Cursor(store.pages, address).readVarint() - 1;
+        }
+
+        // Method to get the address of the record, which identifies it within its store
+        public int getAddress() {
+            return address;
+        }
+
+        // Getter method for the store holding the record
+        public PackedUrlStore getStore() {
+            return store;
+        }
+
+        @Override
+        public String getUrl() {
+            Cursor cursor = new Cursor(store.pages, address);
+            cursor.readVarint();
+            String host = store.hosts[cursor.readVarint()];
+            return cursor.readString(host);
+        }
+
+        @Override
+        public String getName() {
+            Cursor cursor = new Cursor(store.pages, address);
+            cursor.readVarint();
+            cursor.readVarint();
+            cursor.skipString();
+            return cursor.readString("");
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/* PersistentList class is an immutable list that shares structure between versions. It is stored as a
+   balanced (AVL) tree ordered by position, so get, append, set and remove each cost O(log n) and return a
+   new list while the old one stays valid and unchanged. This lets the URL catalog publish a new snapshot
+   after each change without copying the whole list, and lets readers keep using the snapshot they hold. */
+
+//package OOP_Program;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public final class PersistentList<E> extends AbstractList<E> implements PersistentSequence<E> {
+    private static final PersistentList<Object> EMPTY = new PersistentList<>(null);
+
+    private final Node<E> root;
+
+    private PersistentList(Node<E> root) {
+        this.root = root;
+    }
+
+    // Method to get the empty list
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    // Method to build a balanced list from the elements of another list in O(n)
+    public static <E> PersistentList<E> copyOf(List<? extends E> elements) {
+        if (elements instanceof PersistentList) {
+            @SuppressWarnings("unchecked")
+            PersistentList<E> list = (PersistentList<E>) elements;
+            return list;
+        }
+        Object[] array = elements.toArray();
+        return new PersistentList<>(build(array, 0, array.length));
+    }
+
+    @Override
+    public E get(int index) {
+        checkIndex(index, size());
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    // Method to get a new list with the element added at the end
+    @Override
+    public PersistentList<E> plus(E element) {
+        return new PersistentList<>(insert(root, size(), element));
+    }
+
+    // Method to get a new list with the elements added at the end, in order
+    @Override
+    public PersistentList<E> plusAll(List<? extends E> elements) {
+        Node<E> node = root;
+        int size = size();
+        for (E element : elements) {
+            node = insert(node, size++, element);
+        }
+        return new PersistentList<>(node);
+    }
+
+    // Method to get a new list with the element inserted at the given position
+    public PersistentList<E> plus(int index, E element) {
+        checkIndex(index, size() + 1);
+        return new PersistentList<>(insert(root, index, element));
+    }
+
+    // Method to get a new list with the element at the given position replaced
+    @Override
+    public PersistentList<E> with(int index, E element) {
+        checkIndex(index, size());
+        return new PersistentList<>(set(root, index, element));
+    }
+
+    // Method to get a new list without the element at the given position
+    @Override
+    public PersistentList<E> minus(int index) {
+        checkIndex(index, size());
+        return new PersistentList<>(remove(root, index));
+    }
+
+    // Iterator walking the tree in order, so a full scan is O(n) rather than n lookups
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private final ArrayDeque<Node<E>> path = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node<E> node) {
+                for (; node != null; node = node.left) {
+                    path.push(node);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<E> node = path.pop();
+                pushLeft(node.right);
+                return node.value;
+            }
+        };
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    private static <E> Node<E> build(Object[] array, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        @SuppressWarnings("unchecked")
+        E value = (E) array[middle];
+        return new Node<>(build(array, from, middle), value, build(array, middle + 1, to));
+    }
+
+    private static <E> Node<E> insert(Node<E> node, int index, E element) {
+        if (node == null) {
+            return new Node<>(null, element, null);
+        }
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            return balance(insert(node.left, index, element), node.value, node.right);
+        }
+        return balance(node.left, node.value, insert(node.right, index - leftSize - 1, element));
+    }
+
+    private static <E> Node<E> set(Node<E> node, int index, E element) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return new Node<>(set(node.left, index, element), node.value, node.right);
+        } else if (index > leftSize) {
+            return new Node<>(node.left, node.value, set(node.right, index - leftSize - 1, element));
+        }
+        return new Node<>(node.left, element, node.right);
+    }
+
+    private static <E> Node<E> remove(Node<E> node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return balance(remove(node.left, index), node.value, node.right);
+        } else if (index > leftSize) {
+            return balance(node.left, node.value, remove(node.right, index - leftSize - 1));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node<E> first = node.right;
+        while (first.left != null) {
+            first = first.left;
+        }
+        return balance(node.left, first.value, remove(node.right, 0));
+    }
+
+    // Method to join two subtrees under a value, rotating once or twice if their heights differ by two
+    private static <E> Node<E> balance(Node<E> left, E value, Node<E> right) {
+        int leftHeight = height(left);
+        int rightHeight = height(right);
+        if (leftHeight > rightHeight + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.left, left.value, new Node<>(left.right, value, right));
+            }
+            Node<E> middle = left.right;
+            return new Node<>(new Node<>(left.left, left.value, middle.left), middle.value,
+                    new Node<>(middle.right, value, right));
+        }
+        if (rightHeight > leftHeight + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(new Node<>(left, value, right.left), right.value, right.right);
+            }
+            Node<E> middle = right.left;
+            return new Node<>(new Node<>(left, value, middle.left), middle.value,
+                    new Node<>(middle.right, right.value, right.right));
+        }
+        return new Node<>(left, value, right);
+    }
+
+    // Method to check that the heights of the two subtrees of every node differ by at most one, used by the tests
+    boolean isBalanced() {
+        return isBalanced(root);
+    }
+
+    private static boolean isBalanced(Node<?> node) {
+        return node == null || Math.abs(height(node.left) - height(node.right)) <= 1
+                && isBalanced(node.left) && isBalanced(node.right);
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    // Inner class representing one immutable tree node, shared by every list version that contains it
+    private static final class Node<E> {
+        final Node<E> left;
+        final E value;
+        final Node<E> right;
+        final int size;
+        final int height;
+
+        Node(Node<E> left, E value, Node<E> right) {
+            this.left = left;
+            this.value = value;
+            this.right = right;
+            this.size = size(left) + size(right) + 1;
+            this.height = Math.max(height(left), height(right)) + 1;
+        }
+    }
+}
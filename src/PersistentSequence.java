@@ -0,0 +1,22 @@
+/* PersistentSequence interface is the immutable list UrlCatalog publishes as its snapshot. Every change
+   returns a new sequence and leaves the old one as it was, so readers can keep the snapshot they hold while
+   the catalog moves on. PersistentList stores the entries as objects in a balanced tree; PackedUrlList packs
+   them into byte pages and hands out UrlInfo views, trading slower reads for a much smaller heap. */
+
+//package OOP_Program;
+
+import java.util.List;
+
+public interface PersistentSequence<E> extends List<E> {
+    // Method to get a new sequence with the element added at the end
+    PersistentSequence<E> plus(E element);
+
+    // Method to get a new sequence with the elements added at the end, in order
+    PersistentSequence<E> plusAll(List<? extends E> elements);
+
+    // Method to get a new sequence with the element at the given position replaced
+    PersistentSequence<E> with(int index, E element);
+
+    // Method to get a new sequence without the element at the given position
+    PersistentSequence<E> minus(int index);
+}
@@ -0,0 +1,975 @@
+/* RankedTermIndex class ranks catalog names against a query with BM25, the scoring used by search engines:
+   a name scores higher the more query words it has, the rarer those words are in the catalog and the shorter
+   the name is. Names are split into lower-case words, and each word of the term dictionary maps to the ids
+   of the names that have it. With fuzzy matching a query word also matches dictionary words within one edit
+   (words of 3 to 5 letters) or two edits (longer words), so typos still find their entries. Those words are
+   found by walking a trie of the dictionary with one row of the Levenshtein table per letter: words that
+   share a prefix share its rows, and once every cell of a row is over the limit no word below that node can
+   match, so the walk leaves the whole branch. Numbers are kept out of the trie, as a letter query is never
+   within two edits of one, so catalogs that number their entries do not slow the walk down. The last query
+   word also matches as a prefix, for search as you type. Scores are summed per name in a reused accumulator
+   and the best k come from a bounded heap, not from sorting every match. A word in a large share of the names
+   also keeps its names split into impacts by frequency and name length: every name of an impact scores the
+   same for the word, so a query of one word, or of words with many names in all, reads the impacts from the
+   highest score down and stops once a name not read yet could no longer reach the k best, instead of scoring
+   every name of a common word. Other queries read the lists through, rarest first. The class is not
+   thread-safe, UrlSearchIndex calls it under its lock; searches only read the index and may run at the same
+   time. */
+
+//package OOP_Program;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+public class RankedTermIndex {
+    private static final float K1 = 1.2f; // How quickly repeating a word stops adding to the score
+    private static final float B = 0.75f; // How much a long name is penalised
+    private static final float PREFIX_WEIGHT = 0.5f; // Weight of a word completing the last query word
+    private static final int MAX_EXPANSIONS = 16; // Dictionary words scored for each query word, best first
+    private static final int MAX_LENGTH = 255; // Names with more words are scored as if they had this many
+    private static final float BOUND_SLACK = 1.001f; // Covers float rounding when score bounds are summed
+    private static final int IMPACT_POSTINGS = 4096; // Lists this long are also kept split into impacts
+    private static final int MAX_IMPACT_WORDS = 31; // Query words tracked per name when reading impacts
+    private static final int COMPLETE = Integer.MIN_VALUE; // Marks a name whose score is final
+    private static final int LOOKUP_COST = 8; // Postings read in the time a name is looked up in the lists
+    private static final long IMPACT_QUERY_POSTINGS = 300_000; // Queries with fewer postings read lists through
+
+    private final Map<String, Postings> terms = new HashMap<>();
+    private final WordTrie trie = new WordTrie(); // Words with a letter, for fuzzy and prefix matching
+    private final ConcurrentLinkedQueue<Accumulator> accumulators = new ConcurrentLinkedQueue<>();
+    private byte[] lengths = new byte[1024]; // Words in each name by id, unsigned
+    private long totalLength;
+    private int count;
+
+    // Method to add the words of a lower-case name under the entry id
+    public void add(int id, String lowerName) {
+        String[] words = words(lowerName);
+        if (id >= lengths.length) {
+            lengths = Arrays.copyOf(lengths, Math.max(id + 1, lengths.length * 2));
+        }
+        int length = Math.min(words.length, MAX_LENGTH);
+        lengths[id] = (byte) length;
+        totalLength += length;
+        count++;
+
+        Arrays.sort(words);
+        for (int i = 0; i < words.length; ) {
+            int end = i + 1;
+            while (end < words.length && words[end].equals(words[i])) {
+                end++;
+            }
+            Postings postings = terms.get(words[i]);
+            if (postings == null) {
+                postings = new Postings();
+                terms.put(words[i], postings);
+                if (!isNumber(words[i])) {
+                    trie.put(words[i], postings);
+                }
+            }
+            postings.add(id, end - i, lengths);
+            i = end;
+        }
+    }
+
+    // Method to remove the words of a lower-case name that was added under the entry id
+    public void remove(int id, String lowerName) {
+        for (String word : words(lowerName)) {
+            Postings postings = terms.get(word);
+            if (postings != null && postings.remove(id, lengths) && postings.size == 0) {
+                terms.remove(word);
+                if (!isNumber(word)) {
+                    trie.put(word, null);
+                }
+            }
+        }
+        totalLength -= lengths[id] & 0xff;
+        lengths[id] = 0;
+        count--;
+    }
+
+    // Method to get the number of distinct words
+    public int getTermCount() {
+        return terms.size();
+    }
+
+    // Method to find the ids of the k names that best match a lower-case query, best first. Names that score
+    // the same stay in catalog order.
+    public int[] search(String lowerQuery, int k, boolean fuzzy) {
+        String[] queryWords = Arrays.stream(words(lowerQuery)).distinct().toArray(String[]::new);
+        if (queryWords.length == 0 || k <= 0 || count == 0) {
+            return new int[0];
+        }
+
+        // Length part of the BM25 denominator for every name length, so scoring a match is a table lookup
+        float averageLength = Math.max(1f, totalLength / (float) count);
+        float[] lengthNorms = new float[MAX_LENGTH + 1];
+        for (int length = 0; length <= MAX_LENGTH; length++) {
+            lengthNorms[length] = K1 * (1 - B + B * length / averageLength);
+        }
+
+        // Score the rarest query words first: they have the shortest lists and add the most to a score
+        List<QueryWord> query = new ArrayList<>(queryWords.length);
+        for (int q = 0; q < queryWords.length; q++) {
+            String word = queryWords[q];
+            List<Expansion> expansions = expand(word, fuzzy ? maxEdits(word) : 0, q == queryWords.length - 1);
+            if (!expansions.isEmpty()) {
+                query.add(new QueryWord(expansions, count, lengthNorms[1]));
+            }
+        }
+        query.sort(Comparator.comparingLong(queryWord -> queryWord.postingsCount));
+
+        // Reading impacts pays off for a single word, whose best impacts are the top k, and when a very common
+        // word would be read through otherwise. With less to read in all, several common words add more names
+        // from their impacts than reading their lists through costs.
+        if (query.size() <= MAX_IMPACT_WORDS && hasImpacts(query)
+                && (query.size() == 1 || postingsCount(query) > IMPACT_QUERY_POSTINGS)) {
+            return searchByImpacts(query, k, lengthNorms);
+        }
+
+        Accumulator accumulator = takeAccumulator();
+        try {
+            int next = 0;
+            float threshold = Float.NEGATIVE_INFINITY;
+            float remainingBound = 0;
+            for (; next < query.size(); next++) {
+                QueryWord queryWord = query.get(next);
+                long remainingPostings = 0;
+                remainingBound = 0;
+                for (int q = next; q < query.size(); q++) {
+                    remainingPostings += query.get(q).postingsCount;
+                    remainingBound += query.get(q).bound * BOUND_SLACK;
+                }
+                if (next > 0 && remainingPostings > 2L * accumulator.touchedCount) {
+                    // Once the k-th best score so far beats the most the remaining words can add, no name
+                    // that has none of the words scored so far can reach the top k
+                    threshold = kthScore(accumulator, k);
+                    if (threshold > remainingBound) {
+                        break;
+                    }
+                }
+                // A name matching several spellings of one query word counts the best one only
+                boolean single = queryWord.expansions.size() == 1;
+                for (Expansion expansion : queryWord.expansions) {
+                    score(expansion, lengthNorms, accumulator, single);
+                }
+                if (!single) {
+                    accumulator.mergeGroup();
+                }
+            }
+
+            TopK top = new TopK(k);
+            if (next == query.size()) {
+                accumulator.offerAll(top);
+            } else {
+                // Only names that could still reach the threshold are looked up in the remaining lists
+                int[] candidates = new int[accumulator.touchedCount];
+                int candidateCount = 0;
+                for (int i = 0; i < accumulator.touchedCount; i++) {
+                    int id = accumulator.touched[i];
+                    if (accumulator.scores[id] + remainingBound >= threshold) {
+                        candidates[candidateCount++] = id;
+                    }
+                }
+                Arrays.sort(candidates, 0, candidateCount);
+                for (; next < query.size(); next++) {
+                    addToCandidates(query.get(next), candidates, candidateCount, lengthNorms, accumulator.scores);
+                }
+                for (int i = 0; i < candidateCount; i++) {
+                    top.offer(candidates[i], accumulator.scores[candidates[i]]);
+                }
+            }
+            return top.sortedIds();
+        } finally {
+            accumulator.clear();
+            accumulators.offer(accumulator);
+        }
+    }
+
+    // Method to rank a query that has a word split into impacts. Names in a short list are few and are scored
+    // first by looking them up in every list. The impacts of the long lists are then read, the best one of each
+    // word first and then from the highest score down, adding each name's score for a query word the first
+    // time the word is seen, which is its best one. A name not read yet scores at most the sum of each word's
+    // next impact, so once that is below the k-th best sum so far no more names are added; the impacts are then
+    // only read for the names already added, until looking up the ones that could still reach the k best in
+    // the lists of the words they were not seen with is cheaper.
+    private int[] searchByImpacts(List<QueryWord> query, int k, float[] lengthNorms) {
+        Accumulator accumulator = takeAccumulator();
+        try {
+            int[] candidates = shortListNames(query);
+            for (QueryWord queryWord : query) {
+                addToCandidates(queryWord, candidates, candidates.length, lengthNorms, accumulator.scores);
+            }
+            float maxScore = Float.NEGATIVE_INFINITY; // Highest sum so far, the k-th best cannot be higher
+            for (int id : candidates) {
+                int slot = accumulator.slot(id);
+                accumulator.slotScores[slot] = accumulator.scores[id];
+                accumulator.slotSeen[slot] = COMPLETE;
+                accumulator.scores[id] = 0;
+                maxScore = Math.max(maxScore, accumulator.slotScores[slot]);
+            }
+
+            List<Segment> segments = segments(query, lengthNorms);
+            float[] nextScores = new float[query.size()]; // Score of each word's next impact, 0 once read through
+            int[] nextSegments = new int[segments.size()]; // Next impact of the same word
+            int[] following = new int[query.size()];
+            Arrays.fill(following, -1);
+            long[] unreadPostings = new long[segments.size() + 1]; // Postings in the impacts from each one on
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                Segment segment = segments.get(i);
+                nextSegments[i] = following[segment.word];
+                following[segment.word] = i;
+                nextScores[segment.word] = segment.score;
+                unreadPostings[i] = unreadPostings[i + 1] + segment.impact.size;
+            }
+
+            float threshold = Float.NEGATIVE_INFINITY;
+            boolean adding = true;
+            long readSinceThreshold = accumulator.slotCount;
+            for (int i = 0; i < segments.size(); i++) {
+                float unread = 0;
+                for (float nextScore : nextScores) {
+                    unread += nextScore;
+                }
+                // Working out the k-th best sum reads every name added, so it is done once a quarter as many
+                // postings were read since, and only when it could change what happens next
+                boolean checked = false;
+                if (readSinceThreshold * 4 >= accumulator.slotCount && (!adding || maxScore > unread * BOUND_SLACK)) {
+                    threshold = kthScore(accumulator, k);
+                    readSinceThreshold = 0;
+                    checked = true;
+                }
+                if (adding && unread * BOUND_SLACK < threshold) {
+                    adding = false;
+                    checked = true;
+                }
+                if (!adding && checked && openNames(accumulator, nextScores, threshold) * LOOKUP_COST
+                        <= unreadPostings[i]) {
+                    break;
+                }
+                Segment segment = segments.get(i);
+                int bit = 1 << segment.word;
+                int[] ids = segment.impact.ids;
+                for (int j = 0; j < segment.impact.size; j++) {
+                    int slot = adding ? accumulator.slot(ids[j]) : accumulator.slots[ids[j]] - 1;
+                    if (slot >= 0 && (accumulator.slotSeen[slot] & (bit | COMPLETE)) == 0) {
+                        accumulator.slotSeen[slot] |= bit;
+                        float score = accumulator.slotScores[slot] += segment.score;
+                        maxScore = Math.max(maxScore, score);
+                    }
+                }
+                readSinceThreshold += segment.impact.size;
+                nextScores[segment.word] = nextSegments[i] < 0 ? 0 : segments.get(nextSegments[i]).score;
+            }
+
+            // A name not seen with a word whose impacts were all read does not have it, so a name with nothing
+            // left to read has its score. The others that could still reach the threshold get their exact score
+            // from every list.
+            TopK top = new TopK(k);
+            int[] remaining = new int[accumulator.slotCount];
+            int remainingCount = 0;
+            for (int slot = 0; slot < accumulator.slotCount; slot++) {
+                float unread = unreadBound(accumulator.slotSeen[slot], nextScores);
+                if (unread == 0) {
+                    top.offer(accumulator.slotIds[slot], accumulator.slotScores[slot]);
+                } else if ((accumulator.slotScores[slot] + unread) * BOUND_SLACK >= threshold) {
+                    remaining[remainingCount++] = accumulator.slotIds[slot];
+                }
+            }
+            Arrays.sort(remaining, 0, remainingCount);
+            for (QueryWord queryWord : query) {
+                addToCandidates(queryWord, remaining, remainingCount, lengthNorms, accumulator.scores);
+            }
+            for (int i = 0; i < remainingCount; i++) {
+                top.offer(remaining[i], accumulator.scores[remaining[i]]);
+                accumulator.scores[remaining[i]] = 0;
+            }
+            return top.sortedIds();
+        } finally {
+            accumulator.clear();
+            accumulators.offer(accumulator);
+        }
+    }
+
+    // Method to list the impacts of the long lists with what their names score, the best impact of each query
+    // word first: the names in several of them are often the best matches, which sets a threshold early on.
+    // The rest follow from the highest score down.
+    private static List<Segment> segments(List<QueryWord> query, float[] lengthNorms) {
+        List<Segment> segments = new ArrayList<>();
+        for (int q = 0; q < query.size(); q++) {
+            QueryWord queryWord = query.get(q);
+            for (int e = 0; e < queryWord.expansions.size(); e++) {
+                Postings postings = queryWord.expansions.get(e).postings;
+                for (int i = 0; postings.impacts != null && i < postings.impactCount; i++) {
+                    Impact impact = postings.impacts[i];
+                    if (impact.size > 0) {
+                        float score = queryWord.factors[e] * impact.frequency
+                                / (impact.frequency + lengthNorms[impact.length]);
+                        segments.add(new Segment(q, score, impact));
+                    }
+                }
+            }
+        }
+        segments.sort(Comparator.comparingDouble((Segment segment) -> -segment.score));
+        boolean[] leading = new boolean[query.size()];
+        List<Segment> ordered = new ArrayList<>(segments.size());
+        List<Segment> rest = new ArrayList<>(segments.size());
+        for (Segment segment : segments) {
+            (leading[segment.word] ? rest : ordered).add(segment);
+            leading[segment.word] = true;
+        }
+        ordered.addAll(rest);
+        return ordered;
+    }
+
+    // Method to count the names whose score is not known yet and that could still reach the threshold
+    private static int openNames(Accumulator accumulator, float[] nextScores, float threshold) {
+        int open = 0;
+        for (int slot = 0; slot < accumulator.slotCount; slot++) {
+            float unread = unreadBound(accumulator.slotSeen[slot], nextScores);
+            if (unread > 0 && (accumulator.slotScores[slot] + unread) * BOUND_SLACK >= threshold) {
+                open++;
+            }
+        }
+        return open;
+    }
+
+    // Method to get the most a name can still add for the query words it was not seen with
+    private static float unreadBound(int seen, float[] nextScores) {
+        float bound = 0;
+        for (int q = 0; seen != COMPLETE && q < nextScores.length; q++) {
+            if ((seen & (1 << q)) == 0) {
+                bound += nextScores[q];
+            }
+        }
+        return bound;
+    }
+
+    // Method to get the sorted ids of the names in the lists that are not split into impacts
+    private static int[] shortListNames(List<QueryWord> query) {
+        int total = 0;
+        for (QueryWord queryWord : query) {
+            for (Expansion expansion : queryWord.expansions) {
+                if (expansion.postings.impacts == null) {
+                    total += expansion.postings.size;
+                }
+            }
+        }
+        int[] ids = new int[total];
+        int count = 0;
+        for (QueryWord queryWord : query) {
+            for (Expansion expansion : queryWord.expansions) {
+                Postings postings = expansion.postings;
+                if (postings.impacts == null) {
+                    System.arraycopy(postings.ids, 0, ids, count, postings.size);
+                    count += postings.size;
+                }
+            }
+        }
+        Arrays.sort(ids);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || ids[distinct - 1] != ids[i]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        return Arrays.copyOf(ids, distinct);
+    }
+
+    private static long postingsCount(List<QueryWord> query) {
+        long total = 0;
+        for (QueryWord queryWord : query) {
+            total += queryWord.postingsCount;
+        }
+        return total;
+    }
+
+    private static boolean hasImpacts(List<QueryWord> query) {
+        for (QueryWord queryWord : query) {
+            for (Expansion expansion : queryWord.expansions) {
+                if (expansion.postings.impacts != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // Method to add the BM25 score of one dictionary word to every name that has it
+    private void score(Expansion expansion, float[] lengthNorms, Accumulator accumulator, boolean single) {
+        Postings postings = expansion.postings;
+        float weight = expansion.factor(count);
+        int[] ids = postings.ids;
+        byte[] frequencies = postings.frequencies;
+        for (int i = 0; i < postings.size; i++) {
+            int id = ids[i];
+            int frequency = frequencies[i];
+            float score = weight * frequency / (frequency + lengthNorms[lengths[id] & 0xff]);
+            if (single) {
+                accumulator.add(id, score);
+            } else {
+                accumulator.addToGroup(id, score);
+            }
+        }
+    }
+
+    // Method to add a query word's best score to each of the sorted candidates, looking each one up in the
+    // word's lists instead of reading the lists through
+    private void addToCandidates(QueryWord queryWord, int[] candidates, int candidateCount, float[] lengthNorms,
+                                 float[] scores) {
+        float[] best = new float[candidateCount];
+        for (Expansion expansion : queryWord.expansions) {
+            Postings postings = expansion.postings;
+            float weight = expansion.factor(count);
+            int position = 0;
+            for (int i = 0; i < candidateCount && position < postings.size; i++) {
+                int id = candidates[i];
+                int found = postings.find(id, position);
+                if (found < 0) {
+                    position = -found - 1;
+                    continue;
+                }
+                position = found;
+                int frequency = postings.frequencies[found];
+                best[i] = Math.max(best[i], weight * frequency / (frequency + lengthNorms[lengths[id] & 0xff]));
+            }
+        }
+        for (int i = 0; i < candidateCount; i++) {
+            scores[candidates[i]] += best[i];
+        }
+    }
+
+    // Method to get the k-th best score among the names scored so far, or minus infinity if there are fewer
+    private static float kthScore(Accumulator accumulator, int k) {
+        TopK top = new TopK(k);
+        accumulator.offerAll(top);
+        for (int slot = 0; slot < accumulator.slotCount; slot++) {
+            top.offer(accumulator.slotIds[slot], accumulator.slotScores[slot]);
+        }
+        return top.worstScore();
+    }
+
+    // Method to find the dictionary words a query word stands for: itself, words within the edit limit and,
+    // for the last query word, words it is a prefix of. Keeps the best MAX_EXPANSIONS by weight and frequency.
+    private List<Expansion> expand(String word, int maxEdits, boolean prefix) {
+        Map<Postings, Expansion> found = new IdentityHashMap<>();
+        if (maxEdits == 0) {
+            Postings postings = terms.get(word);
+            if (postings != null) {
+                found.put(postings, new Expansion(postings, 1f));
+            }
+        } else {
+            fuzzyMatches(word, maxEdits, found);
+        }
+        if (prefix && !isNumber(word)) {
+            trie.completions(word, postings -> found.putIfAbsent(postings, new Expansion(postings, PREFIX_WEIGHT)));
+        }
+        List<Expansion> expansions = new ArrayList<>(found.values());
+        if (expansions.size() > MAX_EXPANSIONS) {
+            expansions.sort(Comparator.comparingDouble((Expansion expansion) -> -expansion.weight)
+                    .thenComparingInt(expansion -> -expansion.postings.size));
+            expansions = expansions.subList(0, MAX_EXPANSIONS);
+        }
+        return expansions;
+    }
+
+    // Method to walk the trie for words within maxEdits of the query word. Row i of the table holds the edit
+    // distances between the i letters on the path to a node and each prefix of the query word, so a node's
+    // row is computed once from its parent's row for every word below it.
+    private void fuzzyMatches(String word, int maxEdits, Map<Postings, Expansion> found) {
+        int m = word.length();
+        int[][] rows = new int[m + maxEdits + 2][m + 1]; // A longer path is always more than maxEdits away
+        for (int j = 0; j <= m; j++) {
+            rows[0][j] = j;
+        }
+        trie.walk(WordTrie.ROOT, 0, word, maxEdits, rows, found);
+    }
+
+    // Method to get how many edits a query word may be from a dictionary word, none for short words and numbers
+    static int maxEdits(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isDigit(word.charAt(i))) {
+                return 0;
+            }
+        }
+        return word.length() < 3 ? 0 : word.length() <= 5 ? 1 : 2;
+    }
+
+    private static boolean isNumber(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (!Character.isDigit(word.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Method to split a lower-case text into its words, runs of letters and digits
+    static String[] words(String lowerText) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= lowerText.length(); i++) {
+            boolean inWord = i < lowerText.length() && Character.isLetterOrDigit(lowerText.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                words.add(lowerText.substring(start, i));
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    // Method to take a free accumulator large enough for every id, reused so a query does not allocate one
+    private Accumulator takeAccumulator() {
+        Accumulator accumulator = accumulators.poll();
+        if (accumulator == null || accumulator.scores.length < lengths.length) {
+            accumulator = new Accumulator(lengths.length);
+        }
+        return accumulator;
+    }
+
+    // Inner class representing a trie of words kept in arrays: each node has a letter, its first child and its
+    // next sibling. Words are added in place; a removed word only loses its postings, its nodes stay.
+    private static final class WordTrie {
+        static final int ROOT = 0;
+
+        private char[] letters = new char[1024];
+        private int[] firstChild = new int[1024];
+        private int[] nextSibling = new int[1024];
+        private Postings[] postings = new Postings[1024];
+        private int size = 1;
+
+        WordTrie() {
+            firstChild[ROOT] = -1;
+            nextSibling[ROOT] = -1;
+        }
+
+        // Method to set the postings of a word, null when the word is removed
+        void put(String word, Postings wordPostings) {
+            int node = ROOT;
+            for (int i = 0; i < word.length(); i++) {
+                int child = child(node, word.charAt(i));
+                if (child < 0) {
+                    if (wordPostings == null) {
+                        return;
+                    }
+                    child = newNode(word.charAt(i), node);
+                }
+                node = child;
+            }
+            postings[node] = wordPostings;
+        }
+
+        // Method to call the consumer with the postings of every word that starts with the prefix but is longer
+        void completions(String prefix, Consumer<Postings> consumer) {
+            int node = ROOT;
+            for (int i = 0; i < prefix.length() && node >= 0; i++) {
+                node = child(node, prefix.charAt(i));
+            }
+            if (node >= 0) {
+                collect(firstChild[node], consumer);
+            }
+        }
+
+        private void collect(int node, Consumer<Postings> consumer) {
+            for (; node >= 0; node = nextSibling[node]) {
+                if (postings[node] != null) {
+                    consumer.accept(postings[node]);
+                }
+                collect(firstChild[node], consumer);
+            }
+        }
+
+        // Method to visit the children of a node whose row is rows[depth], computing each child's row and
+        // going down only while some cell is within maxEdits
+        void walk(int node, int depth, String word, int maxEdits, int[][] rows, Map<Postings, Expansion> found) {
+            int m = word.length();
+            int[] above = rows[depth];
+            int[] row = rows[depth + 1];
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                char c = letters[child];
+                row[0] = depth + 1;
+                int minimum = row[0];
+                for (int j = 1; j <= m; j++) {
+                    int cost = word.charAt(j - 1) == c ? 0 : 1;
+                    row[j] = Math.min(Math.min(above[j] + 1, row[j - 1] + 1), above[j - 1] + cost);
+                    minimum = Math.min(minimum, row[j]);
+                }
+                if (minimum > maxEdits) {
+                    continue;  // No word below this node can match
+                }
+                if (postings[child] != null && row[m] <= maxEdits) {
+                    found.put(postings[child], new Expansion(postings[child], 1f / (1 + row[m])));
+                }
+                walk(child, depth + 1, word, maxEdits, rows, found);
+            }
+        }
+
+        private int child(int node, char letter) {
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                if (letters[child] == letter) {
+                    return child;
+                }
+            }
+            return -1;
+        }
+
+        private int newNode(char letter, int parent) {
+            if (size == letters.length) {
+                letters = Arrays.copyOf(letters, size * 2);
+                firstChild = Arrays.copyOf(firstChild, size * 2);
+                nextSibling = Arrays.copyOf(nextSibling, size * 2);
+                postings = Arrays.copyOf(postings, size * 2);
+            }
+            int node = size++;
+            letters[node] = letter;
+            firstChild[node] = -1;
+            nextSibling[node] = firstChild[parent];
+            firstChild[parent] = node;
+            return node;
+        }
+    }
+
+    // Inner class holding a dictionary word's postings and how much a match on it counts
+    private static final class Expansion {
+        final Postings postings;
+        final float weight;
+
+        Expansion(Postings postings, float weight) {
+            this.postings = postings;
+            this.weight = weight;
+        }
+
+        // Method to get what a match on this word is multiplied by: its rarity in a catalog of count names,
+        // its weight and the BM25 constant
+        float factor(int count) {
+            float idf = (float) Math.log(1 + (count - postings.size + 0.5) / (postings.size + 0.5));
+            return idf * weight * (K1 + 1);
+        }
+    }
+
+    // Inner class holding the dictionary words of one query word, how many postings they have and the most
+    // the query word can add to a name's score
+    private static final class QueryWord {
+        final List<Expansion> expansions;
+        final float[] factors; // Factor of each expansion
+        final long postingsCount;
+        final float bound;
+
+        QueryWord(List<Expansion> expansions, int count, float shortestNorm) {
+            this.expansions = expansions;
+            this.factors = new float[expansions.size()];
+            long total = 0;
+            float maximum = 0;
+            for (int e = 0; e < expansions.size(); e++) {
+                Expansion expansion = expansions.get(e);
+                int frequency = expansion.postings.maxFrequency;
+                factors[e] = expansion.factor(count);
+                total += expansion.postings.size;
+                // The score grows with the frequency and shrinks with the length, a name has at least one word
+                maximum = Math.max(maximum, factors[e] * frequency / (frequency + shortestNorm));
+            }
+            this.postingsCount = total;
+            this.bound = maximum;
+        }
+    }
+
+    // Inner class holding the sorted ids of the names that have one word and how often each has it
+    private static final class Postings {
+        int[] ids = new int[2];
+        byte[] frequencies = new byte[2];
+        int size;
+        int maxFrequency; // Highest frequency ever added, never lowered so it stays an upper bound
+        Impact[] impacts; // The ids again by frequency and name length, once the list is long
+        int impactCount;
+
+        // Method to add an id with its frequency, lengths holds the number of words of each name
+        void add(int id, int frequency, byte[] lengths) {
+            int position = size > 0 && ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                position = -position - 1;
+            } else if (position < size) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            System.arraycopy(frequencies, position, frequencies, position + 1, size - position);
+            ids[position] = id;
+            frequencies[position] = (byte) Math.min(frequency, Byte.MAX_VALUE);
+            maxFrequency = Math.max(maxFrequency, frequencies[position]);
+            size++;
+            if (impacts != null) {
+                impact(frequencies[position], lengths[id] & 0xff).add(id);
+            } else if (size == IMPACT_POSTINGS) {
+                impacts = new Impact[8];
+                for (int i = 0; i < size; i++) {
+                    impact(frequencies[i], lengths[ids[i]] & 0xff).add(ids[i]);
+                }
+            }
+        }
+
+        // Method to get the impact of a frequency and name length, added if the list has none yet
+        private Impact impact(int frequency, int length) {
+            for (int i = 0; i < impactCount; i++) {
+                if (impacts[i].frequency == frequency && impacts[i].length == length) {
+                    return impacts[i];
+                }
+            }
+            if (impactCount == impacts.length) {
+                impacts = Arrays.copyOf(impacts, impactCount * 2);
+            }
+            impacts[impactCount] = new Impact(frequency, length);
+            return impacts[impactCount++];
+        }
+
+        // Method to find an id at or after a position, galloping ahead before the binary search
+        int find(int id, int from) {
+            int step = 1;
+            int low = from;
+            while (from + step < size && ids[from + step] < id) {
+                low = from + step;
+                step <<= 1;
+            }
+            return Arrays.binarySearch(ids, low, Math.min(size, from + step + 1), id);
+        }
+
+        // Method to remove an id, lengths still holds the number of words of its name
+        boolean remove(int id, byte[] lengths) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            if (impacts != null) {
+                impact(frequencies[position], lengths[id] & 0xff).remove(id);
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            System.arraycopy(frequencies, position + 1, frequencies, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+
+    // Inner class holding the sorted ids of the names that have a word with the same frequency and length,
+    // which all score the same for the word
+    private static final class Impact {
+        final int frequency;
+        final int length;
+        int[] ids = new int[8];
+        int size;
+
+        Impact(int frequency, int length) {
+            this.frequency = frequency;
+            this.length = length;
+        }
+
+        void add(int id) {
+            int position = size > 0 && ids[size - 1] < id ? size : -Arrays.binarySearch(ids, 0, size, id) - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+                size--;
+            }
+        }
+    }
+
+    // Inner class holding an impact read by a query, the query word it is for and what its names score
+    private static final class Segment {
+        final int word;
+        final float score;
+        final Impact impact;
+
+        Segment(int word, float score, Impact impact) {
+            this.word = word;
+            this.score = score;
+            this.impact = impact;
+        }
+    }
+
+    // Inner class holding the score of every name touched by a query. Only the touched ids are read and
+    // reset afterwards, so clearing costs as much as the query did.
+    private static final class Accumulator {
+        final float[] scores;
+        final float[] group; // Best score of each name for the current query word
+        final int[] slots; // Slot of each name read from impacts plus one, 0 for none
+        int[] slotIds = new int[1024]; // Names read from impacts, with their sums and query words seen
+        float[] slotScores = new float[1024];
+        int[] slotSeen = new int[1024];
+        int slotCount;
+        int[] touched = new int[1024];
+        int touchedCount;
+        int[] groupTouched = new int[1024];
+        int groupTouchedCount;
+
+        Accumulator(int capacity) {
+            scores = new float[capacity];
+            group = new float[capacity];
+            slots = new int[capacity];
+        }
+
+        void add(int id, float score) {
+            if (scores[id] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = id;
+            }
+            scores[id] += score;
+        }
+
+        // Method to get the slot of a name read from impacts, taking the next one the first time. Slots are
+        // taken in reading order, so going through the names read does not jump around the id arrays.
+        int slot(int id) {
+            int slot = slots[id] - 1;
+            if (slot < 0) {
+                if (slotCount == slotIds.length) {
+                    slotIds = Arrays.copyOf(slotIds, slotCount * 2);
+                    slotScores = Arrays.copyOf(slotScores, slotCount * 2);
+                    slotSeen = Arrays.copyOf(slotSeen, slotCount * 2);
+                }
+                slot = slotCount++;
+                slots[id] = slot + 1;
+                slotIds[slot] = id;
+                slotScores[slot] = 0;
+                slotSeen[slot] = 0;
+            }
+            return slot;
+        }
+
+        // Method to offer every touched name and its score to the heap
+        void offerAll(TopK top) {
+            for (int i = 0; i < touchedCount; i++) {
+                top.offer(touched[i], scores[touched[i]]);
+            }
+        }
+
+        void addToGroup(int id, float score) {
+            if (group[id] == 0) {
+                if (groupTouchedCount == groupTouched.length) {
+                    groupTouched = Arrays.copyOf(groupTouched, groupTouchedCount * 2);
+                }
+                groupTouched[groupTouchedCount++] = id;
+            }
+            group[id] = Math.max(group[id], score);
+        }
+
+        // Method to add the best score of each name for the current query word
+        void mergeGroup() {
+            for (int i = 0; i < groupTouchedCount; i++) {
+                int id = groupTouched[i];
+                add(id, group[id]);
+                group[id] = 0;
+            }
+            groupTouchedCount = 0;
+        }
+
+        void clear() {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0;
+            }
+            for (int i = 0; i < slotCount; i++) {
+                slots[slotIds[i]] = 0;
+            }
+            slotCount = 0;
+            for (int i = 0; i < groupTouchedCount; i++) {
+                group[groupTouched[i]] = 0;
+            }
+            touchedCount = 0;
+            groupTouchedCount = 0;
+        }
+    }
+
+    // Inner class keeping the k best scores seen in a min-heap whose root is the worst of them
+    private static final class TopK {
+        private final int[] ids;
+        private final float[] scores;
+        private int size;
+
+        TopK(int k) {
+            ids = new int[k];
+            scores = new float[k];
+        }
+
+        void offer(int id, float score) {
+            if (size < ids.length) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!better(scores[parent], ids[parent], score, id)) {
+                        break;
+                    }
+                    ids[i] = ids[parent];
+                    scores[i] = scores[parent];
+                    i = parent;
+                }
+                ids[i] = id;
+                scores[i] = score;
+            } else if (better(score, id, scores[0], ids[0])) {
+                siftDown(id, score);
+            }
+        }
+
+        // Method to get the score a new entry has to beat: the worst one kept, or minus infinity until k are kept
+        float worstScore() {
+            return size < ids.length ? Float.NEGATIVE_INFINITY : scores[0];
+        }
+
+        // Method to empty the heap into an array of ids, best first
+        int[] sortedIds() {
+            int[] sorted = new int[size];
+            while (size > 0) {
+                sorted[size - 1] = ids[0];
+                size--;
+                if (size > 0) {
+                    siftDown(ids[size], scores[size]);
+                }
+            }
+            return sorted;
+        }
+
+        // Method to put an entry at the root and move it down below every entry that is worse
+        private void siftDown(int id, float score) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && better(scores[child], ids[child], scores[child + 1], ids[child + 1])) {
+                    child++;
+                }
+                if (!better(score, id, scores[child], ids[child])) {
+                    break;
+                }
+                ids[i] = ids[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            ids[i] = id;
+            scores[i] = score;
+        }
+
+        // Method to compare two matches: a higher score wins, then the earlier entry in the catalog
+        private static boolean better(float score, int id, float otherScore, int otherId) {
+            return score > otherScore || (score == otherScore && id < otherId);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+/* ScenarioPanel class is the what-if view of the calculator. Each input of the footprint formula, the three
+   amounts and their emission factors, gets a range, a number of steps and a distribution. The scenarios are
+   either swept over the grid of every step or drawn at random from the distributions, and ScenarioSimulator
+   runs them on every core while the table shows the footprint distribution so far and how many scenarios
+   land in each advice band. */
+
+//package OOP_Program;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ScenarioPanel extends JPanel {
+    private static final String[] PARAMETER_NAMES = {"Transportation (km)", "Energy (kWh)", "Food (kg)",
+        "Transport factor (kg CO2/km)", "Electricity factor (kg CO2/kWh)", "Food factor (kg CO2/kg)"};
+    private static final int[] DEFAULT_STEPS = {100, 100, 100, 10, 10, 1}; // 100 million grid points
+    private static final String GRID = "Grid sweep";
+    private static final String MONTE_CARLO = "Monte Carlo";
+
+    private final JTextField[] fromFields = new JTextField[ScenarioSimulator.PARAMETERS];
+    private final JTextField[] toFields = new JTextField[ScenarioSimulator.PARAMETERS];
+    private final JTextField[] stepsFields = new JTextField[ScenarioSimulator.PARAMETERS];
+    private final List<JComboBox<String>> distributionBoxes = new ArrayList<>();
+    private final JComboBox<String> modeBox = new JComboBox<>(new String[] {GRID, MONTE_CARLO});
+    private final JTextField samplesField = new JTextField("100000000", 10);
+    private final JButton runButton = new JButton("Run");
+    private final JProgressBar progressBar = new JProgressBar(0, 1000);
+    private final JLabel statusLabel = new JLabel("Set the ranges and press Run.");
+    private final DefaultTableModel resultModel;
+    private SimulationWorker currentRun; // Run in progress, only touched on the EDT
+
+    // Constructor for ScenarioPanel, from and to hold the starting range of each parameter
+    public ScenarioPanel(double[] from, double[] to) {
+        super(new BorderLayout(5, 5));
+
+        JPanel rangePanel = new JPanel(new GridLayout(ScenarioSimulator.PARAMETERS + 1, 5, 5, 2));
+        for (String header : new String[] {"", "From", "To", "Steps", "Distribution"}) {
+            rangePanel.add(new JLabel(header));
+        }
+        for (int p = 0; p < ScenarioSimulator.PARAMETERS; p++) {
+            fromFields[p] = new JTextField(String.valueOf(from[p]));
+            toFields[p] = new JTextField(String.valueOf(to[p]));
+            stepsFields[p] = new JTextField(String.valueOf(DEFAULT_STEPS[p]));
+            JComboBox<String> distributionBox = new JComboBox<>(new String[] {"Uniform", "Normal"});
+            distributionBox.setToolTipText("For random draws: uniform between From and To, or normal with 95% of"
+                    + " the values between them");
+            distributionBoxes.add(distributionBox);
+            rangePanel.add(new JLabel(PARAMETER_NAMES[p]));
+            rangePanel.add(fromFields[p]);
+            rangePanel.add(toFields[p]);
+            rangePanel.add(stepsFields[p]);
+            rangePanel.add(distributionBox);
+        }
+
+        // Start a run, or stop the one in progress
+        runButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                if (currentRun != null) {
+                    stop();
+                } else {
+                    startRun();
+                }
+            }
+        });
+
+        JPanel runPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        runPanel.add(modeBox);
+        runPanel.add(new JLabel("Random scenarios:"));
+        runPanel.add(samplesField);
+        runPanel.add(runButton);
+
+        JPanel settingsPanel = new JPanel(new BorderLayout(5, 5));
+        settingsPanel.add(rangePanel, BorderLayout.CENTER);
+        settingsPanel.add(runPanel, BorderLayout.SOUTH);
+
+        resultModel = new DefaultTableModel(new Object[] {"Statistic", "Value"}, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JScrollPane resultPane = new JScrollPane(new JTable(resultModel));
+        resultPane.setPreferredSize(new Dimension(650, 220));
+
+        JPanel statusPanel = new JPanel(new BorderLayout(5, 5));
+        statusPanel.add(progressBar, BorderLayout.NORTH);
+        statusPanel.add(statusLabel, BorderLayout.SOUTH);
+
+        add(settingsPanel, BorderLayout.NORTH);
+        add(resultPane, BorderLayout.CENTER);
+        add(statusPanel, BorderLayout.SOUTH);
+    }
+
+    // Method to stop the run in progress, if any, the table keeps its last summary
+    public void stop() {
+        if (currentRun != null) {
+            currentRun.cancel(true);
+        }
+    }
+
+    // Method to read the ranges and start a run in the background
+    private void startRun() {
+        ScenarioSimulator simulator;
+        long scenarios;
+        try {
+            ScenarioSimulator.Parameter[] parameters = new ScenarioSimulator.Parameter[ScenarioSimulator.PARAMETERS];
+            for (int p = 0; p < parameters.length; p++) {
+                double low = Double.parseDouble(fromFields[p].getText().trim());
+                double high = Double.parseDouble(toFields[p].getText().trim());
+                int steps = Integer.parseInt(stepsFields[p].getText().trim());
+                parameters[p] = distributionBoxes.get(p).getSelectedIndex() == 0
+                        ? ScenarioSimulator.Parameter.range(low, high, steps)
+                        : ScenarioSimulator.Parameter.normal(low, high, steps);
+            }
+            simulator = new ScenarioSimulator(parameters, FootprintStatistics.getDefault().getThresholds());
+            scenarios = GRID.equals(modeBox.getSelectedItem()) ? simulator.getGridPoints()
+                    : Long.parseLong(samplesField.getText().trim());
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            // Display an error message for incorrect data format, or a grid too large to count
+            JOptionPane.showMessageDialog(this, "Please insert a correct form of data.");
+            return;
+        }
+
+        resultModel.setRowCount(0);
+        progressBar.setValue(0);
+        runButton.setText("Stop");
+        statusLabel.setText("Running " + String.format("%,d", scenarios) + " scenarios...");
+        currentRun = new SimulationWorker(simulator, scenarios, GRID.equals(modeBox.getSelectedItem()));
+        currentRun.execute();
+    }
+
+    // Method to show a summary in the table
+    private void showSummary(ScenarioSimulator.Summary summary, long scenarios) {
+        FootprintStatistics.Thresholds thresholds = summary.getThresholds();
+        resultModel.setRowCount(0);
+        resultModel.addRow(new Object[] {"Scenarios", String.format("%,d", summary.getCount())});
+        resultModel.addRow(new Object[] {"Mean", kilograms(summary.getMean())});
+        resultModel.addRow(new Object[] {"Standard deviation", kilograms(summary.getStandardDeviation())});
+        resultModel.addRow(new Object[] {"Lowest", kilograms(summary.getMin())});
+        resultModel.addRow(new Object[] {"5th percentile", kilograms(summary.quantile(0.05))});
+        resultModel.addRow(new Object[] {"Median", kilograms(summary.quantile(0.5))});
+        resultModel.addRow(new Object[] {"95th percentile", kilograms(summary.quantile(0.95))});
+        resultModel.addRow(new Object[] {"Highest", kilograms(summary.getMax())});
+        resultModel.addRow(new Object[] {"Below average (up to " + kilograms(thresholds.getLow()) + ")",
+            share(summary, FootprintStatistics.Band.BELOW_AVERAGE)});
+        resultModel.addRow(new Object[] {"Average (up to " + kilograms(thresholds.getHigh()) + ")",
+            share(summary, FootprintStatistics.Band.AVERAGE)});
+        resultModel.addRow(new Object[] {"Above average", share(summary, FootprintStatistics.Band.ABOVE_AVERAGE)});
+        progressBar.setValue((int) (1000 * summary.getCount() / Math.max(1, scenarios)));
+    }
+
+    private static String kilograms(double value) {
+        return String.format("%,.2f kg CO2", value);
+    }
+
+    // Method to format how many scenarios are in a band and their share of all of them
+    private static String share(ScenarioSimulator.Summary summary, FootprintStatistics.Band band) {
+        long count = summary.getBandCount(band);
+        return String.format("%,d (%.1f%%)", count, 100.0 * count / Math.max(1, summary.getCount()));
+    }
+
+    // Inner class running the scenarios off the EDT and publishing the summary after each round
+    private class SimulationWorker extends SwingWorker<ScenarioSimulator.Summary, ScenarioSimulator.Summary> {
+        private final ScenarioSimulator simulator;
+        private final long scenarios;
+        private final boolean grid;
+        private final long start = System.nanoTime();
+
+        SimulationWorker(ScenarioSimulator simulator, long scenarios, boolean grid) {
+            this.simulator = simulator;
+            this.scenarios = scenarios;
+            this.grid = grid;
+        }
+
+        @Override
+        protected ScenarioSimulator.Summary doInBackground() throws InterruptedException {
+            if (grid) {
+                return simulator.sweep(summary -> publish(summary));
+            }
+            return simulator.sample(scenarios, System.nanoTime(), summary -> publish(summary));
+        }
+
+        @Override
+        protected void process(List<ScenarioSimulator.Summary> summaries) {
+            if (this == currentRun) {
+                showSummary(summaries.get(summaries.size() - 1), scenarios); // Only the latest is shown
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (this != currentRun) {
+                return;
+            }
+            currentRun = null;
+            runButton.setText("Run");
+            if (isCancelled()) {
+                statusLabel.setText("Stopped.");
+                return;
+            }
+            try {
+                ScenarioSimulator.Summary summary = get();
+                showSummary(summary, scenarios);
+                statusLabel.setText(String.format("%,d scenarios in %.2f s", summary.getCount(),
+                        (System.nanoTime() - start) / 1e9));
+            } catch (Exception e) {
+                statusLabel.setText("The simulation failed: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/* ScenarioSimulator class runs what-if scenarios through the footprint formula: each of the transport,
+   electricity and food amounts and their emission factors is given a range, and the simulator either sweeps a
+   grid of evenly spaced values over every range or draws random points from them, uniformly or from a normal
+   distribution. The points are evaluated on the common ForkJoin pool: the work is split in half until a task
+   has a few ten thousand points, and for random points every split hands the new task its own
+   SplittableRandom, so no two threads share one and the same seed always gives the same result. The inner
+   loops allocate nothing; a task adds its points to plain sums and a fixed histogram, and the task
+   summaries are merged on the way back up. The run is cut into rounds and the summary so far is passed on
+   after each one, so a view can show the distribution while it fills in. Every point is also put in the
+   advice band it would get, with the band limits of FootprintStatistics at the start of the run. */
+
+//package OOP_Program;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Consumer;
+
+public class ScenarioSimulator {
+    public static final int TRANSPORT = 0;
+    public static final int ELECTRICITY = 1;
+    public static final int FOOD = 2;
+    public static final int TRANSPORT_FACTOR = 3;
+    public static final int ELECTRICITY_FACTOR = 4;
+    public static final int FOOD_FACTOR = 5;
+    public static final int PARAMETERS = 6;
+    private static final int BINS = 512; // Histogram bins between the lowest and highest footprint expected
+    private static final long TASK_POINTS = 1 << 16; // Points evaluated by one task
+    private static final long MIN_ROUND_POINTS = 1 << 22; // Points between two progress updates, at least
+    private static final int MAX_ROUNDS = 100;
+
+    private final Parameter[] parameters;
+    private final int[] sweepOrder; // Parameters in the order a sweep counts through them, fastest last
+    private final FootprintStatistics.Thresholds thresholds;
+    private final double histogramLow;
+    private final double binWidth;
+
+    // Constructor for ScenarioSimulator, parameters are indexed by TRANSPORT to FOOD_FACTOR
+    public ScenarioSimulator(Parameter[] parameters, FootprintStatistics.Thresholds thresholds) {
+        if (parameters.length != PARAMETERS) {
+            throw new IllegalArgumentException("Expected " + PARAMETERS + " parameters, got " + parameters.length);
+        }
+        this.parameters = parameters.clone();
+        this.thresholds = thresholds;
+        int inner = 0;
+        for (int p = 1; p < PARAMETERS; p++) {
+            if (parameters[p].steps > parameters[inner].steps) {
+                inner = p;
+            }
+        }
+        sweepOrder = new int[PARAMETERS];
+        for (int p = 0, digit = 0; p < PARAMETERS; p++) {
+            if (p != inner) {
+                sweepOrder[digit++] = p;
+            }
+        }
+        sweepOrder[PARAMETERS - 1] = inner;
+
+        // Each product is lowest and highest at a corner of its two ranges
+        double low = 0;
+        double high = 0;
+        for (int amount = TRANSPORT; amount <= FOOD; amount++) {
+            Parameter a = parameters[amount];
+            Parameter b = parameters[amount + TRANSPORT_FACTOR];
+            double[] corners = {a.lowest() * b.lowest(), a.lowest() * b.highest(), a.highest() * b.lowest(),
+                a.highest() * b.highest()};
+            double lowest = corners[0];
+            double highest = corners[0];
+            for (double corner : corners) {
+                lowest = Math.min(lowest, corner);
+                highest = Math.max(highest, corner);
+            }
+            low += lowest;
+            high += highest;
+        }
+        histogramLow = low;
+        binWidth = high > low ? (high - low) / BINS : 1;
+    }
+
+    // Method to get how many points a grid sweep evaluates, the product of every parameter's steps
+    public long getGridPoints() {
+        long points = 1;
+        for (Parameter parameter : parameters) {
+            points = Math.multiplyExact(points, parameter.steps);
+        }
+        return points;
+    }
+
+    // Method to evaluate every point of the grid, progress gets a copy of the summary after each round
+    public Summary sweep(Consumer<Summary> progress) throws InterruptedException {
+        return run(getGridPoints(), null, progress);
+    }
+
+    // Method to evaluate random points drawn from the parameters' distributions
+    public Summary sample(long points, long seed, Consumer<Summary> progress) throws InterruptedException {
+        return run(points, new SplittableRandom(seed), progress);
+    }
+
+    // Method to evaluate the points in rounds on the ForkJoin pool, stopping between rounds if interrupted
+    private Summary run(long points, SplittableRandom random, Consumer<Summary> progress)
+            throws InterruptedException {
+        Summary summary = newSummary();
+        long roundPoints = Math.max(MIN_ROUND_POINTS, (points + MAX_ROUNDS - 1) / MAX_ROUNDS);
+        for (long from = 0; from < points; from += roundPoints) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            long to = Math.min(points, from + roundPoints);
+            summary.merge(ForkJoinPool.commonPool().invoke(
+                    new PointTask(from, to, random == null ? null : random.split())));
+            if (progress != null) {
+                progress.accept(summary.copy());
+            }
+        }
+        return summary;
+    }
+
+    private Summary newSummary() {
+        return new Summary(histogramLow, binWidth, thresholds);
+    }
+
+    // Inner class representing the values one input of the formula takes in the scenarios
+    public static final class Parameter {
+        private final boolean normal;
+        private final double low;
+        private final double high;
+        private final int steps;
+        private final double increment; // Between two steps of the sweep
+
+        private Parameter(boolean normal, double low, double high, int steps) {
+            if (!(low <= high) || steps < 1) {
+                throw new IllegalArgumentException("Invalid range " + low + " to " + high + " in " + steps + " steps");
+            }
+            this.normal = normal;
+            this.low = low;
+            this.high = high;
+            this.steps = low == high ? 1 : steps;
+            increment = this.steps == 1 ? 0 : (high - low) / (this.steps - 1);
+        }
+
+        // Method to create a parameter that keeps one value
+        public static Parameter fixed(double value) {
+            return new Parameter(false, value, value, 1);
+        }
+
+        // Method to create a parameter swept in steps from low to high, or drawn uniformly between them
+        public static Parameter range(double low, double high, int steps) {
+            return new Parameter(false, low, high, steps);
+        }
+
+        // Method to create a parameter swept like a range, or drawn from the normal distribution that puts 95%
+        // of its values between low and high. Draws below zero are taken as zero.
+        public static Parameter normal(double low, double high, int steps) {
+            return new Parameter(true, low, high, steps);
+        }
+
+        public int getSteps() {
+            return steps;
+        }
+
+        // Method to get the value at a step of the sweep
+        double value(int step) {
+            return low + increment * step;
+        }
+
+        // Method to draw a value
+        double sample(SplittableRandom random) {
+            if (low == high) {
+                return low;
+            }
+            if (normal) {
+                // 95% of a normal distribution is within 1.96 standard deviations of the mean
+                return Math.max(0, (low + high) / 2 + (high - low) / 3.92 * random.nextGaussian());
+            }
+            return low + (high - low) * random.nextDouble();
+        }
+
+        // Methods to get the bounds of the expected values, 4 standard deviations out for a normal distribution
+        double lowest() {
+            return normal ? Math.max(0, (low + high) / 2 - (high - low) * 4 / 3.92) : low;
+        }
+
+        double highest() {
+            return normal ? (low + high) / 2 + (high - low) * 4 / 3.92 : high;
+        }
+    }
+
+    // Inner class evaluating a range of points, splitting it in half until it is small enough
+    private class PointTask extends RecursiveTask<Summary> {
+        private final long from;
+        private final long to;
+        private final SplittableRandom random; // Null for a grid sweep
+
+        PointTask(long from, long to, SplittableRandom random) {
+            this.from = from;
+            this.to = to;
+            this.random = random;
+        }
+
+        @Override
+        protected Summary compute() {
+            if (to - from > TASK_POINTS) {
+                long middle = (from + to) >>> 1;
+                PointTask right = new PointTask(middle, to, random == null ? null : random.split());
+                right.fork();
+                Summary summary = new PointTask(from, middle, random).compute();
+                summary.merge(right.join());
+                return summary;
+            }
+            Summary summary = newSummary();
+            if (random == null) {
+                sweep(summary);
+            } else {
+                sample(summary);
+            }
+            return summary;
+        }
+
+        // Method to evaluate the grid points of the task. The parameters are counted through like the digits of a
+        // number whose last digit is the parameter with the most steps, so the point index is turned into one
+        // step per parameter once and the inner loop runs through that parameter with the others fixed.
+        private void sweep(Summary summary) {
+            int[] steps = new int[PARAMETERS];
+            double[] values = new double[PARAMETERS];
+            long rest = from;
+            for (int digit = PARAMETERS - 1; digit >= 0; digit--) {
+                int p = sweepOrder[digit];
+                steps[p] = (int) (rest % parameters[p].steps);
+                rest /= parameters[p].steps;
+                values[p] = parameters[p].value(steps[p]);
+            }
+            int inner = sweepOrder[PARAMETERS - 1];
+            Parameter innerParameter = parameters[inner];
+            Accumulator accumulator = new Accumulator(summary);
+            long point = from;
+            while (point < to) {
+                int end = (int) Math.min(innerParameter.steps, steps[inner] + (to - point));
+                for (int step = steps[inner]; step < end; step++) {
+                    values[inner] = innerParameter.value(step);
+                    accumulator.add(values[TRANSPORT] * values[TRANSPORT_FACTOR]
+                            + values[ELECTRICITY] * values[ELECTRICITY_FACTOR] + values[FOOD] * values[FOOD_FACTOR]);
+                }
+                point += end - steps[inner];
+                steps[inner] = end - 1;
+                for (int digit = PARAMETERS - 1; digit >= 0; digit--) { // Carry into the digits before
+                    int p = sweepOrder[digit];
+                    if (++steps[p] < parameters[p].steps) {
+                        values[p] = parameters[p].value(steps[p]);
+                        break;
+                    }
+                    steps[p] = 0;
+                    values[p] = parameters[p].value(0);
+                }
+            }
+            accumulator.finish();
+        }
+
+        // Method to evaluate the task's number of random points
+        private void sample(Summary summary) {
+            Parameter transport = parameters[TRANSPORT];
+            Parameter electricity = parameters[ELECTRICITY];
+            Parameter food = parameters[FOOD];
+            Parameter transportFactor = parameters[TRANSPORT_FACTOR];
+            Parameter electricityFactor = parameters[ELECTRICITY_FACTOR];
+            Parameter foodFactor = parameters[FOOD_FACTOR];
+            Accumulator accumulator = new Accumulator(summary);
+            for (long point = from; point < to; point++) {
+                accumulator.add(transport.sample(random) * transportFactor.sample(random)
+                        + electricity.sample(random) * electricityFactor.sample(random)
+                        + food.sample(random) * foodFactor.sample(random));
+            }
+            accumulator.finish();
+        }
+    }
+
+    // Inner class adding the footprints of one task to its summary, the sums are only written to it by finish
+    private static final class Accumulator {
+        private final Summary summary;
+        private final long[] histogram;
+        private final long[] bands;
+        private final double histogramLow;
+        private final double binsPerKilogram;
+        private final double low;
+        private final double high;
+        private long count;
+        private double sum;
+        private double sumOfSquares;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        Accumulator(Summary summary) {
+            this.summary = summary;
+            histogram = summary.histogram;
+            bands = summary.bands;
+            histogramLow = summary.histogramLow;
+            binsPerKilogram = 1 / summary.binWidth;
+            low = summary.thresholds.getLow();
+            high = summary.thresholds.getHigh();
+        }
+
+        void add(double footprint) {
+            count++;
+            double offset = footprint - histogramLow; // Summed from the lowest footprint to keep the precision
+            sum += offset;
+            sumOfSquares += offset * offset;
+            min = Math.min(min, footprint);
+            max = Math.max(max, footprint);
+            int bin = (int) (offset * binsPerKilogram);
+            histogram[Math.max(0, Math.min(BINS - 1, bin))]++;
+            bands[(footprint > low ? 1 : 0) + (footprint > high ? 1 : 0)]++;
+        }
+
+        void finish() {
+            summary.count += count;
+            summary.sum += sum;
+            summary.sumOfSquares += sumOfSquares;
+            summary.min = Math.min(summary.min, min);
+            summary.max = Math.max(summary.max, max);
+        }
+    }
+
+    // Inner class representing the distribution of the footprints evaluated so far
+    public static final class Summary {
+        private final double histogramLow;
+        private final double binWidth;
+        private final FootprintStatistics.Thresholds thresholds;
+        private final long[] histogram = new long[BINS];
+        private final long[] bands = new long[FootprintStatistics.Band.values().length];
+        private long count;
+        private double sum; // Of the footprints minus histogramLow
+        private double sumOfSquares;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        private Summary(double histogramLow, double binWidth, FootprintStatistics.Thresholds thresholds) {
+            this.histogramLow = histogramLow;
+            this.binWidth = binWidth;
+            this.thresholds = thresholds;
+        }
+
+        private void merge(Summary other) {
+            count += other.count;
+            sum += other.sum;
+            sumOfSquares += other.sumOfSquares;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            for (int i = 0; i < BINS; i++) {
+                histogram[i] += other.histogram[i];
+            }
+            for (int i = 0; i < bands.length; i++) {
+                bands[i] += other.bands[i];
+            }
+        }
+
+        private Summary copy() {
+            Summary copy = new Summary(histogramLow, binWidth, thresholds);
+            copy.merge(this);
+            return copy;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return count == 0 ? Double.NaN : histogramLow + sum / count;
+        }
+
+        public double getStandardDeviation() {
+            if (count < 2) {
+                return 0;
+            }
+            return Math.sqrt(Math.max(0, (sumOfSquares - sum * sum / count) / (count - 1)));
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        // Method to estimate a quantile from the histogram, interpolating inside the bin it falls in
+        public double quantile(double fraction) {
+            if (count == 0) {
+                return Double.NaN;
+            }
+            double rank = fraction * count;
+            long below = 0;
+            for (int i = 0; i < BINS; i++) {
+                if (below + histogram[i] >= rank && histogram[i] > 0) {
+                    double value = histogramLow + binWidth * (i + (rank - below) / histogram[i]);
+                    return Math.max(min, Math.min(max, value));
+                }
+                below += histogram[i];
+            }
+            return max;
+        }
+
+        // Method to get how many of the footprints fall in an advice band
+        public long getBandCount(FootprintStatistics.Band band) {
+            return bands[band.ordinal()];
+        }
+
+        // Getter method for the band limits the footprints were sorted by
+        public FootprintStatistics.Thresholds getThresholds() {
+            return thresholds;
+        }
+    }
+}
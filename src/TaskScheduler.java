@@ -0,0 +1,155 @@
+/* TaskScheduler class runs the slow work behind the buttons of every window away from the event dispatch
+   thread (EDT). Each task gets its own virtual thread, and its result is handed back to the EDT with
+   invokeLater, like a SwingWorker's done method, so the window can be updated safely. A task that fails
+   without an error handler of its own has its error printed rather than left in a Future nobody reads. A
+   watchdog thread also measures how long the EDT is kept busy: it posts a small event every 100 ms and records
+   how late it runs, printing the EDT's stack when a single stall is long enough for the user to notice. */
+
+//package OOP_Program;
+
+import javax.swing.*;
+import java.awt.*;
+import java.net.URI;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.function.Consumer;
+
+public class TaskScheduler {
+    private static final long PROBE_MILLIS = 100; // How often the watchdog checks the EDT
+    private static final long STALL_MILLIS = 100; // Delay after which the EDT counts as blocked
+    private static final long REPORT_MILLIS = 500; // Stalls at least this long are printed with the EDT's stack
+
+    private static final ExecutorService EXECUTOR = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("task-", 0).factory());
+
+    private static final AtomicLong stallCount = new AtomicLong();
+    private static final AtomicLong blockedMillis = new AtomicLong();
+    private static final LongAccumulator longestStallMillis = new LongAccumulator(Math::max, 0);
+    private static Thread watchdog;
+
+    private TaskScheduler() {
+    }
+
+    // Method to run work in the background and pass its result to onDone on the EDT, or its error to onError.
+    // Errors of work without an onError are printed.
+    public static <T> Future<T> submit(Callable<T> work, Consumer<T> onDone, Consumer<Throwable> onError) {
+        return EXECUTOR.submit(() -> {
+            T result;
+            try {
+                result = work.call();
+            } catch (Throwable e) {
+                if (onError != null) {
+                    SwingUtilities.invokeLater(() -> onError.accept(e));
+                } else {
+                    reportError(e);
+                }
+                throw e;
+            }
+            if (onDone != null) {
+                SwingUtilities.invokeLater(() -> onDone.accept(result));
+            }
+            return result;
+        });
+    }
+
+    // Method to run work in the background when nothing has to be shown afterwards
+    public static Future<?> execute(Runnable work) {
+        return EXECUTOR.submit(work);
+    }
+
+    // Method to open a webpage in the default browser without waiting for it on the EDT
+    public static void browse(Component parent, String url, String errorMessage) {
+        submit(() -> {
+            Desktop.getDesktop().browse(new URI(url));
+            return null;
+        }, null, e -> JOptionPane.showMessageDialog(parent, errorMessage));
+    }
+
+    // Method to start measuring how long the EDT is blocked, does nothing if it is already running
+    public static synchronized void monitorEdt() {
+        if (watchdog != null) {
+            return;
+        }
+        watchdog = new Thread(TaskScheduler::watchEdt, "edt-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    // Method run by the watchdog thread: post an empty event and wait for the EDT to reach it
+    private static void watchEdt() {
+        Thread[] edt = new Thread[1];
+        try {
+            while (true) {
+                long posted = System.nanoTime();
+                Object reached = new Object();
+                boolean[] done = new boolean[1];
+                SwingUtilities.invokeLater(() -> {
+                    synchronized (reached) {
+                        edt[0] = Thread.currentThread();
+                        done[0] = true;
+                        reached.notifyAll();
+                    }
+                });
+
+                boolean reported = false;
+                synchronized (reached) {
+                    while (!done[0]) {
+                        reached.wait(REPORT_MILLIS);
+                        if (!done[0] && !reported && edt[0] != null) {
+                            reportStall(edt[0], (System.nanoTime() - posted) / 1_000_000);
+                            reported = true;
+                        }
+                    }
+                }
+
+                long delay = (System.nanoTime() - posted) / 1_000_000;
+                if (delay >= STALL_MILLIS) {
+                    stallCount.incrementAndGet();
+                    blockedMillis.addAndGet(delay);
+                    longestStallMillis.accumulate(delay);
+                }
+                Thread.sleep(PROBE_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Method to print what the EDT is doing while it is blocked
+    private static void reportStall(Thread edt, long millis) {
+        StringBuilder message = new StringBuilder("EDT blocked for " + millis + " ms at:");
+        for (StackTraceElement element : edt.getStackTrace()) {
+            message.append(System.lineSeparator()).append("    at ").append(element);
+        }
+        System.err.println(message);
+    }
+
+    // Method to print the error of a task that has no error handler
+    private static void reportError(Throwable error) {
+        StringBuilder message = new StringBuilder("Background task " + Thread.currentThread().getName()
+                + " failed: " + error);
+        for (StackTraceElement element : error.getStackTrace()) {
+            message.append(System.lineSeparator()).append("    at ").append(element);
+        }
+        System.err.println(message);
+    }
+
+    // Method to get the number of times the EDT was blocked for at least 100 ms
+    public static long getEdtStallCount() {
+        return stallCount.get();
+    }
+
+    // Method to get the total time the EDT spent in those stalls
+    public static long getEdtBlockedMillis() {
+        return blockedMillis.get();
+    }
+
+    // Method to get the longest single stall of the EDT
+    public static long getLongestEdtStallMillis() {
+        return longestStallMillis.get();
+    }
+}
@@ -0,0 +1,124 @@
+/* UrlCanonicalizer class reduces the different spellings of a link to one canonical form, so the catalog can
+   tell that two entries point at the same page. The scheme is dropped when it is http or https, the host is
+   lower-cased without a leading "www." or trailing dot, default ports, fragments and trailing slashes are
+   removed, tracking parameters such as utm_source or fbclid are dropped and the remaining query parameters are
+   sorted. The path keeps its case because servers may treat it as case-sensitive. The canonical form is only
+   used as a key; the catalog still stores and opens the URL as it was entered. */
+
+//package OOP_Program;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+
+public final class UrlCanonicalizer {
+    // Query parameters that only record where a visitor came from
+    private static final Set<String> TRACKING_PARAMETERS = Set.of("gclid", "dclid", "fbclid", "msclkid", "yclid",
+            "igshid", "mc_cid", "mc_eid", "_ga", "_gl", "ref_src");
+
+    private UrlCanonicalizer() {
+    }
+
+    // Method to get the canonical form of a URL, text that is not a web address is only trimmed and lower-cased.
+    // A null URL is refused rather than given the key of the empty string.
+    public static String canonicalize(String url) {
+        String trimmed = Objects.requireNonNull(url, "url").strip();
+        URI uri;
+        try {
+            uri = new URI(trimmed);
+            if (uri.getScheme() == null && !trimmed.startsWith("/")) {
+                uri = new URI("http://" + trimmed); // "example.org/page" is read as a web address
+            }
+        } catch (URISyntaxException e) {
+            return trimmed.toLowerCase(Locale.ROOT);
+        }
+        String scheme = uri.getScheme() == null ? null : uri.getScheme().toLowerCase(Locale.ROOT);
+        String host = uri.getHost();
+        if (host == null) {
+            return trimmed.toLowerCase(Locale.ROOT);
+        }
+
+        StringBuilder canonical = new StringBuilder(trimmed.length());
+        boolean web = "http".equals(scheme) || "https".equals(scheme);
+        if (!web) {
+            canonical.append(scheme).append("://");
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        if (host.endsWith(".")) {
+            host = host.substring(0, host.length() - 1);
+        }
+        if (host.startsWith("www.")) {
+            host = host.substring(4);
+        }
+        canonical.append(host);
+        int port = uri.getPort();
+        if (port != -1 && !(web && (port == 80 || port == 443))) {
+            canonical.append(':').append(port);
+        }
+
+        String path = uri.getRawPath() == null ? "" : uri.getRawPath();
+        int end = path.length();
+        while (end > 0 && path.charAt(end - 1) == '/') {
+            end--;
+        }
+        appendUpperCaseEscapes(canonical, path, end);
+
+        String query = uri.getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            String[] parameters = query.split("&");
+            int kept = 0;
+            for (String parameter : parameters) {
+                if (!parameter.isEmpty() && !isTracking(parameter)) {
+                    parameters[kept++] = parameter;
+                }
+            }
+            Arrays.sort(parameters, 0, kept);
+            for (int i = 0; i < kept; i++) {
+                canonical.append(i == 0 ? '?' : '&').append(parameters[i]);
+            }
+        }
+        return canonical.toString();
+    }
+
+    // Method to get the 64-bit fingerprint of the canonical form of a URL
+    public static long fingerprint(String url) {
+        return hash(canonicalize(url));
+    }
+
+    // Method to hash a string to 64 bits: FNV-1a over the characters followed by the MurmurHash3 finalizer
+    static long hash(String text) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static boolean isTracking(String parameter) {
+        int equals = parameter.indexOf('=');
+        String name = (equals < 0 ? parameter : parameter.substring(0, equals)).toLowerCase(Locale.ROOT);
+        return name.startsWith("utm_") || TRACKING_PARAMETERS.contains(name);
+    }
+
+    // Method to append a path with the hex digits of its percent escapes in upper case, so %2f and %2F match
+    private static void appendUpperCaseEscapes(StringBuilder canonical, String path, int end) {
+        for (int i = 0; i < end; i++) {
+            char c = path.charAt(i);
+            canonical.append(c);
+            if (c == '%' && i + 2 < end) {
+                canonical.append(Character.toUpperCase(path.charAt(i + 1)))
+                        .append(Character.toUpperCase(path.charAt(i + 2)));
+                i += 2;
+            }
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/* UrlCatalog class is the shared URL catalog edited by AdminInterface and read by UserInterface. The
+   current contents are an immutable PersistentSequence published through a volatile field: readers just take
+   the latest snapshot without locking, and each upload, edit or delete builds the next snapshot while sharing
+   the rest with the previous one. By default the snapshot is a PersistentList of UrlInfo objects; with the
+   catalog.packed property set to true it is a PackedUrlList, which keeps the entries as packed records and
+   uses a fraction of the heap for catalogs of millions of URLs: the search index then keeps record addresses
+   rather than entries, and the store is moved to new pages once most of its records were edited or deleted.
+   Changes are saved by UrlCatalogStore and kept in a UrlSearchIndex for keyword search. The fingerprint of
+   each canonical URL is kept in a FingerprintSet, so an upload or import of a link that is already in the
+   catalog is refused in O(1). Every change is also published to a CatalogChangeFeed, which open views
+   subscribe to. */
+
+//package OOP_Program;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+public class UrlCatalog {
+    private static final Metrics.Timer ADD_TIMER = Metrics.timer("catalog_add_seconds", "Time to add a catalog entry");
+    private static final Metrics.Timer ADD_BATCH_TIMER = Metrics.timer("catalog_add_batch_seconds",
+            "Time to add a batch of imported catalog entries");
+    private static final Metrics.Timer EDIT_TIMER = Metrics.timer("catalog_edit_seconds", "Time to edit a catalog entry");
+    private static final Metrics.Timer DELETE_TIMER = Metrics.timer("catalog_delete_seconds",
+            "Time to delete a catalog entry");
+    private static final Metrics.Counter DUPLICATES = Metrics.counter("catalog_duplicates_refused_total",
+            "Uploaded or imported URLs refused because the catalog already has them");
+
+    private static UrlCatalog defaultCatalog;
+
+    private final UrlCatalogStore store; // Null when the catalog is not saved
+    private final UrlSearchIndex searchIndex;
+    private FingerprintSet fingerprints; // Canonical URLs in the catalog, guarded by this
+    private final boolean packed; // Whether snapshots are PackedUrlLists
+    private volatile PersistentSequence<AdminInterface.UrlInfo> snapshot;
+    private final CatalogChangeFeed changes;
+    private int nextId;  // Id for the next added entry, ids grow in catalog order
+
+    // Constructor for UrlCatalog, starts from the entries saved in the store
+    public UrlCatalog(UrlCatalogStore store) {
+        this(store, false);
+    }
+
+    // Constructor for UrlCatalog, keeps the entries as packed records when packed is true
+    public UrlCatalog(UrlCatalogStore store, boolean packed) {
+        this.store = store;
+        this.packed = packed;
+        this.searchIndex = new UrlSearchIndex(packed);
+        List<AdminInterface.UrlInfo> entries = store == null ? List.of() : store.load();
+        fingerprints = new FingerprintSet(entries.size());
+        for (AdminInterface.UrlInfo urlInfo : entries) {
+            urlInfo.id = nextId++;
+            fingerprints.add(UrlCanonicalizer.fingerprint(urlInfo.getUrl()));
+        }
+        this.snapshot = newSnapshot(entries);
+        for (AdminInterface.UrlInfo urlInfo : snapshot) {
+            searchIndex.add(urlInfo); // Packed entries are indexed by their records, not by the loaded objects
+        }
+        this.changes = new CatalogChangeFeed(snapshot);
+    }
+
+    // Method to get the catalog shared by every frame, loaded from disk the first time it is used
+    public static synchronized UrlCatalog getDefault() {
+        if (defaultCatalog == null) {
+            UrlCatalogStore store = null;
+            try {
+                store = UrlCatalogStore.getDefault();
+            } catch (IOException e) {
+                System.err.println("Cannot load the saved URLs, changes will not be saved: " + e.getMessage());
+            }
+            defaultCatalog = new UrlCatalog(store, Boolean.getBoolean("catalog.packed"));
+            UrlCatalog catalog = defaultCatalog;
+            Metrics.gauge("catalog_entries", "Entries in the URL catalog", () -> catalog.snapshot().size());
+        }
+        return defaultCatalog;
+    }
+
+    // Method to get the current contents, the returned list never changes
+    public PersistentSequence<AdminInterface.UrlInfo> snapshot() {
+        return snapshot;
+    }
+
+    // Method to receive every change after the snapshot returned by the subscription, on the given executor
+    public CatalogChangeFeed.Subscription subscribe(CatalogChangeFeed.Listener listener, Executor executor) {
+        return changes.subscribe(listener, executor);
+    }
+
+    // Method to find the entries whose name contains the keyword, ignoring case, in catalog order
+    public List<AdminInterface.UrlInfo> search(String keyword) {
+        return searchIndex.searchSubstring(keyword);
+    }
+
+    // Method to find the first entries whose name contains the keyword, stopping once the limit is reached
+    public List<AdminInterface.UrlInfo> search(String keyword, int limit) {
+        return searchIndex.searchSubstring(keyword, limit);
+    }
+
+    // Getter method for the index, which also answers prefix and multi-term queries
+    public UrlSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    // Method to check whether the catalog is saved to disk
+    public boolean isPersistent() {
+        return store != null;
+    }
+
+    // Method to be told, on the store's writer thread, when changes stop being saved to disk
+    public void setSaveFailureListener(Consumer<IOException> listener) {
+        if (store != null) {
+            store.setFailureListener(listener);
+        }
+    }
+
+    // Method to find the position of the entry with an id, or -1 if there is none. Ids grow in catalog order,
+    // so this is a binary search over the snapshot
+    public int indexOf(int id) {
+        PersistentSequence<AdminInterface.UrlInfo> current = snapshot;
+        int low = 0;
+        int high = current.size() - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middleId = current.get(middle).id;
+            if (middleId < id) {
+                low = middle + 1;
+            } else if (middleId > id) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    // Method to check whether the catalog already has a URL, in any of its spellings
+    public synchronized boolean contains(String url) {
+        return fingerprints.contains(UrlCanonicalizer.fingerprint(url));
+    }
+
+    // Method to add an entry at the end of the catalog, returns false if the catalog already has its URL
+    public boolean add(AdminInterface.UrlInfo urlInfo) {
+        checkComplete(urlInfo);
+        long fingerprint = UrlCanonicalizer.fingerprint(urlInfo.getUrl());
+        synchronized (this) {
+            if (fingerprints.contains(fingerprint)) {
+                DUPLICATES.increment();
+                return false;
+            }
+            long start = ADD_TIMER.start();
+            fingerprints.add(fingerprint);
+            urlInfo.id = nextId++;
+            snapshot = snapshot.plus(urlInfo);
+            searchIndex.add(snapshot.get(snapshot.size() - 1));
+            changes.publish(CatalogChangeFeed.Type.INSERT, snapshot.size() - 1, 1, snapshot);
+            if (store != null) {
+                store.add(urlInfo.getUrl(), urlInfo.getName());
+            }
+            ADD_TIMER.stop(start);
+            return true;
+        }
+    }
+
+    // Method to add a batch of entries at the end of the catalog, readers see the whole batch at once.
+    // Entries whose URL is already in the catalog or earlier in the batch are skipped. Returns the number added.
+    public int addAll(List<AdminInterface.UrlInfo> batch) {
+        // Canonicalizing is the costly part, so it runs in parallel before the lock is taken
+        batch.forEach(UrlCatalog::checkComplete);
+        long[] batchFingerprints = batch.parallelStream()
+                .mapToLong(urlInfo -> UrlCanonicalizer.fingerprint(urlInfo.getUrl())).toArray();
+        synchronized (this) {
+            long start = ADD_BATCH_TIMER.start();
+            List<AdminInterface.UrlInfo> added = new ArrayList<>(batch.size());
+            for (int i = 0; i < batchFingerprints.length; i++) {
+                if (fingerprints.contains(batchFingerprints[i])) {
+                    DUPLICATES.increment();
+                    continue;
+                }
+                AdminInterface.UrlInfo urlInfo = batch.get(i);
+                fingerprints.add(batchFingerprints[i]);
+                urlInfo.id = nextId++;
+                added.add(urlInfo);
+                if (store != null) {
+                    store.add(urlInfo.getUrl(), urlInfo.getName());
+                }
+            }
+            snapshot = snapshot.plusAll(added); // One publish for the batch
+            for (int i = snapshot.size() - added.size(); i < snapshot.size(); i++) {
+                searchIndex.add(snapshot.get(i));
+            }
+            if (!added.isEmpty()) {
+                changes.publish(CatalogChangeFeed.Type.INSERT, snapshot.size() - added.size(), added.size(),
+                        snapshot);
+            }
+            ADD_BATCH_TIMER.stop(start);
+            return added.size();
+        }
+    }
+
+    // Method to replace the entry at the given position, returns false if another entry already has the new URL
+    public boolean set(int index, AdminInterface.UrlInfo urlInfo) {
+        checkComplete(urlInfo);
+        long fingerprint = UrlCanonicalizer.fingerprint(urlInfo.getUrl());
+        synchronized (this) {
+            AdminInterface.UrlInfo oldInfo = snapshot.get(index);
+            long oldFingerprint = UrlCanonicalizer.fingerprint(oldInfo.getUrl());
+            if (fingerprint != oldFingerprint && fingerprints.contains(fingerprint)) {
+                DUPLICATES.increment();
+                return false;
+            }
+            long start = EDIT_TIMER.start();
+            fingerprints.remove(oldFingerprint);
+            fingerprints.add(fingerprint);
+            urlInfo.id = oldInfo.id;
+            snapshot = snapshot.with(index, urlInfo);
+            searchIndex.replace(oldInfo, snapshot.get(index));
+            compactPacked();
+            changes.publish(CatalogChangeFeed.Type.UPDATE, index, 1, snapshot);
+            if (store != null) {
+                store.edit(index, urlInfo.getUrl(), urlInfo.getName());
+            }
+            EDIT_TIMER.stop(start);
+            return true;
+        }
+    }
+
+    // Method to replace the entry with an id, returns false if there is none or another entry has the new URL
+    public synchronized boolean setById(int id, AdminInterface.UrlInfo urlInfo) {
+        int index = indexOf(id);
+        return index >= 0 && set(index, urlInfo);
+    }
+
+    // Method to remove the entry with an id, returns false if there is none
+    public synchronized boolean removeById(int id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    // Method to remove the entry at the given position
+    public synchronized void remove(int index) {
+        long start = DELETE_TIMER.start();
+        AdminInterface.UrlInfo oldInfo = snapshot.get(index);
+        fingerprints.remove(UrlCanonicalizer.fingerprint(oldInfo.getUrl()));
+        searchIndex.remove(oldInfo);
+        snapshot = snapshot.minus(index);
+        compactPacked();
+        changes.publish(CatalogChangeFeed.Type.DELETE, index, 1, snapshot);
+        if (store != null) {
+            store.delete(index);
+        }
+        DELETE_TIMER.stop(start);
+    }
+
+    // Method to remove every entry whose URL already appeared earlier in the catalog, keeping the first one.
+    // The URLs are fingerprinted in parallel, then one pass finds the duplicates and the catalog is rebuilt and
+    // saved as a new snapshot. Returns the number of entries removed.
+    public synchronized int removeDuplicates() {
+        PersistentSequence<AdminInterface.UrlInfo> current = snapshot;
+        long[] entryFingerprints = IntStream.range(0, current.size()).parallel()
+                .mapToLong(i -> UrlCanonicalizer.fingerprint(current.get(i).getUrl())).toArray();
+
+        FingerprintSet seen = new FingerprintSet(entryFingerprints.length);
+        List<AdminInterface.UrlInfo> kept = new ArrayList<>(entryFingerprints.length);
+        for (int i = 0; i < entryFingerprints.length; i++) {
+            AdminInterface.UrlInfo urlInfo = current.get(i);
+            if (seen.add(entryFingerprints[i])) {
+                kept.add(urlInfo);
+            } else {
+                searchIndex.remove(urlInfo);
+            }
+        }
+        int removed = current.size() - kept.size();
+        if (removed > 0) {
+            fingerprints = seen;
+            snapshot = newSnapshot(kept); // A packed catalog gets a new store without the removed records
+            if (packed) {
+                searchIndex.relocate((PackedUrlList) snapshot);
+            }
+            changes.publish(CatalogChangeFeed.Type.RESET, 0, snapshot.size(), snapshot);
+            if (store != null) {
+                store.replaceAll(kept);
+            }
+        }
+        return removed;
+    }
+
+    // Method to refuse an entry without a URL or name before it changes the catalog, the store cannot save one
+    private static void checkComplete(AdminInterface.UrlInfo urlInfo) {
+        Objects.requireNonNull(urlInfo.getUrl(), "url");
+        Objects.requireNonNull(urlInfo.getName(), "name");
+    }
+
+    // Method to move a packed snapshot to a new store once most of the records in the old one were released
+    private void compactPacked() {
+        if (packed) {
+            PackedUrlList compacted = ((PackedUrlList) snapshot).compacted();
+            if (compacted != snapshot) {
+                searchIndex.relocate(compacted);
+                snapshot = compacted;
+            }
+        }
+    }
+
+    // Method to build a snapshot of the configured kind from a list of entries
+    private PersistentSequence<AdminInterface.UrlInfo> newSnapshot(List<AdminInterface.UrlInfo> entries) {
+        return packed ? PackedUrlList.copyOf(entries) : PersistentList.copyOf(entries);
+    }
+}
@@ -0,0 +1,512 @@
+/* UrlCatalogStore class keeps the admin URL catalog on disk so it survives a restart. Every upload, edit
+   and delete is appended to a log file, and the whole catalog is written to a snapshot file from time to
+   time so the log stays short. All disk work runs on one background thread: callers only queue the change,
+   the log is flushed and fsynced in batches, and compaction happens on that same thread, never on the EDT.
+   Each log record ends with a CRC32, so a record torn by a crash is dropped when the log is replayed. The
+   snapshot and the log both carry a generation that compaction counts up: a log from an older generation than
+   the snapshot was already folded into it by a compaction that crashed before starting the new log, so it is
+   discarded instead of being applied a second time. The copy of the catalog the writer keeps is a
+   PackedUrlList, so it takes a fraction of the heap of the catalog itself. A batch that cannot be written is
+   taken back out of that copy and kept: the writer reports the failure, waits and tries again, first starting
+   a new generation so a record left half-written by the failed batch cannot hide the ones written after it. */
+
+//package OOP_Program;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+public class UrlCatalogStore implements AutoCloseable {
+    private static final byte ADD = 1;
+    private static final byte EDIT = 2;
+    private static final byte DELETE = 3;
+    private static final byte REPLACE = 4; // Never logged, the writer saves a new snapshot instead
+    private static final int SNAPSHOT_MAGIC = 0x55524c53; // "URLS", snapshots written before generations
+    private static final int GENERATION_SNAPSHOT_MAGIC = 0x55524c47; // "URLG", followed by the generation
+    private static final int LOG_MAGIC = 0x55524c4c; // "URLL", followed by the generation
+    private static final int LOG_HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    private static final long FSYNC_INTERVAL_MILLIS = 50; // Longest time a queued change waits for fsync
+    private static final long RETRY_MILLIS = 1000; // Wait before writing a failed batch again
+    private static final int COMPACT_AFTER_RECORDS = 100_000; // Log length that triggers a new snapshot
+    private static final int READ_BATCH = 4096; // Snapshot entries packed at a time when loading
+
+    private static UrlCatalogStore defaultStore;
+    private static final List<Runnable> beforeDefaultClose = new ArrayList<>(); // Guarded by the class
+
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final BlockingQueue<Change> queue = new LinkedBlockingQueue<>();
+    private PackedUrlList mirror; // Catalog as written so far, changed by the writer thread, guarded by this
+    private final Thread writer;
+    private FileChannel log;
+    private long logRecords;
+    private long generation; // Compactions so far, the snapshot and the current log belong to this one
+    private volatile boolean closed;
+    private volatile IOException failure; // Error of the last write, null while changes are being saved
+    private volatile Consumer<IOException> failureListener;
+
+    // Constructor for UrlCatalogStore, replays the snapshot and log in the directory and starts the writer
+    public UrlCatalogStore(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        snapshotFile = directory.resolve("catalog.snapshot");
+        logFile = directory.resolve("catalog.log");
+
+        mirror = readSnapshot();
+        logRecords = replayLog();
+        log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        if (log.size() == 0) {
+            startLog(); // No log yet, or the one there was superseded by the snapshot
+        }
+        log.position(log.size());
+
+        writer = new Thread(this::writeLoop, "url-catalog-store");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // Method to get the store shared by the admin interface, kept in the catalog.dir directory. The writer is a
+    // daemon thread, so a shutdown hook writes the changes still queued when the program exits.
+    public static synchronized UrlCatalogStore getDefault() throws IOException {
+        if (defaultStore == null) {
+            UrlCatalogStore store = new UrlCatalogStore(Paths.get(System.getProperty("catalog.dir", "data")));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                List<Runnable> work;
+                synchronized (UrlCatalogStore.class) {
+                    work = new ArrayList<>(beforeDefaultClose);
+                }
+                for (Runnable step : work) {
+                    step.run();
+                }
+                try {
+                    store.close();
+                } catch (IOException e) {
+                    System.err.println("Unable to save the URL catalog: " + e.getMessage());
+                }
+            }, "url-catalog-store-shutdown"));
+            defaultStore = store;
+        }
+        return defaultStore;
+    }
+
+    // Method to have work run at shutdown before the default store is closed, such as stopping a server whose
+    // requests change the catalog. Shutdown hooks run in no set order, so a hook of its own could still be
+    // taking changes after the store was closed, and those would be lost.
+    public static synchronized void beforeDefaultClose(Runnable work) {
+        beforeDefaultClose.add(work);
+    }
+
+    // Method to get a copy of the catalog as it was loaded from disk
+    public synchronized List<AdminInterface.UrlInfo> load() {
+        List<AdminInterface.UrlInfo> entries = new ArrayList<>(mirror.size());
+        for (AdminInterface.UrlInfo urlInfo : mirror) {
+            entries.add(new AdminInterface.UrlInfo(urlInfo.getUrl(), urlInfo.getName()));
+        }
+        return entries;
+    }
+
+    // Method to queue an upload. The URL and name must not be null, the log has no way to tell null from "".
+    public void add(String url, String name) {
+        queue.add(new Change(ADD, -1, Objects.requireNonNull(url, "url"), Objects.requireNonNull(name, "name")));
+    }
+
+    // Method to queue an edit of the entry at the given position, with a URL and name that are not null
+    public void edit(int index, String url, String name) {
+        queue.add(new Change(EDIT, index, Objects.requireNonNull(url, "url"), Objects.requireNonNull(name, "name")));
+    }
+
+    // Method to queue a delete of the entry at the given position
+    public void delete(int index) {
+        queue.add(new Change(DELETE, index, null, null));
+    }
+
+    // Method to queue a replacement of the whole catalog, saved as a new snapshot rather than as log records
+    public void replaceAll(List<AdminInterface.UrlInfo> entries) {
+        for (AdminInterface.UrlInfo urlInfo : entries) {
+            Objects.requireNonNull(urlInfo.getUrl(), "url");
+            Objects.requireNonNull(urlInfo.getName(), "name");
+        }
+        queue.add(new Change(entries));
+    }
+
+    // Method to get the error of the last write, or null while changes are being saved
+    public IOException getFailure() {
+        return failure;
+    }
+
+    // Method to be told when changes stop being saved, on the writer thread. A store that is already failing
+    // tells the new listener right away.
+    public void setFailureListener(Consumer<IOException> listener) {
+        failureListener = listener;
+        IOException current = failure;
+        if (listener != null && current != null) {
+            listener.accept(current);
+        }
+    }
+
+    // Method run by the writer thread, appends queued changes and fsyncs once per batch. A batch that fails is
+    // kept and written again after a pause, behind a compaction that starts a clean log.
+    private void writeLoop() {
+        List<Change> batch = new ArrayList<>(); // Changes not saved yet, saved ones are taken out as they go
+        boolean recover = false; // Whether a failed write may have left part of a record at the end of the log
+        while (!closed || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                Change first = queue.poll(batch.isEmpty() ? FSYNC_INTERVAL_MILLIS : 0, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch);
+                }
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                if (recover) {
+                    compact();
+                    recover = false;
+                }
+                writeBatchWithReplacements(batch);
+                if (failure != null) {
+                    failure = null;
+                    System.err.println("The URL catalog is being saved again.");
+                }
+
+                if (logRecords >= COMPACT_AFTER_RECORDS) {
+                    compact();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException e) {
+                recover = true;
+                reportFailure(e);
+                if (closed) {
+                    System.err.println((batch.size() + queue.size()) + " URL catalog changes were not saved.");
+                    return;
+                }
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Method to log a write error and tell the listener, once for each run of failed writes
+    private void reportFailure(IOException e) {
+        System.err.println("Unable to save the URL catalog: " + e.getMessage());
+        boolean first = failure == null;
+        failure = e;
+        Consumer<IOException> listener = failureListener;
+        if (first && listener != null) {
+            listener.accept(e);
+        }
+    }
+
+    // Method to write a batch that may contain replacements: the changes before a replacement are logged, then
+    // the replacement is written as a new snapshot, so a crash never leaves log records meant for the other list.
+    // The changes are taken out of the batch as they are saved, so a failure leaves only the unsaved ones.
+    private void writeBatchWithReplacements(List<Change> batch) throws IOException {
+        while (!batch.isEmpty()) {
+            int end = 0;
+            while (end < batch.size() && batch.get(end).type != REPLACE) {
+                end++;
+            }
+            if (end > 0) {
+                writeBatch(batch.subList(0, end));
+            } else {
+                replace(batch.get(0).entries);
+                end = 1;
+            }
+            batch.subList(0, end).clear();
+        }
+    }
+
+    // Method to save a replacement of the whole catalog as a new snapshot, the copy is put back if that fails
+    private void replace(List<AdminInterface.UrlInfo> entries) throws IOException {
+        PackedUrlList before;
+        synchronized (this) {
+            before = mirror;
+            mirror = PackedUrlList.copyOf(entries);
+        }
+        try {
+            compact();
+        } catch (IOException e) {
+            synchronized (this) {
+                mirror = before;
+            }
+            throw e;
+        }
+    }
+
+    // Method to append a batch of changes to the log and make them durable with a single fsync. If the write
+    // fails the copy of the catalog goes back to what it was, so it only ever holds saved changes.
+    private void writeBatch(List<Change> batch) throws IOException {
+        LogBuffer bytes = new LogBuffer();
+        DataOutputStream out = new DataOutputStream(bytes);
+        CRC32 crc = new CRC32();
+        PackedUrlList before;
+
+        synchronized (this) {
+            before = mirror;
+            List<AdminInterface.UrlInfo> added = new ArrayList<>(); // Uploads in a row are packed in one go
+            for (Change change : batch) {
+                int recordStart = bytes.size();
+                out.writeByte(change.type);
+                out.writeInt(change.index);
+                if (change.type != DELETE) {
+                    writeString(out, change.url);
+                    writeString(out, change.name);
+                }
+                crc.reset();
+                crc.update(bytes.array(), recordStart, bytes.size() - recordStart);
+                out.writeInt((int) crc.getValue());
+                if (change.type == ADD) {
+                    added.add(new AdminInterface.UrlInfo(change.url, change.name));
+                } else {
+                    mirror = apply(mirror.plusAll(added), change.type, change.index, change.url, change.name);
+                    added.clear();
+                }
+            }
+            // Drops the records of edited and deleted entries once they add up
+            mirror = mirror.plusAll(added).compacted();
+        }
+
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.array(), 0, bytes.size());
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            synchronized (this) {
+                mirror = before;
+            }
+            throw e;
+        }
+        logRecords += batch.size();
+    }
+
+    // Method to write the whole catalog to a new snapshot of the next generation and start an empty log
+    private void compact() throws IOException {
+        Path temp = snapshotFile.resolveSibling("catalog.snapshot.tmp");
+        PackedUrlList entries;
+        synchronized (this) {
+            entries = mirror; // The list never changes, so it is written without holding the lock
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(GENERATION_SNAPSHOT_MAGIC);
+            out.writeLong(generation + 1);
+            out.writeInt(entries.size());
+            for (AdminInterface.UrlInfo urlInfo : entries) {
+                writeString(out, urlInfo.getUrl());
+                writeString(out, urlInfo.getName());
+            }
+        }
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        generation++;
+
+        // The snapshot now holds every logged change, so the log can start over. Until the new header is
+        // written the log is of the previous generation, and a restart skips it.
+        log.truncate(0).position(0);
+        startLog();
+        logRecords = 0;
+    }
+
+    // Method to write the header of an empty log for the current generation
+    private void startLog() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_BYTES).putInt(LOG_MAGIC).putLong(generation);
+        header.flip();
+        while (header.hasRemaining()) {
+            log.write(header);
+        }
+        log.force(true);
+    }
+
+    // Method to read the snapshot file in one go, returns an empty catalog if there is none yet
+    private PackedUrlList readSnapshot() throws IOException {
+        PackedUrlList entries = PackedUrlList.empty(new PackedUrlStore());
+        if (!Files.exists(snapshotFile)) {
+            return entries;
+        }
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(snapshotFile));
+        try {
+            int magic = in.getInt();
+            if (magic == GENERATION_SNAPSHOT_MAGIC) {
+                generation = in.getLong();
+            } else if (magic != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a URL catalog snapshot: " + snapshotFile);
+            }
+            int count = in.getInt();
+            List<AdminInterface.UrlInfo> batch = new ArrayList<>(Math.min(count, READ_BATCH));
+            for (int i = 0; i < count; i++) {
+                String url = readString(in);
+                String name = readString(in);
+                batch.add(new AdminInterface.UrlInfo(url, name));
+                if (batch.size() == READ_BATCH) {
+                    entries = entries.plusAll(batch);
+                    batch.clear();
+                }
+            }
+            return entries.plusAll(batch);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated URL catalog snapshot: " + snapshotFile, e);
+        }
+    }
+
+    // Method to apply the log on top of the snapshot, stops at the first torn or corrupt record. A log of another
+    // generation than the snapshot, or with a torn header, is emptied without being applied.
+    private long replayLog() throws IOException {
+        if (!Files.exists(logFile)) {
+            return 0;
+        }
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(logFile));
+        CRC32 crc = new CRC32();
+        long records = 0;
+        int validLength = 0;
+
+        if (in.remaining() >= Integer.BYTES && in.getInt(0) == LOG_MAGIC) {
+            if (in.remaining() < LOG_HEADER_BYTES || in.getLong(Integer.BYTES) != generation) {
+                in.limit(0);
+            } else {
+                in.position(LOG_HEADER_BYTES);
+                validLength = LOG_HEADER_BYTES;
+            }
+        } else if (generation > 0) {
+            in.limit(0); // A log without a header predates generations, so every snapshot that has one covers it
+        }
+
+        while (in.hasRemaining()) {
+            try {
+                int recordStart = in.position();
+                byte type = in.get();
+                int index = in.getInt();
+                String url = null;
+                String name = null;
+                if (type != DELETE) {
+                    url = readString(in);
+                    name = readString(in);
+                }
+                crc.reset();
+                crc.update(in.array(), recordStart, in.position() - recordStart);
+                if (in.getInt() != (int) crc.getValue() || type < ADD || type > DELETE) {
+                    break;
+                }
+                mirror = apply(mirror, type, index, url, name);
+                records++;
+                validLength = in.position();
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                break;
+            }
+        }
+
+        // Cut off whatever a crash left half-written so new records follow the last good one
+        if (validLength < in.capacity()) {
+            try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                channel.truncate(validLength);
+            }
+        }
+        return records;
+    }
+
+    // Method to write a string as its UTF-8 length and bytes, the store refuses null values before they get here
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Method to read a string written by writeString
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    // Method to apply one change to a list of entries, ignoring positions that no longer exist
+    private static PackedUrlList apply(PackedUrlList entries, byte type, int index, String url, String name) {
+        if (type == ADD) {
+            return entries.plus(new AdminInterface.UrlInfo(url, name));
+        } else if (type == EDIT && index >= 0 && index < entries.size()) {
+            return entries.with(index, new AdminInterface.UrlInfo(url, name));
+        } else if (type == DELETE && index >= 0 && index < entries.size()) {
+            return entries.minus(index);
+        }
+        return entries;
+    }
+
+    // Method to write the remaining changes, stop the writer thread and close the log. Calling it again, or
+    // from several threads, waits for the same writer and closes the log once.
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (writer) {
+            if (log.isOpen()) {
+                log.force(true);
+                log.close();
+            }
+        }
+    }
+
+    // Inner class representing one queued change to the catalog
+    private static class Change {
+        final byte type;
+        final int index;
+        final String url;
+        final String name;
+        final List<AdminInterface.UrlInfo> entries; // New contents for a replacement
+
+        Change(byte type, int index, String url, String name) {
+            this.type = type;
+            this.index = index;
+            this.url = url;
+            this.name = name;
+            this.entries = null;
+        }
+
+        Change(List<AdminInterface.UrlInfo> entries) {
+            this.type = REPLACE;
+            this.index = -1;
+            this.url = null;
+            this.name = null;
+            this.entries = entries;
+        }
+    }
+
+    // Inner class exposing the bytes written so far without copying them
+    private static class LogBuffer extends ByteArrayOutputStream {
+        byte[] array() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/* UrlCatalogTransfer class imports URLs into the catalog from CSV or JSON Lines files and exports the catalog
+   to them. Import streams the file: records are parsed one at a time into batches, each batch is validated
+   and normalized on the ForkJoin pool while the next one is being read, and the valid entries of a batch are
+   added with UrlCatalog.addAll, which skips URLs the catalog already has and publishes one snapshot per batch.
+   Export walks an immutable snapshot and writes each entry as it goes, so neither direction holds the whole
+   file or a copy of the catalog in memory. */
+
+//package OOP_Program;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class UrlCatalogTransfer {
+    private static final int BATCH_SIZE = 10_000; // Records validated and added together
+    private static final int MAX_ERRORS = 20; // Rejected records described in the result
+
+    private final UrlCatalog catalog;
+
+    // Constructor for UrlCatalogTransfer, moves entries into and out of the given catalog
+    public UrlCatalogTransfer(UrlCatalog catalog) {
+        this.catalog = catalog;
+    }
+
+    // Enum for the supported file formats
+    public enum Format {
+        CSV, JSON_LINES;
+
+        // Method to pick the format from the file name, anything not ending in .jsonl or .ndjson is CSV
+        public static Format forFile(Path file) {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            return name.endsWith(".jsonl") || name.endsWith(".ndjson") ? JSON_LINES : CSV;
+        }
+    }
+
+    // Method to import every valid record of a file, the format follows the file name
+    public Result importFrom(Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(reader, Format.forFile(file));
+        }
+    }
+
+    // Method to import every valid record read from the reader
+    public Result importFrom(BufferedReader reader, Format format) throws IOException {
+        Result result = new Result();
+        int[] columns = {0, 1}; // Positions of the url and name columns in a CSV file
+        List<Record> batch = new ArrayList<>(BATCH_SIZE);
+        CompletableFuture<Void> previous = CompletableFuture.completedFuture(null);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            long recordLine = lineNumber;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                if (format == Format.JSON_LINES) {
+                    Map<String, Object> object = FlatJson.parseObject(line);
+                    batch.add(new Record(recordLine, text(object.get("url")), text(object.get("name"))));
+                } else {
+                    List<String> fields = new ArrayList<>();
+                    lineNumber += readCsvRecord(line, reader, fields);
+                    if (result.read == 0 && batch.isEmpty() && isHeader(fields, columns)) {
+                        continue;
+                    }
+                    batch.add(new Record(recordLine, field(fields, columns[0]), field(fields, columns[1])));
+                }
+            } catch (IllegalArgumentException e) {
+                result.reject(recordLine, e.getMessage());
+            }
+            result.read++;
+
+            if (batch.size() == BATCH_SIZE) {
+                previous = submit(previous, batch, result);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        await(submit(previous, batch, result));
+        return result;
+    }
+
+    // Method to validate a batch in parallel, then add it once the batch before it has been added
+    private CompletableFuture<Void> submit(CompletableFuture<Void> previous, List<Record> batch, Result result)
+            throws IOException {
+        if (batch.isEmpty()) {
+            return previous;
+        }
+        CompletableFuture<AdminInterface.UrlInfo[]> validated = CompletableFuture.supplyAsync(() ->
+                batch.parallelStream().map(record -> normalize(record.url, record.name))
+                        .toArray(AdminInterface.UrlInfo[]::new));
+        CompletableFuture<Void> added = previous.thenCombine(validated, (ignored, entries) -> {
+            List<AdminInterface.UrlInfo> valid = new ArrayList<>(entries.length);
+            for (int i = 0; i < entries.length; i++) {
+                if (entries[i] != null) {
+                    valid.add(entries[i]);
+                } else {
+                    result.reject(batch.get(i).line, "Not a valid web address: " + batch.get(i).url);
+                }
+            }
+            int addedCount = catalog.addAll(valid);
+            result.imported += addedCount;
+            result.duplicates += valid.size() - addedCount;
+            return null;
+        });
+        // Wait for the batch before this one, so at most two batches are held in memory
+        await(previous);
+        return added;
+    }
+
+    // Method to wait for a batch to be added, reporting a failure in it as an IOException
+    private static void await(CompletableFuture<Void> added) throws IOException {
+        try {
+            added.join();
+        } catch (CompletionException e) {
+            throw new IOException("Import failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    // Method to write every entry of the current snapshot to a file, the format follows the file name
+    public long exportTo(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return exportTo(writer, Format.forFile(file));
+        }
+    }
+
+    // Method to write every entry of the current snapshot, returns the number of entries written
+    public long exportTo(Writer writer, Format format) throws IOException {
+        long written = 0;
+        StringBuilder line = new StringBuilder();
+        Map<String, Object> object = new LinkedHashMap<>();
+        if (format == Format.CSV) {
+            writer.write("url,name\n");
+        }
+        for (AdminInterface.UrlInfo urlInfo : catalog.snapshot()) {
+            line.setLength(0);
+            if (format == Format.JSON_LINES) {
+                object.put("url", urlInfo.getUrl());
+                object.put("name", urlInfo.getName());
+                line.append(FlatJson.toJson(object));
+            } else {
+                appendCsvField(line, urlInfo.getUrl());
+                line.append(',');
+                appendCsvField(line, urlInfo.getName());
+            }
+            writer.append(line).append('\n');
+            written++;
+        }
+        writer.flush();
+        return written;
+    }
+
+    // Method to check and clean up a URL and name, returns null if the URL is not an http or https address
+    static AdminInterface.UrlInfo normalize(String url, String name) {
+        String normalizedUrl = normalizeUrl(url);
+        if (normalizedUrl == null) {
+            return null;
+        }
+        String trimmedName = name == null ? "" : name.strip();
+        return new AdminInterface.UrlInfo(normalizedUrl, trimmedName.isEmpty() ? normalizedUrl : trimmedName);
+    }
+
+    // Method to trim a URL and lower-case its scheme and host, returns null if it is not a web address
+    static String normalizeUrl(String url) {
+        if (url == null) {
+            return null;
+        }
+        try {
+            URI uri = new URI(url.strip());
+            String scheme = uri.getScheme();
+            if (scheme == null || uri.getHost() == null
+                    || !(scheme.equalsIgnoreCase("http") || scheme.equalsIgnoreCase("https"))) {
+                return null;
+            }
+            // Rebuild from the raw parts, so escaped characters in the path and query are kept as they were
+            StringBuilder normalized = new StringBuilder(scheme.toLowerCase(Locale.ROOT)).append("://");
+            if (uri.getRawUserInfo() != null) {
+                normalized.append(uri.getRawUserInfo()).append('@');
+            }
+            normalized.append(uri.getHost().toLowerCase(Locale.ROOT));
+            if (uri.getPort() != -1) {
+                normalized.append(':').append(uri.getPort());
+            }
+            normalized.append(uri.getRawPath());
+            if (uri.getRawQuery() != null) {
+                normalized.append('?').append(uri.getRawQuery());
+            }
+            if (uri.getRawFragment() != null) {
+                normalized.append('#').append(uri.getRawFragment());
+            }
+            return normalized.toString();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    // Method to read one CSV record into fields, reading more lines while a quoted field is open.
+    // Returns the number of extra lines read.
+    private static int readCsvRecord(String line, BufferedReader reader, List<String> fields) throws IOException {
+        int extraLines = 0;
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == line.length()) {
+                if (!quoted) {
+                    break;
+                }
+                String next = reader.readLine();
+                if (next == null) {
+                    throw new IllegalArgumentException("Unclosed quote");
+                }
+                extraLines++;
+                field.append('\n');
+                line = next;
+                i = 0;
+                continue;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"' && i < line.length() && line.charAt(i) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return extraLines;
+    }
+
+    // Method to check for a header row, which also tells the order of the url and name columns
+    private static boolean isHeader(List<String> fields, int[] columns) {
+        int url = -1;
+        int name = -1;
+        for (int i = 0; i < fields.size(); i++) {
+            String field = fields.get(i).strip().toLowerCase(Locale.ROOT);
+            if (field.equals("url")) {
+                url = i;
+            } else if (field.equals("name")) {
+                name = i;
+            }
+        }
+        if (url < 0) {
+            return false;
+        }
+        columns[0] = url;
+        columns[1] = name;
+        return true;
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : null;
+    }
+
+    private static String text(Object value) {
+        return value == null ? null : value.toString();
+    }
+
+    private static void appendCsvField(StringBuilder line, String value) {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            line.append(value);
+            return;
+        }
+        line.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    // Inner class representing one parsed record before it is validated
+    private static final class Record {
+        final long line;
+        final String url;
+        final String name;
+
+        Record(long line, String url, String name) {
+            this.line = line;
+            this.url = url;
+            this.name = name;
+        }
+    }
+
+    // Inner class representing the outcome of an import
+    public static class Result {
+        private long read;
+        private long imported;
+        private long rejected;
+        private long duplicates;
+        private final List<String> errors = new ArrayList<>();
+
+        private synchronized void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add("Line " + line + ": " + message);
+            }
+        }
+
+        public long getRead() {
+            return read;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public synchronized long getRejected() {
+            return rejected;
+        }
+
+        // Method to get the number of valid records skipped because the catalog already had their URL
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        // Method to get the descriptions of the first rejected records
+        public synchronized List<String> getErrors() {
+            return Collections.unmodifiableList(new ArrayList<>(errors));
+        }
+    }
+}
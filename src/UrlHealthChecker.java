@@ -0,0 +1,269 @@
+/* UrlHealthChecker class checks whether the links in the URL catalog still work. Every link is probed on its
+   own virtual thread with a HEAD request, falling back to GET for servers that do not support HEAD. One
+   shared HttpClient reuses connections, a per-host limit keeps a single site from being flooded, and each
+   probe has a timeout and is retried with exponential backoff. The status code and latency are recorded
+   per UrlInfo, together with the URL that was probed, so the admin "Check" view can show them and an entry
+   whose URL was edited since shows no status until it is checked again. A probe that was cancelled records
+   nothing and leaves the last real status in place. */
+
+//package OOP_Program;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UrlHealthChecker {
+    private static final int MAX_CONNECTIONS = 256; // Probes running at once over all hosts
+    private static final int MAX_PER_HOST = 4; // Probes running at once against one host
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BACKOFF_MILLIS = 250; // Wait before the first retry, doubled each time
+
+    private static UrlHealthChecker defaultChecker;
+
+    private final HttpClient client;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore connections = new Semaphore(MAX_CONNECTIONS);
+    private final Map<String, Semaphore> hostLimits = new ConcurrentHashMap<>();
+    private final Map<Integer, CheckedUrl> statuses = new ConcurrentHashMap<>(); // By UrlInfo id
+
+    // Constructor for UrlHealthChecker, creates the shared HTTP client
+    public UrlHealthChecker() {
+        client = HttpClient.newBuilder()
+                .connectTimeout(TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+    }
+
+    // Method to get the checker shared by the admin interface
+    public static synchronized UrlHealthChecker getDefault() {
+        if (defaultChecker == null) {
+            defaultChecker = new UrlHealthChecker();
+        }
+        return defaultChecker;
+    }
+
+    // Method to get the last recorded status of an entry, or null if its current URL was never checked
+    public LinkStatus getStatus(AdminInterface.UrlInfo urlInfo) {
+        CheckedUrl checked = statuses.get(urlInfo.id);
+        return checked != null && checked.url.equals(urlInfo.getUrl()) ? checked.status : null;
+    }
+
+    // Method to start checking every entry, returns at once; the listener is called from the probe threads
+    public Run checkAll(List<AdminInterface.UrlInfo> entries, ProgressListener listener) {
+        Run run = new Run(entries.size());
+        for (AdminInterface.UrlInfo urlInfo : entries) {
+            executor.execute(() -> {
+                String url = urlInfo.getUrl();
+                if (!run.cancelled && url != null) {
+                    LinkStatus status = probe(url, run);
+                    if (status != null) {
+                        statuses.put(urlInfo.id, new CheckedUrl(url, status));
+                    }
+                }
+                int done = run.completed.incrementAndGet();
+                if (listener != null) {
+                    listener.progress(done, run.total);
+                }
+            });
+        }
+        return run;
+    }
+
+    // Method to probe one URL with retries, waiting for a free connection slot for its host. Returns null if the
+    // run was cancelled or the thread interrupted before a probe finished.
+    LinkStatus probe(String url, Run run) {
+        URI uri;
+        try {
+            uri = new URI(url);
+            if (uri.getHost() == null) {
+                return LinkStatus.failed("Not a web address", 0);
+            }
+        } catch (Exception e) {
+            return LinkStatus.failed("Not a web address", 0);
+        }
+
+        Semaphore hostLimit = hostLimits.computeIfAbsent(uri.getHost().toLowerCase(Locale.ROOT),
+                host -> new Semaphore(MAX_PER_HOST));
+        LinkStatus status = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS && (run == null || !run.cancelled); attempt++) {
+            if (attempt > 0) {
+                long backoff = BACKOFF_MILLIS << (attempt - 1);
+                if (!sleep(backoff + ThreadLocalRandom.current().nextLong(backoff / 2 + 1))) {
+                    break;
+                }
+            }
+            try {
+                hostLimit.acquire();
+                connections.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (run != null && run.cancelled) {
+                // The run was cancelled while this probe waited for its host, so the request is never sent
+                connections.release();
+                hostLimit.release();
+                break;
+            }
+            try {
+                status = send(uri);
+            } finally {
+                connections.release();
+                hostLimit.release();
+            }
+            if (status == null || !status.isRetryable()) {
+                break;
+            }
+        }
+        if (run != null && run.cancelled && status != null && status.isRetryable()) {
+            return null; // The retries were cut short, so this failure says little about the link
+        }
+        return status;
+    }
+
+    // Method to send a HEAD request, or a GET if the server does not allow HEAD, returns null if interrupted
+    private LinkStatus send(URI uri) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request(uri, "HEAD"), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() == 405 || response.statusCode() == 501) {
+                response = client.send(request(uri, "GET"), HttpResponse.BodyHandlers.discarding());
+            }
+            return new LinkStatus(response.statusCode(), elapsedMillis(start), null);
+        } catch (IOException e) {
+            return LinkStatus.failed(e.getClass().getSimpleName(), elapsedMillis(start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IllegalArgumentException e) {
+            return LinkStatus.failed("Not a web address", elapsedMillis(start));
+        }
+    }
+
+    private static HttpRequest request(URI uri, String method) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(TIMEOUT)
+                .method(method, HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Interface for following a check run, called once per finished link
+    public interface ProgressListener {
+        void progress(int completed, int total);
+    }
+
+    // Inner class representing one check run, which can be cancelled
+    public static class Run {
+        private final int total;
+        private final AtomicInteger completed = new AtomicInteger();
+        private volatile boolean cancelled;
+
+        private Run(int total) {
+            this.total = total;
+        }
+
+        // Method to stop starting new probes, links already being probed still finish
+        public void cancel() {
+            cancelled = true;
+        }
+
+        public int getCompleted() {
+            return completed.get();
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public boolean isDone() {
+            return completed.get() == total;
+        }
+    }
+
+    // Inner class pairing a status with the URL it was probed for
+    private static class CheckedUrl {
+        final String url;
+        final LinkStatus status;
+
+        CheckedUrl(String url, LinkStatus status) {
+            this.url = url;
+            this.status = status;
+        }
+    }
+
+    // Inner class representing the result of probing one link
+    public static class LinkStatus {
+        private final int statusCode; // 0 if no response was received
+        private final long latencyMillis;
+        private final String error;
+
+        LinkStatus(int statusCode, long latencyMillis, String error) {
+            this.statusCode = statusCode;
+            this.latencyMillis = latencyMillis;
+            this.error = error;
+        }
+
+        static LinkStatus failed(String error, long latencyMillis) {
+            return new LinkStatus(0, latencyMillis, error);
+        }
+
+        // Method to check whether the link answered with a success or redirect status
+        public boolean isOk() {
+            return statusCode >= 200 && statusCode < 400;
+        }
+
+        // Method to check whether the failure may go away on another attempt
+        boolean isRetryable() {
+            return (statusCode == 0 && !"Not a web address".equals(error))
+                    || statusCode == 429 || statusCode >= 500;
+        }
+
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        public long getLatencyMillis() {
+            return latencyMillis;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        @Override
+        public String toString() {
+            if (statusCode == 0) {
+                return error;
+            }
+            return statusCode + " (" + latencyMillis + " ms)";
+        }
+    }
+}
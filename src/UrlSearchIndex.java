@@ -0,0 +1,501 @@
+/* UrlSearchIndex class is an inverted index of three-character grams over the catalog's URL names, used for
+   keyword search instead of scanning every entry. Each gram maps to the sorted ids of the entries whose
+   lower-case name contains it; a query intersects the lists of its grams and only checks those candidates.
+   The start of each name is marked so prefix queries use the same lists. UrlCatalog keeps the index up to
+   date on every upload, edit and delete, and ids grow in catalog order so results come out in that order.
+   The same updates keep a RankedTermIndex of whole words, which answers ranked and typo-tolerant queries.
+   A packed index, used by a packed catalog, keeps only the address of each entry's record in the catalog's
+   PackedUrlStore and decodes names from the records when it checks candidates, so it holds no UrlInfo or
+   String per entry; results are the store's Entry views. A search can also hand its matches over in batches
+   as it finds them, so a long list of results can be shown before the whole index has been walked. */
+
+//package OOP_Program;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+public class UrlSearchIndex {
+    private static final char START = '\u0002'; // Marks the start of a name for prefix queries
+    private static final int GRAM = 3;
+    private static final int NO_ADDRESS = -1;
+    private static final Metrics.Counter QUERIES = Metrics.counter("search_queries_total", "Keyword searches run");
+    private static final Metrics.Counter QUERIES_WITH_HITS = Metrics.counter("search_queries_with_results_total",
+            "Keyword searches that found at least one entry");
+    private static final Metrics.Counter RESULTS = Metrics.counter("search_results_total",
+            "Entries returned by keyword searches");
+    private static final Metrics.Timer SEARCH_TIMER = Metrics.timer("search_seconds",
+            "Time to answer a substring, prefix or all-words search from the index");
+    private static final Metrics.Timer RANKED_SEARCH_TIMER = Metrics.timer("search_ranked_seconds",
+            "Time to answer a ranked search from the index");
+
+    private final GramTable grams = new GramTable();
+    private final RankedTermIndex terms = new RankedTermIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private AdminInterface.UrlInfo[] entries; // Indexed entries by id, null in a packed index
+    private String[] lowerNames; // Lower-case names by id, checked against queries, null in a packed index
+    private int[] addresses; // Record addresses by id in packedStore, NO_ADDRESS where none, null if not packed
+    private PackedUrlStore packedStore;
+    private int count;
+
+    // Constructor for UrlSearchIndex, keeps the entries it is given
+    public UrlSearchIndex() {
+        this(false);
+    }
+
+    // Constructor for UrlSearchIndex, with packed set it only takes PackedUrlStore entries and keeps their addresses
+    public UrlSearchIndex(boolean packed) {
+        if (packed) {
+            addresses = new int[1024];
+            Arrays.fill(addresses, NO_ADDRESS);
+        } else {
+            entries = new AdminInterface.UrlInfo[1024];
+            lowerNames = new String[1024];
+        }
+    }
+
+    // Method to add an entry, its id must not be in the index yet
+    public void add(AdminInterface.UrlInfo urlInfo) {
+        lock.writeLock().lock();
+        try {
+            int id = urlInfo.id;
+            String lowerName = lower(urlInfo.getName());
+            store(id, urlInfo, lowerName);
+            count++;
+            terms.add(id, lowerName);
+
+            String marked = START + lowerName;
+            for (int i = 0; i + GRAM <= marked.length(); i++) {
+                grams.getOrCreate(gram(marked, i)).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Method to remove an entry
+    public void remove(AdminInterface.UrlInfo urlInfo) {
+        lock.writeLock().lock();
+        try {
+            int id = urlInfo.id;
+            if (!contains(id)) {
+                return;
+            }
+            String oldName = lowerName(id);
+            String marked = START + oldName;
+            for (int i = 0; i + GRAM <= marked.length(); i++) {
+                Postings postings = grams.get(gram(marked, i));
+                if (postings != null) {
+                    postings.remove(id);
+                }
+            }
+            terms.remove(id, oldName);
+            if (addresses != null) {
+                addresses[id] = NO_ADDRESS;
+            } else {
+                entries[id] = null;
+                lowerNames[id] = null;
+            }
+            count--;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Method to replace an entry with an edited one that has the same id, only the grams that differ are updated
+    public void replace(AdminInterface.UrlInfo oldInfo, AdminInterface.UrlInfo newInfo) {
+        lock.writeLock().lock();
+        try {
+            int id = oldInfo.id;
+            if (!contains(id)) {
+                add(newInfo);
+                return;
+            }
+            String oldName = lowerName(id);
+            long[] oldGrams = grams(START + oldName);
+            String lowerName = lower(newInfo.getName());
+            long[] newGrams = grams(START + lowerName);
+            for (long key : oldGrams) {
+                if (Arrays.binarySearch(newGrams, key) < 0) {
+                    grams.get(key).remove(id);
+                }
+            }
+            for (long key : newGrams) {
+                if (Arrays.binarySearch(oldGrams, key) < 0) {
+                    grams.getOrCreate(key).add(id);
+                }
+            }
+            terms.remove(id, oldName);
+            terms.add(id, lowerName);
+            store(id, newInfo, lowerName);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Method to point a packed index at the records of a list that has the same entries in a new store, after
+    // the catalog compacted its store
+    public void relocate(PackedUrlList list) {
+        lock.writeLock().lock();
+        try {
+            packedStore = list.getStore();
+            for (AdminInterface.UrlInfo urlInfo : list) {
+                addresses[urlInfo.id] = ((PackedUrlStore.Entry) urlInfo).getAddress();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Method to keep an entry under its id, growing the arrays when needed
+    private void store(int id, AdminInterface.UrlInfo urlInfo, String lowerName) {
+        if (addresses != null) {
+            if (!(urlInfo instanceof PackedUrlStore.Entry)) {
+                throw new IllegalArgumentException("A packed index only takes packed entries");
+            }
+            PackedUrlStore.Entry entry = (PackedUrlStore.Entry) urlInfo;
+            if (packedStore != null && packedStore != entry.getStore()) {
+                throw new IllegalArgumentException("Entry is not in the store of the index");
+            }
+            packedStore = entry.getStore();
+            if (id >= addresses.length) {
+                int oldLength = addresses.length;
+                addresses = Arrays.copyOf(addresses, Math.max(id + 1, oldLength * 2));
+                Arrays.fill(addresses, oldLength, addresses.length, NO_ADDRESS);
+            }
+            addresses[id] = entry.getAddress();
+            return;
+        }
+        if (id >= entries.length) {
+            int capacity = Math.max(id + 1, entries.length * 2);
+            entries = Arrays.copyOf(entries, capacity);
+            lowerNames = Arrays.copyOf(lowerNames, capacity);
+        }
+        entries[id] = urlInfo;
+        lowerNames[id] = lowerName;
+    }
+
+    private boolean contains(int id) {
+        if (addresses != null) {
+            return id >= 0 && id < addresses.length && addresses[id] != NO_ADDRESS;
+        }
+        return id >= 0 && id < entries.length && entries[id] != null;
+    }
+
+    // Method to get the entry with an id, which must be in the index
+    private AdminInterface.UrlInfo entry(int id) {
+        return addresses != null ? packedStore.get(addresses[id]) : entries[id];
+    }
+
+    // Method to get the lower-case name of the entry with an id, decoded from its record in a packed index
+    private String lowerName(int id) {
+        return addresses != null ? lower(packedStore.get(addresses[id]).getName()) : lowerNames[id];
+    }
+
+    // Method to get the number of indexed entries
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return count;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Method to find entries whose name contains the keyword, ignoring case, same as the linear filter
+    public List<AdminInterface.UrlInfo> searchSubstring(String keyword) {
+        return search(new String[] {lower(keyword)}, false, Integer.MAX_VALUE);
+    }
+
+    // Method to find the first entries, in catalog order, whose name contains the keyword, stopping at the limit
+    public List<AdminInterface.UrlInfo> searchSubstring(String keyword, int limit) {
+        return search(new String[] {lower(keyword)}, false, limit);
+    }
+
+    // Method to find entries whose name starts with the prefix, ignoring case
+    public List<AdminInterface.UrlInfo> searchPrefix(String prefix) {
+        return search(new String[] {lower(prefix)}, true, Integer.MAX_VALUE);
+    }
+
+    // Method to find entries whose name contains every whitespace-separated term of the query
+    public List<AdminInterface.UrlInfo> searchAll(String query) {
+        return search(allTerms(query), false, Integer.MAX_VALUE);
+    }
+
+    // Method to find the same entries as searchAll, handing them to onBatch in catalog order, batchSize at a time,
+    // as they are found. onBatch runs on the calling thread while the index is locked for reading, so it should
+    // only pass the batch on. Returns the number of entries found.
+    public int searchAll(String query, int batchSize, Consumer<List<AdminInterface.UrlInfo>> onBatch) {
+        long start = SEARCH_TIMER.start();
+        Matches matches = new Matches(Integer.MAX_VALUE, batchSize, onBatch);
+        searchLocked(allTerms(query), false, matches);
+        matches.flush();
+        SEARCH_TIMER.stop(start);
+        record(matches.count);
+        return matches.count;
+    }
+
+    private static String[] allTerms(String query) {
+        String trimmed = lower(query).trim();
+        return trimmed.isEmpty() ? new String[] {""} : trimmed.split("\\s+");
+    }
+
+    // Method to find the entries that best match the words of the query, best first, at most limit of them.
+    // With fuzzy set, query words also match words a typo or two away.
+    public List<AdminInterface.UrlInfo> searchRanked(String query, int limit, boolean fuzzy) {
+        long start = RANKED_SEARCH_TIMER.start();
+        List<AdminInterface.UrlInfo> results;
+        lock.readLock().lock();
+        try {
+            int[] ids = terms.search(lower(query), limit, fuzzy);
+            results = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                results.add(entry(id));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        RANKED_SEARCH_TIMER.stop(start);
+        record(results.size());
+        return results;
+    }
+
+    private List<AdminInterface.UrlInfo> search(String[] terms, boolean prefix, int limit) {
+        long start = SEARCH_TIMER.start();
+        Matches matches = new Matches(limit, 0, null);
+        searchLocked(terms, prefix, matches);
+        SEARCH_TIMER.stop(start);
+        record(matches.count);
+        return matches.results;
+    }
+
+    // Method to count a query and its results
+    private static void record(int results) {
+        QUERIES.increment();
+        if (results > 0) {
+            QUERIES_WITH_HITS.increment();
+            RESULTS.add(results);
+        }
+    }
+
+    private void searchLocked(String[] terms, boolean prefix, Matches matches) {
+        lock.readLock().lock();
+        try {
+            // Collect the gram lists of every term; terms too short to have a gram check every entry
+            List<Postings> lists = new ArrayList<>();
+            for (String term : terms) {
+                String marked = prefix ? START + term : term;
+                for (int i = 0; i + GRAM <= marked.length(); i++) {
+                    Postings postings = grams.get(gram(marked, i));
+                    if (postings == null || postings.size == 0) {
+                        return;
+                    }
+                    lists.add(postings);
+                }
+            }
+
+            if (lists.isEmpty()) {
+                int capacity = addresses != null ? addresses.length : entries.length;
+                for (int id = 0; id < capacity; id++) {
+                    if ((id & 4095) == 0 && Thread.currentThread().isInterrupted()) {
+                        break;  // The caller cancelled the query
+                    }
+                    if (contains(id) && matches(lowerName(id), terms, prefix) && !matches.add(entry(id))) {
+                        break;
+                    }
+                }
+                return;
+            }
+
+            // Walk the shortest list and look each id up in the others, then check the real name
+            lists.sort(Comparator.comparingInt(postings -> postings.size));
+            Postings shortest = lists.get(0);
+            int[] cursors = new int[lists.size()];
+            candidates:
+            for (int i = 0; i < shortest.size; i++) {
+                if ((i & 4095) == 0 && Thread.currentThread().isInterrupted()) {
+                    break;  // The caller cancelled the query
+                }
+                int id = shortest.ids[i];
+                for (int j = 1; j < lists.size(); j++) {
+                    Postings other = lists.get(j);
+                    int position = other.find(id, cursors[j]);
+                    if (position < 0) {
+                        cursors[j] = -position - 1;
+                        continue candidates;
+                    }
+                    cursors[j] = position;
+                }
+                if (matches(lowerName(id), terms, prefix) && !matches.add(entry(id))) {
+                    break;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean matches(String lowerName, String[] terms, boolean prefix) {
+        for (String term : terms) {
+            if (prefix ? !lowerName.startsWith(term) : !lowerName.contains(term)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String lower(String text) {
+        return text == null ? "" : text.toLowerCase();
+    }
+
+    // Method to get the sorted distinct grams of a marked name
+    private static long[] grams(String marked) {
+        long[] keys = new long[Math.max(0, marked.length() - GRAM + 1)];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = gram(marked, i);
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    // Method to pack three characters of the text into one key
+    private static long gram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+
+    // Inner class collecting the matches of a query, or handing them on in batches when it has a callback
+    private static class Matches {
+        final int limit;
+        final int batchSize;
+        final Consumer<List<AdminInterface.UrlInfo>> onBatch;
+        List<AdminInterface.UrlInfo> results = new ArrayList<>();
+        int count;
+
+        Matches(int limit, int batchSize, Consumer<List<AdminInterface.UrlInfo>> onBatch) {
+            this.limit = limit;
+            this.batchSize = batchSize;
+            this.onBatch = onBatch;
+        }
+
+        // Method to take one match, returns false once the limit is reached
+        boolean add(AdminInterface.UrlInfo urlInfo) {
+            results.add(urlInfo);
+            count++;
+            if (onBatch != null && results.size() == batchSize) {
+                flush();
+            }
+            return count < limit;
+        }
+
+        // Method to hand on the matches not passed to the callback yet
+        void flush() {
+            if (onBatch != null && !results.isEmpty()) {
+                onBatch.accept(results);
+                results = new ArrayList<>();
+            }
+        }
+    }
+
+    // Inner class holding the sorted ids of the entries that contain one gram
+    private static class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        // Method to find an id at or after a position, galloping ahead before the binary search
+        int find(int id, int from) {
+            int step = 1;
+            int low = from;
+            while (from + step < size && ids[from + step] < id) {
+                low = from + step;
+                step <<= 1;
+            }
+            return Arrays.binarySearch(ids, low, Math.min(size, from + step + 1), id);
+        }
+
+        boolean remove(int id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+
+    // Inner class mapping packed grams to their postings with open addressing, so keys are not boxed.
+    // Lists that become empty are kept, the number of distinct grams stays small.
+    private static class GramTable {
+        private long[] keys = new long[1024];
+        private Postings[] values = new Postings[1024];
+        private int size;
+
+        Postings get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        Postings getOrCreate(long key) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            for (; values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            Postings postings = new Postings();
+            keys[slot] = key;
+            values[slot] = postings;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return postings;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            Postings[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Postings[oldValues.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (values[slot] != null) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
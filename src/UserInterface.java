@@ -7,13 +7,13 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class UserInterface extends JFrame {
+    private static final Metrics.Timer DISPLAY_TIMER = Metrics.timer("display_data_seconds",
+            "Time to build the data list before it is shown");
+
     private JButton openCalculatorButton, viewDataButton, viewDataButtonWithKeyword, logoutButton;
     private LoginFrame loginFrame;  // Reference to the LoginFrame
 
@@ -70,76 +70,83 @@ public class UserInterface extends JFrame {
         panel.add(logoutButton);
 
         add(panel);
-        setVisible(true);
     }
 
     // Method to open the Carbon Footprint Calculator and dispose of the current frame
     private void openCarbonFootprintCalculator() {
         this.dispose();
-        CarbonFootprintCalculator carbonFootprintCalculator = new CarbonFootprintCalculator();
+        String username = loginFrame.getSession().getUsername(); // The calculator keeps this user's history
+        CarbonFootprintCalculator carbonFootprintCalculator = new CarbonFootprintCalculator(username);
         carbonFootprintCalculator.setVisible(true);
     }
 
-    // Method to handle view data button click, displays data in a list
+    // Method to handle view data button click, loads the data in the background and displays it in a list
     private void viewDataButtonClicked() {
-        List<AdminInterface.UrlInfo> urlList = AdminInterface.getSharedUrlList();
-
-        if (urlList != null && !urlList.isEmpty()) {
-            displayData(urlList);
-        } else {
-            JOptionPane.showMessageDialog(this, "No data available.");
-        }
+        TaskScheduler.submit(AdminInterface::getSharedUrlList, urlList -> {
+            if (urlList != null && !urlList.isEmpty()) {
+                displayData(UrlCatalog.getDefault());
+            } else {
+                JOptionPane.showMessageDialog(this, "No data available.");
+            }
+        }, error -> JOptionPane.showMessageDialog(this, "Cannot load the data: " + error.getMessage()));
     }
 
-    // Method to handle view data button with keyword click, displays filtered data in a list
+    // Method to handle view data button with keyword click, opens a live search over the data
     private void viewDataButtonWithKeywordClicked() {
-        List<AdminInterface.UrlInfo> urlList = AdminInterface.getSharedUrlList();
-
-        if (urlList != null && !urlList.isEmpty()) {
-            // Get user input for search
-            String searchKeyword = JOptionPane.showInputDialog(this, "Enter search keyword:");
-
-            if (searchKeyword != null) {
-                // Filter data based on search keyword
-                List<AdminInterface.UrlInfo> filteredList = filterData(urlList, searchKeyword);
-
-                if (!filteredList.isEmpty()) {
-                    displayData(filteredList);
-                } else {
-                    JOptionPane.showMessageDialog(this, "No matching data found.");
-                }
+        TaskScheduler.submit(AdminInterface::getSharedUrlList, urlList -> {
+            if (urlList != null && !urlList.isEmpty()) {
+                // Search as the user types, the dialog is not modal so the rest of the window stays usable
+                JDialog searchDialog = new JDialog(this, "View Data with Keyword", false);
+                LiveSearchPanel searchPanel = new LiveSearchPanel(urlInfo -> openWebpage(urlInfo.getUrl()));
+                searchDialog.add(searchPanel);
+                // Closing the dialog stops the query it may still be running
+                searchDialog.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+                searchDialog.addWindowListener(new java.awt.event.WindowAdapter() {
+                    @Override
+                    public void windowClosed(java.awt.event.WindowEvent e) {
+                        searchPanel.cancelSearch();
+                    }
+                });
+                searchDialog.pack();
+                searchDialog.setLocationRelativeTo(this);
+                searchDialog.setVisible(true);
+            } else {
+                JOptionPane.showMessageDialog(this, "No data available.");
             }
-        } else {
-            JOptionPane.showMessageDialog(this, "No data available.");
-        }
+        }, error -> JOptionPane.showMessageDialog(this, "Cannot load the data: " + error.getMessage()));
     }
 
-    // Method to display data in a list
-    private void displayData(List<AdminInterface.UrlInfo> data) {
-        DefaultListModel<String> listModel = new DefaultListModel<>();
-        for (AdminInterface.UrlInfo urlInfo : data) {
-            listModel.addElement(urlInfo.getName());
-        }
-
-        JList<String> dataList = new JList<>(listModel);
-        dataList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+    // Method to display the catalog in a list that stays up to date while it is open
+    private void displayData(UrlCatalog catalog) {
+        long start = DISPLAY_TIMER.start();
+        // The model reads names from the catalog snapshot as rows are painted instead of copying them, and
+        // applies the admin's edits to the affected rows as they happen
+        CatalogListModel dataModel = CatalogListModel.live(catalog);
+        JList<String> dataList = CatalogListModel.createList(dataModel);
 
         dataList.addMouseListener(new java.awt.event.MouseAdapter() {
             @Override
             public void mouseClicked(java.awt.event.MouseEvent evt) {
                 if (evt.getClickCount() == 1) {
                     int index = dataList.locationToIndex(evt.getPoint());
-                    String selectedUrl = data.get(index).getUrl();
-                    openWebpage(selectedUrl);
+                    if (index >= 0) {
+                        String selectedUrl = dataModel.getEntry(index).getUrl();
+                        openWebpage(selectedUrl);
+                    }
                 }
             }
         });
 
-        JOptionPane.showMessageDialog(this, new JScrollPane(dataList), "View Data", JOptionPane.PLAIN_MESSAGE);
+        JScrollPane scrollPane = new JScrollPane(dataList);
+        DISPLAY_TIMER.stop(start); // The dialog below waits for the user, so it is not timed
+
+        JOptionPane.showMessageDialog(this, scrollPane, "View Data", JOptionPane.PLAIN_MESSAGE);
+        dataModel.close();
     }
 
-    // Method to filter data based on search keyword
-    private List<AdminInterface.UrlInfo> filterData(List<AdminInterface.UrlInfo> data, String searchKeyword) {
+    // Method to filter data based on search keyword by checking every name, kept as the baseline the search
+    // benchmarks compare the index with; the live search uses the index, which is where searches are timed
+    static List<AdminInterface.UrlInfo> filterData(List<AdminInterface.UrlInfo> data, String searchKeyword) {
         List<AdminInterface.UrlInfo> filteredList = new ArrayList<>();
 
         for (AdminInterface.UrlInfo urlInfo : data) {
@@ -151,13 +158,9 @@ public class UserInterface extends JFrame {
         return filteredList;
     }
 
-    // Method to open a webpage using the default web browser
+    // Method to open a webpage using the default web browser, without blocking the window
     private void openWebpage(String url) {
-        try {
-            Desktop.getDesktop().browse(new URI(url));
-        } catch (IOException | URISyntaxException e) {
-            JOptionPane.showMessageDialog(this, "Cannot open the webpage: " + url);
-        }
+        TaskScheduler.browse(this, url, "Cannot open the webpage: " + url);
     }
 
     // Method to handle logout button click, disposes of the current frame and opens the login window
@@ -0,0 +1,45 @@
+/* VectorFootprintKernel class is the SIMD version of the footprint formula, written with the incubating
+   JDK Vector API. It is only loaded by FootprintKernel when the JVM runs with
+   --add-modules jdk.incubator.vector, so the rest of the program works without the module. */
+
+//package OOP_Program;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+class VectorFootprintKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorFootprintKernel() {
+    }
+
+    // Method to get the number of doubles processed per vector on this CPU
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    // Method to compute the footprints of the first length rows into results
+    static void compute(double[] transport, double[] electricity, double[] food, int length,
+                        EmissionFactorTable.Factors factors, double[] results) {
+        DoubleVector transportFactor = DoubleVector.broadcast(SPECIES, factors.getTransport());
+        DoubleVector electricityFactor = DoubleVector.broadcast(SPECIES, factors.getElectricity());
+        DoubleVector foodFactor = DoubleVector.broadcast(SPECIES, factors.getFood());
+
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            // Separate multiply and add steps (no fused multiply-add) keep the scalar rounding
+            DoubleVector footprint = DoubleVector.fromArray(SPECIES, transport, i).mul(transportFactor)
+                    .add(DoubleVector.fromArray(SPECIES, electricity, i).mul(electricityFactor))
+                    .add(DoubleVector.fromArray(SPECIES, food, i).mul(foodFactor));
+            footprint.intoArray(results, i);
+        }
+
+        double transportValue = factors.getTransport();
+        double electricityValue = factors.getElectricity();
+        double foodValue = factors.getFood();
+        for (; i < length; i++) {
+            results[i] = transport[i] * transportValue + electricity[i] * electricityValue + food[i] * foodValue;
+        }
+    }
+}
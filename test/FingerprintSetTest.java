@@ -0,0 +1,87 @@
+/* FingerprintSetTest class checks FingerprintSet against a HashMap of counts. The fingerprints are drawn from
+   a small pool whose values share their low bits, so probe runs get long, wrap around the end of the table
+   and are cut by many removals, which is where the backward shift that replaces tombstones can go wrong. */
+
+//package OOP_Program;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FingerprintSetTest {
+
+    @Test
+    public void randomOperationsMatchAMapOfCounts() {
+        Random random = new Random(19);
+        long[] pool = new long[300];
+        for (int i = 0; i < pool.length; i++) {
+            // Eight values of the low bits, so most fingerprints start their probe in the same few slots
+            pool[i] = ((long) random.nextInt() << 32) ^ (random.nextInt() & ~0x7ffL) ^ random.nextInt(8);
+        }
+        pool[0] = 0; // Stored under a key of its own
+        pool[1] = -1;
+
+        FingerprintSet set = new FingerprintSet();
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int step = 0; step < 200_000; step++) {
+            long fingerprint = pool[random.nextInt(pool.length)];
+            int count = expected.getOrDefault(fingerprint, 0);
+            if (random.nextInt(100) < 55) {
+                assertEquals(count == 0, set.add(fingerprint));
+                expected.put(fingerprint, count + 1);
+            } else {
+                assertEquals(count > 0, set.remove(fingerprint));
+                if (count > 1) {
+                    expected.put(fingerprint, count - 1);
+                } else {
+                    expected.remove(fingerprint);
+                }
+            }
+            if (step % 1000 == 0) {
+                for (long each : pool) {
+                    assertEquals("count of " + each + " at step " + step,
+                            expected.getOrDefault(each, 0).intValue(), set.count(each));
+                }
+            }
+            assertEquals(expected.size(), set.size());
+        }
+    }
+
+    @Test
+    public void removalShiftsARunBackAcrossTheEndOfTheTable() {
+        FingerprintSet set = new FingerprintSet(8); // 16 slots, a small fingerprint's home slot is its value
+        set.add(15);
+        set.add(31); // Home 15, wraps to slot 0
+        set.add(47); // Home 15, goes to slot 1
+        set.add(1);  // Home 1, pushed to slot 2
+
+        assertTrue(set.remove(15));
+        assertFalse(set.contains(15));
+        assertTrue(set.contains(31));
+        assertTrue(set.contains(47));
+        assertTrue(set.contains(1));
+
+        assertTrue(set.remove(31));
+        assertTrue(set.contains(47));
+        assertTrue(set.contains(1));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    public void removingOneCopyKeepsTheOthers() {
+        FingerprintSet set = new FingerprintSet();
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.remove(42));
+        assertTrue(set.contains(42));
+        assertTrue(set.remove(42));
+        assertFalse(set.contains(42));
+        assertFalse(set.remove(42));
+        assertEquals(0, set.size());
+    }
+}
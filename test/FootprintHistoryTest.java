@@ -0,0 +1,192 @@
+/* FootprintHistoryTest class checks that a footprint history reopened from its files holds the points that
+   were recorded and rollups that add up to them. The files are damaged the ways a crash can leave them, one
+   column a point longer than the other, rollup files behind the points or with records out of order, and
+   reopening must drop the torn point and rebuild the rollups from the points. */
+
+//package OOP_Program;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FootprintHistoryTest {
+    private static final ZoneId ZONE = ZoneId.of("Europe/London");
+    private static final long START_MILLIS = 1_700_000_000_000L; // November 2023
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private Path directory;
+    private final List<Long> times = new ArrayList<>();
+    private final List<Double> values = new ArrayList<>();
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("footprint-history");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void reopenedHistoryHasThePointsAndRollups() throws IOException {
+        FootprintHistory history = recordPoints(500);
+        assertRollups(history);
+
+        FootprintHistory reopened = new FootprintHistory(directory, ZONE);
+        assertEquals(500, reopened.size());
+        assertValues(reopened);
+        assertRollups(reopened);
+    }
+
+    @Test
+    public void pointsOutOfTimeOrderLandInTheirPeriods() throws IOException {
+        FootprintHistory history = recordPoints(200);
+        // Earlier than every stored point, so a new first period is inserted before the others
+        record(history, START_MILLIS - 90 * 24 * HOUR_MILLIS, 1234.5);
+        record(history, START_MILLIS + 5 * HOUR_MILLIS, 99);
+        assertRollups(history);
+        assertRollups(new FootprintHistory(directory, ZONE));
+    }
+
+    @Test
+    public void pointTornBetweenTheTwoColumnsIsDropped() throws IOException {
+        recordPoints(100);
+        // A crash after the time of the next point was written but before its value
+        append(directory.resolve("times.bin"), ByteBuffer.allocate(Long.BYTES).putLong(0, START_MILLIS));
+
+        FootprintHistory reopened = new FootprintHistory(directory, ZONE);
+        assertEquals(100, reopened.size());
+        assertEquals(100 * Long.BYTES, Files.size(directory.resolve("times.bin")));
+        assertValues(reopened);
+        assertRollups(reopened);
+
+        // The next point goes where the torn one was
+        record(reopened, START_MILLIS + 1000 * HOUR_MILLIS, 42);
+        assertValues(new FootprintHistory(directory, ZONE));
+    }
+
+    @Test
+    public void rollupsBehindThePointsAreRebuilt() throws IOException {
+        recordPoints(300);
+        // A crash after the points were written but before the last day's rollup was saved
+        Path day = directory.resolve("day.bin");
+        try (FileChannel channel = FileChannel.open(day, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 40);
+        }
+        Files.delete(directory.resolve("month.bin"));
+
+        assertRollups(new FootprintHistory(directory, ZONE));
+    }
+
+    @Test
+    public void rollupsOutOfOrderAreRebuilt() throws IOException {
+        recordPoints(300);
+        // Give the second week the key of the first one, so the records are no longer sorted
+        Path week = directory.resolve("week.bin");
+        try (FileChannel channel = FileChannel.open(week, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer firstKey = ByteBuffer.allocate(Long.BYTES);
+            channel.read(firstKey, 0);
+            channel.write(firstKey.flip(), 40);
+        }
+
+        assertRollups(new FootprintHistory(directory, ZONE));
+    }
+
+    // Method to record points a few hours apart, which span a few months
+    private FootprintHistory recordPoints(int count) throws IOException {
+        FootprintHistory history = new FootprintHistory(directory, ZONE);
+        Random random = new Random(15);
+        long time = START_MILLIS;
+        for (int i = 0; i < count; i++) {
+            time += (1 + random.nextInt(12)) * HOUR_MILLIS;
+            record(history, time, Math.round(random.nextDouble() * 20000) / 4.0);
+        }
+        return history;
+    }
+
+    private void record(FootprintHistory history, long timeMillis, double footprint) throws IOException {
+        history.record(timeMillis, footprint);
+        times.add(timeMillis);
+        values.add(footprint);
+    }
+
+    private void assertValues(FootprintHistory history) throws IOException {
+        double[] stored = new double[values.size() + 1];
+        assertEquals(values.size(), history.readValues(0, stored));
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals("point " + i, values.get(i), stored[i], 0);
+        }
+    }
+
+    // Method to check every rollup of the history against rollups computed here from the recorded points
+    private void assertRollups(FootprintHistory history) {
+        for (FootprintHistory.Granularity granularity : FootprintHistory.Granularity.values()) {
+            Map<LocalDate, double[]> expected = new TreeMap<>();
+            for (int i = 0; i < times.size(); i++) {
+                LocalDate start = periodStart(granularity, times.get(i));
+                double value = values.get(i);
+                double[] rollup = expected.computeIfAbsent(start, key -> new double[] {0, 0, value, value});
+                rollup[0]++;
+                rollup[1] += value;
+                rollup[2] = Math.min(rollup[2], value);
+                rollup[3] = Math.max(rollup[3], value);
+            }
+
+            List<FootprintHistory.Rollup> actual = history.rollups(granularity);
+            assertEquals(granularity + " periods", expected.size(), actual.size());
+            int i = 0;
+            for (Map.Entry<LocalDate, double[]> entry : expected.entrySet()) {
+                FootprintHistory.Rollup rollup = actual.get(i++);
+                String period = granularity + " " + entry.getKey();
+                assertEquals(period, entry.getKey(), rollup.getStart());
+                assertEquals(period, (long) entry.getValue()[0], rollup.getCount());
+                assertEquals(period, entry.getValue()[1], rollup.getSum(), 1e-6);
+                assertEquals(period, entry.getValue()[2], rollup.getMin(), 0);
+                assertEquals(period, entry.getValue()[3], rollup.getMax(), 0);
+            }
+        }
+    }
+
+    private static LocalDate periodStart(FootprintHistory.Granularity granularity, long timeMillis) {
+        LocalDate date = Instant.ofEpochMilli(timeMillis).atZone(ZONE).toLocalDate();
+        switch (granularity) {
+            case DAY:
+                return date;
+            case WEEK:
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            default:
+                return date.withDayOfMonth(1);
+        }
+    }
+
+    private static void append(Path file, ByteBuffer bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(bytes);
+        }
+    }
+}
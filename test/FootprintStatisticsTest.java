@@ -0,0 +1,129 @@
+/* FootprintStatisticsTest class checks that the population behind the advice bands counts every stored
+   footprint exactly once: when it is rebuilt from the histories on disk, when footprints are recorded one by
+   one, and when both happen at the same time. Each test works in a temporary history directory. */
+
+//package OOP_Program;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FootprintStatisticsTest {
+    private static final long START_MILLIS = 1_700_000_000_000L;
+    private static final ZoneId UTC = ZoneId.of("UTC");
+
+    private Path directory;
+
+    @Before
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("footprint-statistics");
+    }
+
+    @After
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Test
+    public void recomputeReadsEveryStoredHistory() throws IOException {
+        // Three users with footprints 0 to 2999 between them, so the thirds fall near 1000 and 2000
+        for (int user = 0; user < 3; user++) {
+            FootprintHistory history = new FootprintHistory(directory.resolve("user" + user), UTC);
+            for (int i = user; i < 3000; i += 3) {
+                history.record(START_MILLIS + i * 1000L, i);
+            }
+        }
+
+        FootprintStatistics statistics = new FootprintStatistics(directory);
+        assertFalse(statistics.getThresholds().isFromPopulation());
+        assertEquals(3000, statistics.recompute().getCount());
+
+        FootprintStatistics.Thresholds thresholds = statistics.getThresholds();
+        assertTrue(thresholds.isFromPopulation());
+        assertEquals(3000, thresholds.getSampleCount());
+        assertEquals(1499.5, thresholds.getMean(), 1e-6);
+        assertEquals(1000, thresholds.getLow(), 60);
+        assertEquals(2000, thresholds.getHigh(), 60);
+        assertEquals(FootprintStatistics.Band.BELOW_AVERAGE, statistics.band(500));
+        assertEquals(FootprintStatistics.Band.ABOVE_AVERAGE, statistics.band(2500));
+    }
+
+    @Test
+    public void recordStoresThePointAndAddsItToThePopulation() throws IOException {
+        FootprintStatistics statistics = new FootprintStatistics(directory);
+        FootprintHistory history = new FootprintHistory(directory.resolve("user"), UTC);
+        for (int i = 0; i < 150; i++) {
+            statistics.record(history, START_MILLIS + i * 1000L, i);
+        }
+
+        assertEquals(150, history.size());
+        assertEquals(150, statistics.getPopulationCount());
+        assertTrue(statistics.getThresholds().isFromPopulation());
+
+        // A rebuild from the files finds the same points instead of adding them a second time
+        assertEquals(150, statistics.recompute().getCount());
+        assertEquals(150, statistics.getPopulationCount());
+    }
+
+    @Test
+    public void recordsDuringRecomputesAreCountedOnce() throws Exception {
+        int threads = 4;
+        int perThread = 3000;
+        FootprintStatistics statistics = new FootprintStatistics(directory);
+        List<Thread> writers = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            FootprintHistory history = new FootprintHistory(directory.resolve("user" + t), UTC);
+            writers.add(new Thread(() -> {
+                try {
+                    for (int i = 0; i < perThread; i++) {
+                        statistics.record(history, START_MILLIS + i * 1000L, i);
+                    }
+                } catch (Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                }
+            }));
+        }
+        for (Thread writer : writers) {
+            writer.start();
+        }
+
+        // Rebuild over and over while the writers run, each one races with the records in flight
+        int recomputes = 0;
+        boolean running = true;
+        while (running) {
+            statistics.recompute();
+            recomputes++;
+            running = false;
+            for (Thread writer : writers) {
+                running |= writer.isAlive();
+            }
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+
+        assertTrue("writers failed: " + errors, errors.isEmpty());
+        assertTrue(recomputes > 0);
+        assertEquals(threads * perThread, statistics.getPopulationCount());
+        assertEquals(threads * perThread, statistics.recompute().getCount());
+    }
+}
@@ -0,0 +1,119 @@
+/* PersistentListTest class runs random sequences of appends, inserts, replacements and removals on a
+   PersistentList and the same sequence on an ArrayList, checking after each step that both hold the same
+   elements and that the tree is still balanced. Versions kept along the way must still hold what they held
+   when they were made, whatever was done to the lists built from them later. */
+
+//package OOP_Program;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PersistentListTest {
+
+    @Test
+    public void randomChangesMatchAnArrayList() {
+        Random random = new Random(6);
+        PersistentList<Integer> list = PersistentList.empty();
+        List<Integer> expected = new ArrayList<>();
+        List<PersistentList<Integer>> versions = new ArrayList<>();
+        List<List<Integer>> versionContents = new ArrayList<>();
+
+        for (int step = 0; step < 20_000; step++) {
+            int operation = random.nextInt(10);
+            if (operation < 3 || expected.isEmpty()) {
+                list = list.plus(step);
+                expected.add(step);
+            } else if (operation < 5) {
+                int index = random.nextInt(expected.size() + 1);
+                list = list.plus(index, step);
+                expected.add(index, step);
+            } else if (operation < 7) {
+                int index = random.nextInt(expected.size());
+                list = list.with(index, step);
+                expected.set(index, step);
+            } else if (operation < 9) {
+                int index = random.nextInt(expected.size());
+                list = list.minus(index);
+                expected.remove(index);
+            } else {
+                List<Integer> batch = List.of(step, -step, step + 1);
+                list = list.plusAll(batch);
+                expected.addAll(batch);
+            }
+
+            assertEquals(expected.size(), list.size());
+            if (!expected.isEmpty()) {
+                int index = random.nextInt(expected.size());
+                assertEquals(expected.get(index), list.get(index));
+            }
+            if (step % 500 == 0) {
+                assertEquals(expected, list);
+                assertTrue("unbalanced after step " + step, list.isBalanced());
+                versions.add(list);
+                versionContents.add(new ArrayList<>(expected));
+            }
+        }
+
+        assertEquals(expected, list);
+        assertTrue(list.isBalanced());
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals("version " + i + " changed", versionContents.get(i), versions.get(i));
+        }
+    }
+
+    @Test
+    public void removingFromTheFrontKeepsTheTreeBalanced() {
+        PersistentList<Integer> list = PersistentList.empty();
+        for (int i = 0; i < 4096; i++) {
+            list = list.plus(i);
+        }
+        assertTrue(list.isBalanced());
+        while (list.size() > 1) {
+            list = list.minus(0);
+            assertTrue("unbalanced at size " + list.size(), list.isBalanced());
+        }
+        assertEquals(List.of(4095), list);
+    }
+
+    @Test
+    public void copyOfBuildsABalancedCopy() {
+        List<Integer> elements = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            elements.add(i * 7);
+        }
+        PersistentList<Integer> list = PersistentList.copyOf(elements);
+        assertEquals(elements, list);
+        assertTrue(list.isBalanced());
+
+        PersistentList<Integer> changed = list.with(10, -1).minus(0);
+        assertEquals(elements, list);
+        assertEquals(Integer.valueOf(-1), changed.get(9));
+    }
+
+    @Test
+    public void positionsOutsideTheListAreRefused() {
+        PersistentList<String> list = PersistentList.<String>empty().plus("a");
+        try {
+            list.get(1);
+            fail("get past the end");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            list.with(-1, "b");
+            fail("with before the start");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            list.minus(1);
+            fail("minus past the end");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        assertEquals(List.of("a", "b"), list.plus(1, "b"));
+    }
+}
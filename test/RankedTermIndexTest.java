@@ -0,0 +1,301 @@
+/* RankedTermIndexTest class checks the ranked search against a brute-force BM25 that scores every name of a
+   random catalog, with fuzzy matching off and on. The catalog is large enough for the index to take both of
+   its paths: three common words are in most names, so their lists are split into impacts and read that way
+   for a one-word query or a query of several of them, while queries of rarer words read the lists through.
+   A name may score the same as another up to float rounding, so the results are compared by score at each
+   rank rather than by id. */
+
+//package OOP_Program;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RankedTermIndexTest {
+    private static final int NAMES = 150_000;
+    private static final String[] COMMON = {"climate", "carbon", "energy"};
+    private static final int[] KS = {1, 10, 100};
+
+    // The index's BM25 constants and limits, repeated here so the reference does not share its code
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_WEIGHT = 0.5;
+    private static final int MAX_EXPANSIONS = 16;
+    private static final int IMPACT_POSTINGS = 4096;
+    private static final long IMPACT_QUERY_POSTINGS = 300_000;
+
+    private final RankedTermIndex index = new RankedTermIndex();
+    private final String[] names = new String[NAMES]; // Null where the name was removed
+    private final List<String> vocabulary = new ArrayList<>();
+    private final Map<String, Integer> documentFrequency = new HashMap<>();
+    private final List<Map<String, Integer>> termFrequencies = new ArrayList<>();
+    private double averageLength;
+    private int count;
+
+    @Before
+    public void buildCatalog() {
+        Random random = new Random(23);
+        for (int i = 0; i < 400; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            vocabulary.add(word.toString());
+        }
+
+        for (int id = 0; id < NAMES; id++) {
+            names[id] = randomName(random);
+            index.add(id, names[id]);
+        }
+        // Edits and deletes change the word counts the scores depend on
+        for (int i = 0; i < NAMES / 20; i++) {
+            int id = random.nextInt(NAMES);
+            if (names[id] != null) {
+                index.remove(id, names[id]);
+                names[id] = null;
+            }
+            if (random.nextBoolean()) {
+                names[id] = randomName(random);
+                index.add(id, names[id]);
+            }
+        }
+
+        long totalLength = 0;
+        for (String name : names) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            termFrequencies.add(frequencies);
+            if (name == null) {
+                continue;
+            }
+            String[] words = RankedTermIndex.words(name);
+            count++;
+            totalLength += words.length;
+            for (String word : words) {
+                frequencies.merge(word, 1, Integer::sum);
+            }
+            for (String word : frequencies.keySet()) {
+                documentFrequency.merge(word, 1, Integer::sum);
+            }
+        }
+        averageLength = Math.max(1, (double) totalLength / count);
+    }
+
+    @Test
+    public void exactSearchMatchesBruteForce() {
+        for (String query : queries()) {
+            checkQuery(query, false);
+        }
+    }
+
+    @Test
+    public void fuzzySearchMatchesBruteForce() {
+        for (String query : queries()) {
+            checkQuery(query, true);
+        }
+    }
+
+    @Test
+    public void queriesTakeBothPaths() {
+        // The premises of this test: words with impacts, and a query with more postings than the cut-over
+        for (String word : COMMON) {
+            assertTrue(word, documentFrequency.get(word) >= IMPACT_POSTINGS);
+        }
+        long postings = 0;
+        for (String word : COMMON) {
+            postings += documentFrequency.get(word);
+        }
+        assertTrue("postings of the common words: " + postings, postings > IMPACT_QUERY_POSTINGS);
+    }
+
+    // Method to build names of two to eight words: the common words in most of them, the rest of the
+    // vocabulary with a skewed frequency, sometimes a word twice and sometimes a number
+    private String randomName(Random random) {
+        List<String> words = new ArrayList<>();
+        for (String common : COMMON) {
+            if (random.nextInt(100) < 75) {
+                words.add(common);
+            }
+        }
+        int others = 1 + random.nextInt(4);
+        for (int i = 0; i < others; i++) {
+            double skewed = Math.pow(random.nextDouble(), 3);
+            words.add(vocabulary.get((int) (skewed * vocabulary.size())));
+        }
+        if (random.nextInt(10) == 0) {
+            words.add(words.get(random.nextInt(words.size())));
+        }
+        if (random.nextInt(5) == 0) {
+            words.add(Integer.toString(random.nextInt(2000)));
+        }
+        Collections.shuffle(words, random);
+        return String.join(" ", words);
+    }
+
+    private List<String> queries() {
+        Random random = new Random(230);
+        List<String> queries = new ArrayList<>(List.of("climate", "carbon energy", "climate carbon energy",
+                "energy climate carbon", "climat", "clmate carbn", "carbon 17", "1234", "energy en", "zzzzzz"));
+        for (int i = 0; i < 30; i++) {
+            String first = vocabulary.get(random.nextInt(vocabulary.size()));
+            String second = vocabulary.get(random.nextInt(40)); // A frequent word
+            switch (i % 5) {
+                case 0:
+                    queries.add(first);
+                    break;
+                case 1:
+                    queries.add(first + " " + second);
+                    break;
+                case 2:
+                    queries.add(typo(first, random) + " " + COMMON[random.nextInt(COMMON.length)]);
+                    break;
+                case 3:
+                    queries.add(second + " " + first.substring(0, 3)); // The last word is typed halfway
+                    break;
+                default:
+                    queries.add(COMMON[random.nextInt(COMMON.length)] + " " + typo(second, random) + " " + first);
+            }
+        }
+        return queries;
+    }
+
+    private static String typo(String word, Random random) {
+        int position = random.nextInt(word.length());
+        return word.substring(0, position) + (char) ('a' + random.nextInt(26)) + word.substring(position + 1);
+    }
+
+    // Method to compare the index with the brute force for one query at every k
+    private void checkQuery(String query, boolean fuzzy) {
+        double[] scores = bruteForceScores(query, fuzzy);
+        List<Double> ranked = new ArrayList<>();
+        for (double score : scores) {
+            if (score > 0) {
+                ranked.add(score);
+            }
+        }
+        ranked.sort(Comparator.reverseOrder());
+
+        for (int k : KS) {
+            int[] ids = index.search(query, k, fuzzy);
+            String label = "\"" + query + "\" fuzzy=" + fuzzy + " k=" + k;
+            assertEquals(label + " count", Math.min(k, ranked.size()), ids.length);
+            assertEquals(label + " distinct ids", ids.length, Arrays.stream(ids).distinct().count());
+            for (int i = 0; i < ids.length; i++) {
+                double expected = ranked.get(i);
+                assertEquals(label + " rank " + i + " id " + ids[i], expected, scores[ids[i]], 1e-4 * expected);
+            }
+        }
+    }
+
+    // Method to score every name against the query the way the index describes: each query word stands for
+    // the dictionary words within its edit limit, weighted 1 / (1 + edits), and the last one also for the
+    // words it is a prefix of at half weight; a name takes the best BM25 score among each word's expansions
+    private double[] bruteForceScores(String query, boolean fuzzy) {
+        String[] queryWords = Arrays.stream(RankedTermIndex.words(query)).distinct().toArray(String[]::new);
+        List<Map<String, Double>> expansions = new ArrayList<>();
+        for (int q = 0; q < queryWords.length; q++) {
+            String word = queryWords[q];
+            int maxEdits = fuzzy ? RankedTermIndex.maxEdits(word) : 0;
+            Map<String, Double> weights = new LinkedHashMap<>();
+            for (String term : documentFrequency.keySet()) {
+                if (maxEdits == 0) {
+                    if (term.equals(word)) {
+                        weights.put(term, 1.0);
+                    }
+                } else if (!isNumber(term)) {
+                    int edits = editDistance(word, term);
+                    if (edits <= maxEdits) {
+                        weights.put(term, 1.0 / (1 + edits));
+                    }
+                }
+            }
+            if (q == queryWords.length - 1 && !isNumber(word)) {
+                for (String term : documentFrequency.keySet()) {
+                    if (term.length() > word.length() && term.startsWith(word)) {
+                        weights.putIfAbsent(term, PREFIX_WEIGHT);
+                    }
+                }
+            }
+            expansions.add(best(weights, query));
+        }
+
+        double[] scores = new double[NAMES];
+        for (int id = 0; id < NAMES; id++) {
+            if (names[id] == null) {
+                continue;
+            }
+            Map<String, Integer> frequencies = termFrequencies.get(id);
+            int length = RankedTermIndex.words(names[id]).length;
+            double total = 0;
+            for (Map<String, Double> weights : expansions) {
+                double best = 0;
+                for (Map.Entry<String, Double> expansion : weights.entrySet()) {
+                    Integer frequency = frequencies.get(expansion.getKey());
+                    if (frequency != null) {
+                        int df = documentFrequency.get(expansion.getKey());
+                        double idf = Math.log(1 + (count - df + 0.5) / (df + 0.5));
+                        double norm = K1 * (1 - B + B * length / averageLength);
+                        best = Math.max(best, idf * expansion.getValue() * frequency * (K1 + 1) / (frequency + norm));
+                    }
+                }
+                total += best;
+            }
+            scores[id] = total;
+        }
+        return scores;
+    }
+
+    // Method to keep the MAX_EXPANSIONS best expansions by weight, then by how many names have them
+    private Map<String, Double> best(Map<String, Double> weights, String query) {
+        if (weights.size() <= MAX_EXPANSIONS) {
+            return weights;
+        }
+        List<Map.Entry<String, Double>> sorted = new ArrayList<>(weights.entrySet());
+        Comparator<Map.Entry<String, Double>> order = Comparator
+                .comparingDouble((Map.Entry<String, Double> expansion) -> -expansion.getValue())
+                .thenComparingInt(expansion -> -documentFrequency.get(expansion.getKey()));
+        sorted.sort(order);
+        // The index keeps an arbitrary one of expansions that tie at the cut, so the queries must not have any
+        assertTrue("tie at the expansion cut for \"" + query + "\"",
+                order.compare(sorted.get(MAX_EXPANSIONS - 1), sorted.get(MAX_EXPANSIONS)) != 0);
+        Map<String, Double> kept = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> expansion : sorted.subList(0, MAX_EXPANSIONS)) {
+            kept.put(expansion.getKey(), expansion.getValue());
+        }
+        return kept;
+    }
+
+    private static boolean isNumber(String word) {
+        return word.chars().allMatch(Character::isDigit);
+    }
+
+    private static int editDistance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,88 @@
+/* UrlHealthCheckerTest class checks that cancelling a check run stops the requests to the checked site. The
+   site is a local HttpServer that holds every request until the test lets it answer, so the first probes
+   take all of the host's connection slots and the rest of the run is still waiting for one when it is
+   cancelled. */
+
+//package OOP_Program;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class UrlHealthCheckerTest {
+    private static final int MAX_PER_HOST = 4; // The checker's limit of probes at once against one host
+    private static final int LINKS = 20;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch firstRequest = new CountDownLatch(1);
+    private final CountDownLatch answer = new CountDownLatch(1);
+
+    // Method to start the local site, which counts the requests and answers them once the test allows it
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            firstRequest.countDown();
+            try {
+                answer.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        answer.countDown();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    public void cancelledRunSendsNoMoreRequests() throws Exception {
+        String site = "http://" + server.getAddress().getAddress().getHostAddress() + ":"
+                + server.getAddress().getPort();
+        List<AdminInterface.UrlInfo> entries = new ArrayList<>();
+        for (int i = 0; i < LINKS; i++) {
+            entries.add(new AdminInterface.UrlInfo(site + "/link" + i, "Link " + i));
+        }
+
+        UrlHealthChecker.Run run = new UrlHealthChecker().checkAll(entries, null);
+        assertTrue("no request reached the site", firstRequest.await(10, TimeUnit.SECONDS));
+        run.cancel();
+        answer.countDown();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!run.isDone() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue("the run did not finish", run.isDone());
+        int sent = requests.get();
+        assertTrue("requests sent after the cancel: " + sent, sent <= MAX_PER_HOST);
+
+        Thread.sleep(500);
+        assertEquals("requests arrived after the run was done", sent, requests.get());
+    }
+}